@@ -0,0 +1,374 @@
+package dungeon.benchmark;
+
+import dungeon.model.CellStorage;
+import dungeon.model.Directions;
+import dungeon.model.Dungeon;
+import dungeon.model.DungeonSettings;
+import dungeon.model.GridAlgorithm;
+import dungeon.model.RandomSeedClass;
+import dungeon.view.OffscreenRenderer;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The benchmarks of the dungeon game. Each benchmark measures one operation on
+ * dungeons of some settings: creating a dungeon, connecting the edges of a grid
+ * with the maze algorithm of the settings, moving the player, shooting an
+ * arrow, detecting the smell of Otyughs, drawing the board after a move and
+ * drawing the board for the first time. The player is only moved along a walk
+ * which avoids the Otyughs and returns to the start, so a game never ends while
+ * it is being measured.
+ *
+ * <p>The settings are the parameters of {@link Settings}, and the zoom of the
+ * drawing benchmarks the parameter of {@link View}. Every combination of their
+ * values is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DungeonBenchmarks {
+  private static final int VIEW_WIDTH = 1000;
+  private static final int VIEW_HEIGHT = 800;
+  private static final int WALK_LENGTH = 1024;
+  private static final int SHOTS = 300;
+
+  /**
+   * The settings of the dungeons used, and the seed of the next dungeon
+   * created.
+   */
+  @State(Scope.Thread)
+  public static class Settings {
+    @Param({"10", "100"})
+    public int rows;
+
+    @Param({"10", "100"})
+    public int columns;
+
+    @Param("4")
+    public int interconnectivity;
+
+    @Param("false")
+    public boolean wrapping;
+
+    @Param("2")
+    public int difficulty;
+
+    @Param("50")
+    public int treasure;
+
+    @Param("OBJECTS")
+    public CellStorage storage;
+
+    @Param("KRUSKAL")
+    public GridAlgorithm algorithm;
+
+    private DungeonSettings settings;
+    private int seed;
+
+    /**
+     * Creates the settings from the parameters.
+     */
+    @Setup
+    public void setup() {
+      settings = new DungeonSettings(rows, columns, interconnectivity, treasure, wrapping,
+              difficulty, storage, algorithm);
+    }
+  }
+
+  /**
+   * A dungeon with a closed walk from its start that never enters a location with
+   * an Otyugh or the end location. The walk goes out randomly and comes back the
+   * same way, so it can be repeated forever.
+   */
+  @State(Scope.Thread)
+  public static class Walk {
+    private Dungeon dungeon;
+    private String[] moves;
+    private int next;
+
+    /**
+     * Finds a dungeon of the settings with a safe walk.
+     *
+     * @param s settings of the dungeon
+     * @throws IllegalArgumentException if no dungeon of the settings has one
+     */
+    @Setup
+    public void setup(Settings s) {
+      Random random = new Random(1);
+      for (int seed = 0; seed < 100; seed++) {
+        Dungeon d = createDungeon(s.settings, seed);
+        Directions[] out = new Directions[WALK_LENGTH];
+        int n = d.getCurrentLocation();
+        int length = 0;
+        while (length < WALK_LENGTH) {
+          int safe = safeExits(d, s.settings, n);
+          if (safe == 0) {
+            break;
+          }
+          Directions move;
+          do {
+            move = Directions.values()[random.nextInt(Directions.values().length)];
+          } while ((safe & move.getMask()) == 0);
+          out[length++] = move;
+          n = neighbour(s.settings, n, move);
+        }
+        if (length == WALK_LENGTH) {
+          dungeon = d;
+          moves = new String[2 * WALK_LENGTH];
+          for (int i = 0; i < WALK_LENGTH; i++) {
+            moves[i] = out[i].name();
+            moves[2 * WALK_LENGTH - 1 - i] = opposite(out[i]).name();
+          }
+          return;
+        }
+      }
+      throw new IllegalArgumentException("No safe walk found in dungeons of " + s.settings);
+    }
+
+    /**
+     * Moves the player one step before each iteration, so the smell benchmark
+     * is measured at a new location every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void stepBeforeIteration() {
+      step();
+    }
+
+    // moves the player to the next location of the walk
+    private void step() {
+      dungeon.movePlayer(moves[next]);
+      next = next + 1 == moves.length ? 0 : next + 1;
+    }
+
+    // exits of a location which lead to a location without an Otyugh that is not the end
+    private static int safeExits(Dungeon d, DungeonSettings settings, int n) {
+      int exits = d.locationExitMask(n);
+      int safe = 0;
+      for (Directions move : Directions.values()) {
+        if ((exits & move.getMask()) != 0) {
+          int m = neighbour(settings, n, move);
+          if (d.locationMonster(m) == null && m != d.getEndLocation()) {
+            safe |= move.getMask();
+          }
+        }
+      }
+      return safe;
+    }
+
+    private static int neighbour(DungeonSettings settings, int n, Directions move) {
+      int x = Math.floorMod(n / settings.getColumns() + move.getX(), settings.getRows());
+      int y = Math.floorMod(n % settings.getColumns() + move.getY(), settings.getColumns());
+      return x * settings.getColumns() + y;
+    }
+
+    private static Directions opposite(Directions move) {
+      return Directions.values()[(move.ordinal() + 2) % Directions.values().length];
+    }
+  }
+
+  /**
+   * Fresh dungeons to shoot the 3 arrows the player starts with in, created
+   * before each iteration for the {@value #SHOTS} shots of the iteration.
+   */
+  @State(Scope.Thread)
+  public static class Shots {
+    private final Random random = new Random(1);
+    private final Dungeon[] dungeons = new Dungeon[SHOTS / 3];
+    private final String[] directions = new String[SHOTS / 3];
+    private final int[] distances = new int[SHOTS / 3];
+    private int next;
+
+    /**
+     * Creates the dungeons of the next iteration and chooses the shots.
+     *
+     * @param s settings of the dungeons
+     */
+    @Setup(Level.Iteration)
+    public void setup(Settings s) {
+      for (int i = 0; i < dungeons.length; i++) {
+        Dungeon d = createDungeon(s.settings, s.seed++);
+        int exits = d.locationExitMask(d.getCurrentLocation());
+        Directions shot;
+        do {
+          shot = Directions.values()[random.nextInt(Directions.values().length)];
+        } while ((exits & shot.getMask()) == 0);
+        dungeons[i] = d;
+        directions[i] = shot.name();
+        distances[i] = 1 + random.nextInt(5);
+      }
+      next = 0;
+    }
+  }
+
+  /**
+   * The view drawn by the drawing benchmarks, at a zoom level.
+   */
+  @State(Scope.Thread)
+  public static class View {
+    @Param("0")
+    public int zoom;
+
+    private final BufferedImage image = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT,
+            BufferedImage.TYPE_INT_RGB);
+    private OffscreenRenderer renderer;
+
+    /**
+     * Creates the renderer of the dungeon of the walk.
+     *
+     * @param walk walk whose dungeon is drawn
+     */
+    @Setup
+    public void setup(Walk walk) {
+      renderer = new OffscreenRenderer(walk.dungeon, zoom);
+    }
+
+    /**
+     * Releases the renderer.
+     */
+    @TearDown
+    public void tearDown() {
+      renderer.close();
+    }
+  }
+
+  /**
+   * Creates a new dungeon with a new seed every time.
+   *
+   * @param s settings of the dungeon
+   * @return end of the dungeon, or -1 if it cannot be created with the seed
+   */
+  @Benchmark
+  public int generate(Settings s) {
+    try {
+      return s.settings.createDungeon(new RandomSeedClass(s.seed++)).getEndLocation();
+    } catch (IllegalArgumentException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Connects the edges of a new grid with a new seed every time, without the
+   * rest of the dungeon, to compare the maze algorithms.
+   *
+   * @param s settings of the grid
+   * @return number of values of the connected edges
+   */
+  @Benchmark
+  public int generateGrid(Settings s) {
+    return s.algorithm.connect(s.rows, s.columns, s.wrapping, s.interconnectivity,
+            new RandomSeedClass(s.seed++)).length;
+  }
+
+  /**
+   * Moves the player one step along the safe walk.
+   *
+   * @param walk walk of the player
+   * @return location of the player
+   */
+  @Benchmark
+  public int movePlayer(Walk walk) {
+    walk.step();
+    return walk.dungeon.getCurrentLocation();
+  }
+
+  /**
+   * Shoots an arrow from the start of a fresh dungeon. Each dungeon takes 3
+   * shots, so the shots of an iteration are timed together, and the score is
+   * the time of {@value #SHOTS} shots.
+   *
+   * @param shots dungeons to shoot in
+   * @return outcome of the shot
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 10, batchSize = SHOTS)
+  @Measurement(iterations = 20, batchSize = SHOTS)
+  public String shootArrow(Shots shots) {
+    int i = shots.next++ / 3;
+    return shots.dungeons[i].shootArrow(shots.directions[i], shots.distances[i]);
+  }
+
+  /**
+   * Detects the smell at the player's location. The player moves one step
+   * along the walk before each iteration.
+   *
+   * @param walk walk of the player
+   * @return the smell
+   */
+  @Benchmark
+  public String isMonsterClose(Walk walk) {
+    return walk.dungeon.isMonsterClose();
+  }
+
+  /**
+   * Moves the player and draws the view around the player, as the game does for
+   * a move.
+   *
+   * @param walk walk of the player
+   * @param view view drawn
+   * @return colour of the middle of the view
+   */
+  @Benchmark
+  public int renderFrame(Walk walk, View view) {
+    walk.step();
+    return render(view.renderer, walk.dungeon, view.image);
+  }
+
+  /**
+   * Draws the view around the player with a new renderer, drawing every tile in
+   * view.
+   *
+   * @param walk walk of the player
+   * @param view view drawn
+   * @return colour of the middle of the view
+   */
+  @Benchmark
+  public int renderFirstFrame(Walk walk, View view) {
+    try (OffscreenRenderer renderer = new OffscreenRenderer(walk.dungeon, view.zoom)) {
+      return render(renderer, walk.dungeon, view.image);
+    }
+  }
+
+  // draws the view centred on the player, as far as the board allows
+  private static int render(OffscreenRenderer renderer, Dungeon dungeon, BufferedImage image) {
+    Rectangle player = renderer.getLocationBounds(dungeon.getCurrentLocation());
+    int x = Math.max(0, Math.min(player.x + player.width / 2 - VIEW_WIDTH / 2,
+            renderer.getBoardSize().width - VIEW_WIDTH));
+    int y = Math.max(0, Math.min(player.y + player.height / 2 - VIEW_HEIGHT / 2,
+            renderer.getBoardSize().height - VIEW_HEIGHT));
+    renderer.render(image, x, y);
+    return image.getRGB(VIEW_WIDTH / 2, VIEW_HEIGHT / 2);
+  }
+
+  // the first dungeon of the settings that can be created, from a seed onwards
+  private static Dungeon createDungeon(DungeonSettings settings, int seed) {
+    for (int i = seed; i < seed + 100; i++) {
+      try {
+        return settings.createDungeon(new RandomSeedClass(i));
+      } catch (IllegalArgumentException e) {
+        // no end location for this seed, try the next one
+      }
+    }
+    throw new IllegalArgumentException("No dungeon can be created with " + settings);
+  }
+}
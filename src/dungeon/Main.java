@@ -4,35 +4,74 @@ import dungeon.controller.DungeonConsoleController;
 import dungeon.controller.DungeonController;
 import dungeon.controller.MvcCommandController;
 import dungeon.controller.MvcController;
+import dungeon.model.CellStorage;
+import dungeon.model.CommandJournal;
 import dungeon.model.Dungeon;
 import dungeon.model.DungeonClass;
+import dungeon.model.DungeonSettings;
+import dungeon.model.GridAlgorithm;
+import dungeon.model.JournalReplay;
 import dungeon.model.RandomClass;
 import dungeon.model.RandomGenerator;
 import dungeon.model.RandomSeedClass;
+import dungeon.server.DungeonServer;
+import dungeon.server.NioDungeonServer;
+import dungeon.simulation.ExploringStrategy;
+import dungeon.simulation.PlayerStrategy;
+import dungeon.simulation.RandomWalkStrategy;
+import dungeon.simulation.SimulationRunner;
 import dungeon.view.DungeonFrameView;
 import dungeon.view.DungeonView;
 
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Supplier;
 
 /**
  * Run an interactive adventure game using GUI or a text based adventure
  * game on the console. Text based game is played by providing inputs
  * in the console. The GUI can be played with mouse clicks and keyboard
  * presses according to the instructions provided on the view which is launched
- * when the program is run.
+ * when the program is run. Games can also be played without a user by a
+ * strategy, many at a time, to measure how hard the dungeons are, or
+ * hosted for many players at once by a server. A text game can be written
+ * to a journal and replayed from it. The dungeons of text games, simulations
+ * and servers can be created by any of the maze algorithms.
  *
  */
 public class Main {
+  private static final int SNAPSHOT_INTERVAL = 1000;
+  private static final String ALGORITHM_FLAG = "--algorithm=";
+  private static final String JOURNAL_FLAG = "--journal=";
 
   /**
    * The program can be run without using CLI arguments to launch the
    * GUI. If CLI is provided, the game will go into the text based
-   * console mode.
+   * console mode. If the first argument is "simulate", games are played
+   * by a strategy and a report of the outcomes is printed. If it is "server",
+   * text games are hosted for players connecting over TCP, with a thread for
+   * each player, or on one thread for all of them if it is "nio-server".
+   * If it is "replay", the game written to a journal is shown as it was after
+   * a command.
    *
    * @param args none for GUI or list of specs for text based game
    */
   public static void main(String[] args) {
-    if (args.length == 0) {
+    if (args.length > 0 && args[0].equalsIgnoreCase("simulate")) {
+      simulate(args);
+    }
+    else if (args.length > 0 && (args[0].equalsIgnoreCase("server")
+            || args[0].equalsIgnoreCase("nio-server"))) {
+      serve(args);
+    }
+    else if (args.length > 0 && args[0].equalsIgnoreCase("replay")) {
+      replay(args);
+    }
+    else if (args.length == 0) {
       Dungeon model = new DungeonClass(6, 6, 4, 65, false, 2, new RandomSeedClass(0));
       DungeonView view = new DungeonFrameView(model);
       MvcController controller = new MvcCommandController();
@@ -88,8 +127,151 @@ public class Main {
       Readable input = new InputStreamReader(System.in);
       Appendable output = System.out;
       DungeonController textController = new DungeonConsoleController(input, output);
-      Dungeon dungeon = new DungeonClass(r, c, i, p, b, m, rand);
-      textController.startDungeon(dungeon);
+      // rows columns interconnectivity percentage difficulty y/n [--algorithm=name]
+      // [--journal=file]
+      GridAlgorithm algorithm = GridAlgorithm.KRUSKAL;
+      String journalPath = null;
+      for (int k = 6; k < args.length; k++) {
+        if (args[k].startsWith(ALGORITHM_FLAG)) {
+          algorithm = algorithm(args[k].substring(ALGORITHM_FLAG.length()));
+          if (algorithm == null) {
+            System.out.println("Unknown algorithm " + args[k].substring(ALGORITHM_FLAG.length())
+                    + ", choose one of " + Arrays.toString(GridAlgorithm.values()));
+            return;
+          }
+        }
+        else if (args[k].startsWith(JOURNAL_FLAG)
+                && args[k].length() > JOURNAL_FLAG.length()) {
+          journalPath = args[k].substring(JOURNAL_FLAG.length());
+        }
+        else {
+          System.out.println("Unknown argument " + args[k] + ". Usage: rows columns "
+                  + "interconnectivity percentage difficulty y/n [" + ALGORITHM_FLAG
+                  + "name] [" + JOURNAL_FLAG + "file]");
+          return;
+        }
+      }
+      Dungeon dungeon = new DungeonClass(r, c, i, p, b, m, rand, CellStorage.OBJECTS, algorithm);
+      if (journalPath == null) {
+        textController.startDungeon(dungeon);
+        return;
+      }
+      // not buffered, so the journal holds every command played even if the game is killed
+      try (OutputStream journal = Files.newOutputStream(Path.of(journalPath))) {
+        textController.startDungeon(new CommandJournal(dungeon, journal, SNAPSHOT_INTERVAL));
+      } catch (IOException e) {
+        System.out.println("Cannot write the journal: " + e.getMessage());
+      }
+    }
+  }
+
+  // the maze algorithm with the name, in any case and with - for _, or null if there is none
+  private static GridAlgorithm algorithm(String name) {
+    for (GridAlgorithm a : GridAlgorithm.values()) {
+      if (a.name().equalsIgnoreCase(name.replace('-', '_'))) {
+        return a;
+      }
+    }
+    return null;
+  }
+
+  // replay journal [command]
+  private static void replay(String[] args) {
+    if (args.length < 2) {
+      System.out.println("Usage: replay journal [command]");
+      return;
+    }
+    try (JournalReplay replay = new JournalReplay(Path.of(args[1]))) {
+      int n = args.length > 2 ? Integer.parseInt(args[2]) : replay.getCommands();
+      Dungeon dungeon = replay.seek(n);
+      System.out.println("After command " + n + " of " + replay.getCommands());
+      System.out.println(dungeon.displayLocationDescription());
+      if (!dungeon.isMonsterClose().equals("")) {
+        System.out.println(dungeon.isMonsterClose());
+      }
+      System.out.println(dungeon.displayPlayerDescription());
+    } catch (NumberFormatException e) {
+      System.out.println("Not a number! Enter a valid command number");
+    } catch (IOException | IllegalArgumentException e) {
+      System.out.println("Cannot replay the journal: " + e.getMessage());
+    }
+  }
+
+  // simulate games [rows columns interconnectivity percentage difficulty y/n
+  // [explore/random [algorithm]]]
+  private static void simulate(String[] args) {
+    GridAlgorithm algorithm = args.length > 9 ? algorithm(args[9]) : GridAlgorithm.KRUSKAL;
+    if (algorithm == null) {
+      System.out.println("Unknown algorithm " + args[9] + ", choose one of "
+              + Arrays.toString(GridAlgorithm.values()));
+      return;
+    }
+    long games;
+    DungeonSettings settings;
+    try {
+      games = args.length > 1 ? Long.parseLong(args[1]) : 100000;
+      if (args.length > 2) {
+        settings = new DungeonSettings(Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                Integer.parseInt(args[4]), Integer.parseInt(args[5]),
+                args[7].equalsIgnoreCase("y") || args[7].equalsIgnoreCase("Yes"),
+                Integer.parseInt(args[6]), CellStorage.OBJECTS, algorithm);
+      } else {
+        settings = new DungeonSettings(6, 6, 4, 65, false, 2, CellStorage.OBJECTS);
+      }
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      System.out.println("Usage: simulate games [rows columns interconnectivity percentage "
+              + "difficulty y/n [explore/random [algorithm]]]");
+      return;
+    } catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+      return;
+    }
+    Supplier<PlayerStrategy> strategy = args.length > 8 && args[8].equalsIgnoreCase("random")
+            ? RandomWalkStrategy::new : ExploringStrategy::new;
+    System.out.println("Simulating " + games + " games of " + settings);
+    System.out.println(new SimulationRunner(settings, strategy, 10000).run(games, 0));
+  }
+
+  // server|nio-server port [sessions [rows columns interconnectivity percentage difficulty y/n
+  // [algorithm]]]
+  private static void serve(String[] args) {
+    GridAlgorithm algorithm = args.length > 9 ? algorithm(args[9]) : GridAlgorithm.KRUSKAL;
+    if (algorithm == null) {
+      System.out.println("Unknown algorithm " + args[9] + ", choose one of "
+              + Arrays.toString(GridAlgorithm.values()));
+      return;
+    }
+    int port;
+    int sessions;
+    DungeonSettings settings;
+    try {
+      port = Integer.parseInt(args[1]);
+      sessions = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+      if (args.length > 3) {
+        settings = new DungeonSettings(Integer.parseInt(args[3]), Integer.parseInt(args[4]),
+                Integer.parseInt(args[5]), Integer.parseInt(args[6]),
+                args[8].equalsIgnoreCase("y") || args[8].equalsIgnoreCase("Yes"),
+                Integer.parseInt(args[7]), CellStorage.OBJECTS, algorithm);
+      } else {
+        settings = new DungeonSettings(6, 6, 4, 65, false, 2, CellStorage.OBJECTS);
+      }
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      System.out.println("Usage: " + args[0] + " port [sessions [rows columns "
+              + "interconnectivity percentage difficulty y/n [algorithm]]]");
+      return;
+    } catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+      return;
+    }
+    int idleMillis = 5 * 60 * 1000;
+    try {
+      int listening = args[0].equalsIgnoreCase("nio-server")
+              ? new NioDungeonServer(settings, sessions, idleMillis).start(port)
+              : new DungeonServer(settings, sessions, idleMillis).start(port);
+      System.out.println("Hosting up to " + sessions + " games of " + settings + " on port "
+              + listening);
+    } catch (IOException | IllegalArgumentException e) {
+      System.out.println("Cannot start the server: " + e.getMessage());
     }
   }
 }
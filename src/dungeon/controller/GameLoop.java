@@ -0,0 +1,200 @@
+package dungeon.controller;
+
+import dungeon.model.Dungeon;
+import dungeon.model.DungeonEvent;
+import dungeon.model.DungeonReplica;
+import dungeon.model.ReadOnlyDungeon;
+import dungeon.view.DungeonView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Plays the game on a thread of its own, so the thread of the view is never
+ * held up by the model. The loop owns the dungeon: commands are queued for it
+ * and run one at a time, and after each command the state of the dungeon is
+ * captured and shown on the display thread through a {@link DungeonReplica},
+ * followed by the status messages the command gave. The queue is bounded, so a
+ * player pressing keys faster than the game can keep up is told so instead of
+ * building up a backlog of moves.
+ */
+final class GameLoop implements AutoCloseable {
+  private final ThreadPoolExecutor loop;
+  private final Executor display;
+  private final DungeonView view;
+  private final DungeonView deferredView;
+  private final List<DungeonEvent> changes;
+  private final List<Runnable> messages;
+  private final Consumer<DungeonEvent> relay;
+  private Dungeon dungeon;
+  private DungeonReplica replica;
+
+  /**
+   * The loop is created with its own thread, which does not keep the program
+   * running when it ends.
+   *
+   * @param view view shown on the display thread
+   * @param display runs tasks on the thread of the view
+   * @param capacity most commands waiting to be run
+   * @throws IllegalArgumentException if view or display is null or capacity is
+   *                                  less than 1
+   */
+  GameLoop(DungeonView view, Executor display, int capacity) {
+    if (view == null || display == null) {
+      throw new IllegalArgumentException("View and display cannot be null");
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity should be at least 1");
+    }
+    this.loop = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacity), r -> {
+              Thread t = new Thread(r, "dungeon-game-loop");
+              t.setDaemon(true);
+              return t;
+            });
+    this.display = display;
+    this.view = view;
+    this.deferredView = new DeferredView();
+    this.changes = new ArrayList<>();
+    this.messages = new ArrayList<>();
+    this.relay = changes::add;
+  }
+
+  /**
+   * Hands a new dungeon to the loop. The commands still waiting for the
+   * previous dungeon are dropped, and the commands queued after this call are
+   * run on the new dungeon. The dungeon must not be used by the caller any more.
+   *
+   * @param next the dungeon to play
+   * @param nextReplica replica of the dungeon, created before it is handed over
+   * @throws IllegalArgumentException if a value is null
+   */
+  void setDungeon(Dungeon next, DungeonReplica nextReplica) {
+    if (next == null || nextReplica == null) {
+      throw new IllegalArgumentException("Dungeon and replica cannot be null");
+    }
+    loop.getQueue().clear();
+    loop.execute(() -> {
+      if (dungeon != null) {
+        dungeon.unsubscribe(relay);
+      }
+      changes.clear();
+      dungeon = next;
+      replica = nextReplica;
+      dungeon.subscribe(DungeonEvent.class, relay);
+    });
+  }
+
+  /**
+   * Queues a command to be run on the dungeon. Once it has run, the view is
+   * updated with the new state of the dungeon and shows the messages of the
+   * command.
+   *
+   * @param command the command to run
+   * @return false if too many commands are waiting and the command is dropped
+   * @throws IllegalArgumentException if command is null
+   */
+  boolean submit(CommandController command) {
+    if (command == null) {
+      throw new IllegalArgumentException("Command cannot be null");
+    }
+    try {
+      loop.execute(() -> run(command));
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  // runs a command on the loop thread and shows its outcome on the display thread
+  private void run(CommandController command) {
+    if (dungeon == null) {
+      // no dungeon was handed to the loop yet
+      return;
+    }
+    try {
+      if (dungeon.gameOver()) {
+        deferredView.displayStatus("Game is over! Start a new game");
+      }
+      else {
+        command.mvcGo(dungeon, deferredView);
+      }
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      deferredView.showErrorMessage(e.getMessage());
+    }
+    Runnable update = replica.capture(changes);
+    List<Runnable> shown = new ArrayList<>(messages);
+    changes.clear();
+    messages.clear();
+    display.execute(() -> {
+      update.run();
+      shown.forEach(Runnable::run);
+    });
+  }
+
+  /**
+   * Drops the waiting commands and stops the thread of the loop.
+   */
+  @Override
+  public void close() {
+    loop.shutdownNow();
+  }
+
+  /**
+   * The view as seen by commands on the loop thread. Calls are kept until the
+   * command has run and are then made on the display thread, after the view
+   * has been updated with the state they describe.
+   */
+  private final class DeferredView implements DungeonView {
+    @Override
+    public void setSettingListeners(MvcController controller) {
+      messages.add(() -> view.setSettingListeners(controller));
+    }
+
+    @Override
+    public void setRestartListeners(MvcController controller) {
+      messages.add(() -> view.setRestartListeners(controller));
+    }
+
+    @Override
+    public void moveClickListener(MvcController controller) {
+      messages.add(() -> view.moveClickListener(controller));
+    }
+
+    @Override
+    public void setKeyListeners(MvcController controller) {
+      messages.add(() -> view.setKeyListeners(controller));
+    }
+
+    @Override
+    public void makeVisible() {
+      messages.add(view::makeVisible);
+    }
+
+    @Override
+    public void reset(ReadOnlyDungeon dungeon) {
+      messages.add(() -> view.reset(dungeon));
+    }
+
+    @Override
+    public void displayStatus(String status) {
+      messages.add(() -> view.displayStatus(status));
+    }
+
+    @Override
+    public void removeFrame() {
+      messages.add(view::removeFrame);
+    }
+
+    @Override
+    public void showErrorMessage(String error) {
+      messages.add(() -> view.showErrorMessage(error));
+    }
+  }
+}
@@ -3,33 +3,39 @@ package dungeon.controller;
 import dungeon.controller.commands.Move;
 import dungeon.controller.commands.Pick;
 import dungeon.controller.commands.Shoot;
+import dungeon.model.CellStorage;
 import dungeon.model.Dungeon;
-import dungeon.model.DungeonClass;
-import dungeon.model.RandomSeedClass;
-import dungeon.view.DungeonFrameView;
+import dungeon.model.DungeonFactory;
+import dungeon.model.DungeonReplica;
+import dungeon.model.DungeonSettings;
+import dungeon.model.ReadOnlyDungeon;
 import dungeon.view.DungeonView;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
+import javax.swing.SwingUtilities;
 
 /**
  * The controller handles user inputs from the view by listening to
  * mouse clicks and keyboard inputs and passes the inputs to the model
  * to implement the functionalities. The dungeon game starts with a preset
- * dungeon.
+ * dungeon. The dungeons for restarting are created in the background ahead
+ * of time, so restarting does not freeze the view. The game itself is played
+ * on a game loop thread, and the view reads a replica of the dungeon, so slow
+ * moves and shots never hold up the input and painting of the view.
  */
 public final class MvcCommandController implements MvcController {
-  private Dungeon model;
+  private static final int QUEUED_COMMANDS = 16;
+
+  private ReadOnlyDungeon model;
   private DungeonView view;
-  private int rows;
-  private int columns;
-  private int interconnectivity;
-  private int percentage;
-  private int difficulty;
-  private boolean wrapping;
+  private GameLoop loop;
+  private final DungeonFactory factory;
   private final Map<String, Function<String, CommandController>> knownCommands;
   private int seed;
+  private int restarts;
 
 
   /**
@@ -39,13 +45,10 @@ public final class MvcCommandController implements MvcController {
    */
   public MvcCommandController() {
     seed = 0;
+    restarts = 0;
     knownCommands = new HashMap<>();
-    rows = 6;
-    columns = 6;
-    interconnectivity = 4;
-    percentage = 65;
-    difficulty = 2;
-    wrapping = false;
+    factory = new DungeonFactory(new DungeonSettings(6, 6, 4, 65, false, 2,
+            CellStorage.OBJECTS), 2, 2);
   }
 
 
@@ -57,49 +60,82 @@ public final class MvcCommandController implements MvcController {
     if (view == null) {
       throw new IllegalArgumentException("View cannot be null");
     }
-    this.model = model;
+    DungeonReplica replica = new DungeonReplica(model);
+    this.model = replica;
     this.view = view;
+    view.reset(replica);
+    loop = new GameLoop(view, SwingUtilities::invokeLater, QUEUED_COMMANDS);
+    loop.setDungeon(model, replica);
     view.setKeyListeners(this);
     view.setSettingListeners(this);
     view.setRestartListeners(this);
     view.moveClickListener(this);
     view.makeVisible();
+    prefetch();
+  }
+
+  private static int nextSeed(int seed) {
+    return seed + 1 == 100 ? 0 : seed + 1;
+  }
+
+  // starts creating the dungeons of the same game and of a new game
+  private void prefetch() {
+    factory.prefetch(seed, nextSeed(seed));
+  }
+
+  // starts the game of the current seed once its dungeon is created, unless
+  // the game is restarted again before that; the replica is made on the thread
+  // that created the dungeon, before the dungeon is handed to the game loop
+  private void restart() {
+    int restart = ++restarts;
+    factory.take(seed).whenComplete((dungeon, error) -> {
+      DungeonReplica replica = error == null ? new DungeonReplica(dungeon) : null;
+      SwingUtilities.invokeLater(() -> {
+        if (restart != restarts) {
+          return;
+        }
+        if (error != null) {
+          Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+          view.showErrorMessage(cause.getMessage());
+          return;
+        }
+        model = replica;
+        view.reset(replica);
+        loop.setDungeon(dungeon, replica);
+      });
+    });
+    prefetch();
   }
 
   private void processSettings(String r, String c, String i, String p, String d, String w) {
     if (r == null || c == null || i == null || p == null || d == null || w == null) {
       throw new IllegalArgumentException("Setting values cannot be null");
     }
+    boolean wrapping = factory.getSettings().isWrapping();
+    if (w.equalsIgnoreCase("No")) {
+      wrapping = false;
+    }
+    else if (w.equalsIgnoreCase("Yes")) {
+      wrapping = true;
+    }
+    DungeonSettings settings;
     try {
-      rows = Integer.parseInt(r);
-      columns = Integer.parseInt(c);
-      interconnectivity = Integer.parseInt(i);
-      percentage = Integer.parseInt(p);
-      difficulty = Integer.parseInt(d);
-      if (w.equalsIgnoreCase("No")) {
-        wrapping = false;
-      }
-      else if (w.equalsIgnoreCase("Yes")) {
-        wrapping = true;
-      }
-      try {
-        seed++;
-        if (seed == 100) {
-          seed = 0;
-        }
-        model = new DungeonClass(rows, columns, interconnectivity, percentage,
-                wrapping, difficulty, new RandomSeedClass(seed));
-        view.removeFrame();
-        view = new DungeonFrameView(model);
-        startDungeon(model, view);
-      } catch (IllegalArgumentException | IllegalStateException e) {
-        view.showErrorMessage(e.getMessage());
-      }
+      settings = new DungeonSettings(Integer.parseInt(r), Integer.parseInt(c),
+              Integer.parseInt(i), Integer.parseInt(p), wrapping, Integer.parseInt(d),
+              CellStorage.OBJECTS);
     } catch (NumberFormatException e) {
       view.showErrorMessage("Please enter numbers in the text fields");
+      return;
+    } catch (IllegalArgumentException e) {
+      view.showErrorMessage(e.getMessage());
+      return;
     }
+    seed = nextSeed(seed);
+    factory.setSettings(settings);
+    restart();
   }
 
+
   @Override
   public void clickListener(int x, int y) {
     String direction = "";
@@ -138,27 +174,18 @@ public final class MvcCommandController implements MvcController {
 
     if (command.equals("restart")) {
       if (s.length == 0) {
-        view.removeFrame();
-        try {
-          model = new DungeonClass(rows, columns, interconnectivity, percentage,
-                  wrapping, difficulty, new RandomSeedClass(seed));
-          view = new DungeonFrameView(model);
-          startDungeon(model, view);
-        } catch (IllegalArgumentException | IllegalStateException e) {
-          view.displayStatus(e.getMessage());
-        }
+        restart();
       }
       else {
         processSettings(s[0], s[1], s[2], s[3], s[4], s[5]);
       }
+      return;
     }
-    if (model.gameOver()) {
-      view.displayStatus("Game is over! Start a new game");
-    }
-    if (!model.gameOver() && cmd != null) {
+    if (cmd != null) {
       control = cmd.apply(command);
-      control.mvcGo(model, view);
-      view.refresh();
+      if (!loop.submit(control)) {
+        view.displayStatus("Too many commands at once, wait for the game to catch up");
+      }
     }
   }
 }
@@ -31,7 +31,7 @@ public interface MvcController {
   /**
    * Handles the actions performed on the view and
    * tells the model what to do. Once the model executes the
-   * function, the view updates with the present state of the model.
+   * function, the view updates itself from the events the model publishes.
    *
    * @param command command string to identify the action performed on the view
    * @param s next set of strings to be processed by the controller
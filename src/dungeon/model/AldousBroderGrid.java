@@ -0,0 +1,50 @@
+package dungeon.model;
+
+/**
+ * Creation of a random dungeon by a random walk (Aldous-Broder algorithm). The
+ * walk starts at a random location and moves to a random neighbour at every
+ * step, connecting the edge it came by each time it enters a location for the
+ * first time, until it has entered every location. Every spanning tree is
+ * equally likely, but the walk takes many steps over the locations it has
+ * already seen, so it is the slowest of the grids on large dungeons.
+ */
+final class AldousBroderGrid extends SpanningTreeGrid {
+
+  /**
+   * The grid creation is done using the values passed for wrapping condition
+   * and interconnectivity in dungeon.
+   *
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
+   * @param isWrapping condition if grid should be wrapping or not
+   * @param interconnectivity degree of connectivity
+   * @param r random instance
+   * @throws IllegalArgumentException if random instance is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   * @throws IllegalArgumentException if interconnectivity is negative
+   */
+  public AldousBroderGrid(int rows, int columns, boolean isWrapping, int interconnectivity,
+                          RandomGenerator r) {
+    super(rows, columns, isWrapping, interconnectivity, r);
+    walk();
+    connectLeftover(interconnectivity);
+  }
+
+  // walks at random until every location was entered
+  private void walk() {
+    int noOfCells = noOfRows * noOfColumns;
+    long[] seen = new long[(noOfCells + 63) >>> 6];
+    int n = r.nextInt(noOfCells);
+    seen[n >>> 6] |= 1L << n;
+    for (int left = noOfCells - 1; left > 0; ) {
+      Directions d = randomDirection(n);
+      int next = neighbour(n, d);
+      if ((seen[next >>> 6] & (1L << next)) == 0) {
+        seen[next >>> 6] |= 1L << next;
+        connect(n, d);
+        left--;
+      }
+      n = next;
+    }
+  }
+}
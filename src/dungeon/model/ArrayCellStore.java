@@ -0,0 +1,124 @@
+package dungeon.model;
+
+/**
+ * A cell store backed by flat primitive arrays. Exits take 4 bits, each type of
+ * treasure and the Otyugh health take a byte, arrows take two bytes and the thief
+ * takes a bit, so a location costs less than 8 bytes.
+ */
+final class ArrayCellStore implements CellStore {
+  private final int size;
+  private final int columns;
+  private final byte[] exits;
+  private final byte[] rubies;
+  private final byte[] sapphires;
+  private final byte[] diamonds;
+  private final short[] arrows;
+  private final byte[] monsterHealth;
+  private final long[] thieves;
+
+  /**
+   * The store is created with empty locations and no exits.
+   *
+   * @param rows number of rows of the dungeon
+   * @param columns number of columns of the dungeon
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   */
+  public ArrayCellStore(int rows, int columns) {
+    if (rows < 1 || columns < 1) {
+      throw new IllegalArgumentException("Rows and columns should be positive");
+    }
+    this.size = rows * columns;
+    this.columns = columns;
+    exits = new byte[(size + 1) / 2];
+    rubies = new byte[size];
+    sapphires = new byte[size];
+    diamonds = new byte[size];
+    arrows = new short[size];
+    monsterHealth = new byte[size];
+    thieves = new long[(size + 63) >>> 6];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int getColumns() {
+    return columns;
+  }
+
+  @Override
+  public int getExits(int n) {
+    return (exits[n >>> 1] >>> ((n & 1) << 2)) & 0xF;
+  }
+
+  @Override
+  public void setExits(int n, int mask) {
+    int shift = (n & 1) << 2;
+    exits[n >>> 1] = (byte) ((exits[n >>> 1] & ~(0xF << shift)) | ((mask & 0xF) << shift));
+  }
+
+  private byte[] treasureArray(Treasure t) {
+    switch (t) {
+      case RUBY:
+        return rubies;
+      case SAPPHIRE:
+        return sapphires;
+      case DIAMOND:
+        return diamonds;
+      default:
+        throw new IllegalArgumentException("Unknown treasure " + t);
+    }
+  }
+
+  @Override
+  public int getTreasure(int n, Treasure t) {
+    return treasureArray(t)[n];
+  }
+
+  @Override
+  public void setTreasure(int n, Treasure t, int count) {
+    if (count < 0 || count > Byte.MAX_VALUE) {
+      throw new IllegalStateException("Location cannot hold " + count + " " + t);
+    }
+    treasureArray(t)[n] = (byte) count;
+  }
+
+  @Override
+  public int getArrows(int n) {
+    return arrows[n];
+  }
+
+  @Override
+  public void setArrows(int n, int count) {
+    if (count < 0 || count > Short.MAX_VALUE) {
+      throw new IllegalStateException("Location cannot hold " + count + " arrows");
+    }
+    arrows[n] = (short) count;
+  }
+
+  @Override
+  public int getMonsterHealth(int n) {
+    return monsterHealth[n];
+  }
+
+  @Override
+  public void setMonsterHealth(int n, int health) {
+    monsterHealth[n] = (byte) health;
+  }
+
+  @Override
+  public boolean getThief(int n) {
+    return (thieves[n >>> 6] & (1L << n)) != 0;
+  }
+
+  @Override
+  public void setThief(int n, boolean thief) {
+    if (thief) {
+      thieves[n >>> 6] |= 1L << n;
+    } else {
+      thieves[n >>> 6] &= ~(1L << n);
+    }
+  }
+}
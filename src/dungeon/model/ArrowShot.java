@@ -0,0 +1,69 @@
+package dungeon.model;
+
+/**
+ * Published when the player shoots an arrow. The location of the event is the
+ * location the arrow stopped in.
+ */
+public final class ArrowShot implements DungeonEvent {
+  private final int from;
+  private final int location;
+  private final Directions direction;
+  private final boolean hit;
+
+  /**
+   * The event is created with the path of the arrow.
+   *
+   * @param from cell identifier of the location the arrow was shot from
+   * @param location cell identifier of the location the arrow stopped in
+   * @param direction direction the arrow was shot in
+   * @param hit true if the arrow hit an Otyugh
+   * @throws IllegalArgumentException if direction is null
+   */
+  ArrowShot(int from, int location, Directions direction, boolean hit) {
+    if (direction == null) {
+      throw new IllegalArgumentException("Direction cannot be null");
+    }
+    this.from = from;
+    this.location = location;
+    this.direction = direction;
+    this.hit = hit;
+  }
+
+  /**
+   * The location the arrow was shot from.
+   *
+   * @return cell identifier of the player's location
+   */
+  public int getFrom() {
+    return from;
+  }
+
+  @Override
+  public int getLocation() {
+    return location;
+  }
+
+  /**
+   * The direction the arrow was shot in.
+   *
+   * @return direction of the shot
+   */
+  public Directions getDirection() {
+    return direction;
+  }
+
+  /**
+   * Whether the arrow hit an Otyugh.
+   *
+   * @return true if an Otyugh was hit
+   */
+  public boolean isHit() {
+    return hit;
+  }
+
+  @Override
+  public String toString() {
+    return "ArrowShot " + direction + " from " + from + " to " + location
+            + (hit ? " hit" : " missed");
+  }
+}
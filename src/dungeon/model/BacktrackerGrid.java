@@ -0,0 +1,63 @@
+package dungeon.model;
+
+/**
+ * Creation of a random dungeon by a depth first search (recursive backtracker).
+ * From a random location the search moves to a random neighbour it has not
+ * entered yet, connecting the edge, and goes back along its path when every
+ * neighbour was entered. The path is kept on an explicit stack rather than in
+ * recursive calls, so large dungeons do not overflow the call stack. The
+ * dungeons have long winding tunnels with few caves.
+ */
+final class BacktrackerGrid extends SpanningTreeGrid {
+  private static final Directions[] DIRECTIONS = Directions.values();
+
+  /**
+   * The grid creation is done using the values passed for wrapping condition
+   * and interconnectivity in dungeon.
+   *
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
+   * @param isWrapping condition if grid should be wrapping or not
+   * @param interconnectivity degree of connectivity
+   * @param r random instance
+   * @throws IllegalArgumentException if random instance is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   * @throws IllegalArgumentException if interconnectivity is negative
+   */
+  public BacktrackerGrid(int rows, int columns, boolean isWrapping, int interconnectivity,
+                         RandomGenerator r) {
+    super(rows, columns, isWrapping, interconnectivity, r);
+    search();
+    connectLeftover(interconnectivity);
+  }
+
+  // searches depth first, picking a random unseen neighbour at every step
+  private void search() {
+    int noOfCells = noOfRows * noOfColumns;
+    long[] seen = new long[(noOfCells + 63) >>> 6];
+    int[] stack = new int[noOfCells];
+    Directions[] unseen = new Directions[DIRECTIONS.length];
+    int top = 0;
+    stack[top++] = r.nextInt(noOfCells);
+    seen[stack[0] >>> 6] |= 1L << stack[0];
+    while (top > 0) {
+      int n = stack[top - 1];
+      int noOfUnseen = 0;
+      for (Directions d : DIRECTIONS) {
+        int next = neighbour(n, d);
+        if (next >= 0 && (seen[next >>> 6] & (1L << next)) == 0) {
+          unseen[noOfUnseen++] = d;
+        }
+      }
+      if (noOfUnseen == 0) {
+        top--;
+        continue;
+      }
+      Directions d = unseen[r.nextInt(noOfUnseen)];
+      int next = neighbour(n, d);
+      seen[next >>> 6] |= 1L << next;
+      connect(n, d);
+      stack[top++] = next;
+    }
+  }
+}
@@ -117,7 +117,8 @@ interface Cell {
    * list of treasures is stored and can be returned using this
    * function.
    *
-   * @return list of treasure present in the location
+   * @return list of treasure present in the location, in the order of
+   *         {@link Treasure#values()}
    */
   List<Treasure> getTreasureList();
 
@@ -136,6 +137,14 @@ interface Cell {
    */
   List<Directions> possibleMoves();
 
+  /**
+   * The possible moves from the location as an exit mask, with the bit of
+   * each direction set as given by {@link Directions#getMask()}.
+   *
+   * @return exit mask of the location
+   */
+  int getExitMask();
+
   /**
    * Gets Otyugh which is present in a cell. If not present,
    * the method returns null.
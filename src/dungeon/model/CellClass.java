@@ -1,6 +1,7 @@
 package dungeon.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -13,7 +14,7 @@ final class CellClass implements Cell {
   private final int y;
   private final int value;
   private final List<Treasure> treasureList;
-  private final List<Directions> neighbourList;
+  private int exitMask;
   private final List<Monster> monsterInCave;
   private int noOfArrowsCell;
   private boolean thiefPresent;
@@ -35,7 +36,7 @@ final class CellClass implements Cell {
     this.y = y;
     this.value = value;
     treasureList = new ArrayList<>();
-    neighbourList = new ArrayList<>();
+    exitMask = 0;
     monsterInCave = new ArrayList<>();
     noOfArrowsCell = 0;
     thiefPresent = false;
@@ -55,7 +56,7 @@ final class CellClass implements Cell {
     y = c.getY();
     value = c.getValue();
     treasureList = c.getTreasureList();
-    neighbourList = c.possibleMoves();
+    exitMask = c.getExitMask();
     List<Monster> copyMonster = new ArrayList<>();
     copyMonster.add(c.getMonster());
     monsterInCave = copyMonster;
@@ -95,7 +96,11 @@ final class CellClass implements Cell {
 
   @Override
   public List<Treasure> getTreasureList() {
-    return new ArrayList<>(treasureList);
+    // in the order of Treasure.values(), as the other storages count them, so the player
+    // picks up and loses treasure in the same order with every storage
+    List<Treasure> sorted = new ArrayList<>(treasureList);
+    Collections.sort(sorted);
+    return sorted;
   }
 
   @Override
@@ -153,16 +158,27 @@ final class CellClass implements Cell {
     if (d == null) {
       throw new IllegalArgumentException("Direction cannot be null");
     }
-    neighbourList.add(d);
+    exitMask |= d.getMask();
   }
 
   @Override
   public List<Directions> possibleMoves() {
-    return new ArrayList<>(neighbourList);
+    List<Directions> moves = new ArrayList<>();
+    for (Directions d : Directions.values()) {
+      if ((exitMask & d.getMask()) != 0) {
+        moves.add(d);
+      }
+    }
+    return moves;
+  }
+
+  @Override
+  public int getExitMask() {
+    return exitMask;
   }
 
   @Override
   public int getNoOfEntrances() {
-    return possibleMoves().size();
+    return Integer.bitCount(exitMask);
   }
 }
@@ -0,0 +1,149 @@
+package dungeon.model;
+
+/**
+ * An immutable copy of one location of the dungeon at some version. The
+ * snapshot of a location is shared between dungeon snapshots for as long
+ * as the location does not change.
+ */
+public final class CellSnapshot {
+  private final int value;
+  private final int x;
+  private final int y;
+  private final int exitMask;
+  private final int rubies;
+  private final int sapphires;
+  private final int diamonds;
+  private final int arrows;
+  private final int monsterHealth;
+  private final boolean thief;
+  private final boolean visited;
+
+  /**
+   * The snapshot is created from the current contents of a cell.
+   *
+   * @param c cell to copy
+   * @param visited true if the player has visited the location
+   * @throws IllegalArgumentException if cell is null
+   */
+  CellSnapshot(Cell c, boolean visited) {
+    if (c == null) {
+      throw new IllegalArgumentException("Cell cannot be null");
+    }
+    value = c.getValue();
+    x = c.getX();
+    y = c.getY();
+    exitMask = c.getExitMask();
+    int countRuby = 0;
+    int countSapphire = 0;
+    int countDiamond = 0;
+    for (Treasure t : c.getTreasureList()) {
+      if (t == Treasure.RUBY) {
+        countRuby++;
+      } else if (t == Treasure.SAPPHIRE) {
+        countSapphire++;
+      } else {
+        countDiamond++;
+      }
+    }
+    rubies = countRuby;
+    sapphires = countSapphire;
+    diamonds = countDiamond;
+    arrows = c.getNumberOfArrows();
+    monsterHealth = c.getMonster() == null ? 0 : c.getMonster().getHealth();
+    thief = c.getThief();
+    this.visited = visited;
+  }
+
+  /**
+   * The value identifying the location.
+   *
+   * @return cell identifier
+   */
+  public int getValue() {
+    return value;
+  }
+
+  /**
+   * The height coordinate of the location.
+   *
+   * @return x coordinate which corresponds to height
+   */
+  public int getX() {
+    return x;
+  }
+
+  /**
+   * The width coordinate of the location.
+   *
+   * @return y coordinate which corresponds to width
+   */
+  public int getY() {
+    return y;
+  }
+
+  /**
+   * The moves from the location as an exit mask.
+   *
+   * @return exit mask of the location
+   */
+  public int getExitMask() {
+    return exitMask;
+  }
+
+  /**
+   * The amount of a type of treasure in the location.
+   *
+   * @param t type of treasure
+   * @return number of treasures of that type
+   * @throws IllegalArgumentException if treasure is null
+   */
+  public int getTreasure(Treasure t) {
+    if (t == null) {
+      throw new IllegalArgumentException("Treasure cannot be null");
+    }
+    switch (t) {
+      case RUBY:
+        return rubies;
+      case SAPPHIRE:
+        return sapphires;
+      default:
+        return diamonds;
+    }
+  }
+
+  /**
+   * The number of arrows in the location.
+   *
+   * @return number of arrows
+   */
+  public int getArrows() {
+    return arrows;
+  }
+
+  /**
+   * The health of the Otyugh in the location, 0 if there is none.
+   *
+   * @return health of the Otyugh
+   */
+  public int getMonsterHealth() {
+    return monsterHealth;
+  }
+
+  /**
+   * Whether a thief is in the location.
+   *
+   * @return true if a thief is present
+   */
+  public boolean hasThief() {
+    return thief;
+  }
+
+  /**
+   * Whether the player has visited the location.
+   *
+   * @return true if visited
+   */
+  public boolean isVisited() {
+    return visited;
+  }
+}
@@ -0,0 +1,41 @@
+package dungeon.model;
+
+/**
+ * The ways a dungeon can store the contents of its locations. The game
+ * plays the same with every storage, they only differ in memory use.
+ */
+public enum CellStorage {
+
+  /**
+   * Each location is a cell object holding lists of its neighbours,
+   * treasure and Otyughs.
+   */
+  OBJECTS,
+
+  /**
+   * The contents of all locations are kept in flat primitive arrays using
+   * a few bytes per location. Cells are light views created on access.
+   */
+  ARRAYS,
+
+  /**
+   * The contents of all locations are kept in a memory-mapped file, so the
+   * dungeon can be larger than the heap. The dungeon is created row by row
+   * straight into the file, so a seed does not create the same dungeon as with
+   * the other storages. Copying the game state reads every location from the
+   * file.
+   */
+  MAPPED,
+
+  /**
+   * The dungeon is created in chunks of 64x64 locations when the player comes
+   * near them, and only the chunks used last are kept, so memory grows with
+   * the part of the dungeon explored and not with its size. Each chunk has its
+   * own spanning tree and is joined to its neighbours by one edge on each
+   * border, and the interconnectivity is the number of extra edges of each
+   * chunk. Copying the game state or the cells, listing the connected edges,
+   * taking snapshots and saving the game go through every location and so
+   * every chunk; a chunked dungeon cannot be saved.
+   */
+  CHUNKED;
+}
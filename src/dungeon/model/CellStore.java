@@ -0,0 +1,116 @@
+package dungeon.model;
+
+/**
+ * This interface is package private to make it accessible only within package.
+ * A cell store keeps the contents of every location of a dungeon as primitive
+ * values addressed by the cell value, instead of one object per location.
+ * Exits are stored as a mask with one bit for each direction in the order of
+ * {@link Directions}.
+ */
+interface CellStore extends ExitSink {
+
+  /**
+   * The number of locations in the store.
+   *
+   * @return number of locations
+   */
+  int size();
+
+  /**
+   * The number of columns of the dungeon, used to get the coordinates of a location.
+   *
+   * @return number of columns
+   */
+  int getColumns();
+
+  /**
+   * Gets the exit mask of the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @return exit mask of the location
+   */
+  @Override
+  int getExits(int n);
+
+  /**
+   * Sets the exit mask of the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @param exits exit mask of the location
+   */
+  void setExits(int n, int exits);
+
+  @Override
+  default void addExit(int n, int mask) {
+    setExits(n, getExits(n) | mask);
+  }
+
+  /**
+   * Gets the amount of a type of treasure in the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @param t type of treasure
+   * @return number of treasures of that type
+   */
+  int getTreasure(int n, Treasure t);
+
+  /**
+   * Sets the amount of a type of treasure in the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @param t type of treasure
+   * @param count number of treasures of that type
+   * @throws IllegalStateException if the store cannot hold that many treasures
+   */
+  void setTreasure(int n, Treasure t, int count);
+
+  /**
+   * Gets the number of arrows in the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @return number of arrows
+   */
+  int getArrows(int n);
+
+  /**
+   * Sets the number of arrows in the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @param count number of arrows
+   * @throws IllegalStateException if the store cannot hold that many arrows
+   */
+  void setArrows(int n, int count);
+
+  /**
+   * Gets the health of the Otyugh in the location identified by the value n.
+   * A health of 0 means there is no Otyugh.
+   *
+   * @param n cell identifier
+   * @return health of the Otyugh
+   */
+  int getMonsterHealth(int n);
+
+  /**
+   * Sets the health of the Otyugh in the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @param health health of the Otyugh, 0 to remove it
+   */
+  void setMonsterHealth(int n, int health);
+
+  /**
+   * Checks if there is a thief in the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @return true if a thief is present
+   */
+  boolean getThief(int n);
+
+  /**
+   * Adds or removes the thief in the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @param thief true if a thief is present
+   */
+  void setThief(int n, boolean thief);
+}
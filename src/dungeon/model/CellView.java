@@ -0,0 +1,188 @@
+package dungeon.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A light cell that reads and writes one location of a cell store. A view
+ * holds no state of its own, so any number of views of the same location
+ * see the same contents and are equal to each other.
+ */
+final class CellView implements Cell {
+  private final CellStore store;
+  private final int value;
+
+  /**
+   * A view is created for the location identified by the value in the store.
+   *
+   * @param store store holding the location
+   * @param value value identifying the cell
+   * @throws IllegalArgumentException if store is null or value is not in the store
+   */
+  public CellView(CellStore store, int value) {
+    if (store == null) {
+      throw new IllegalArgumentException("Store cannot be null");
+    }
+    if (value < 0 || value >= store.size()) {
+      throw new IllegalArgumentException("Value not in the dungeon");
+    }
+    this.store = store;
+    this.value = value;
+  }
+
+  @Override
+  public int getX() {
+    return value / store.getColumns();
+  }
+
+  @Override
+  public int getY() {
+    return value % store.getColumns();
+  }
+
+  @Override
+  public int getValue() {
+    return value;
+  }
+
+  @Override
+  public void addTreasureToLocation(Treasure t) {
+    if (t == null) {
+      throw new IllegalArgumentException("Treasure cannot be null");
+    }
+    store.setTreasure(value, t, store.getTreasure(value, t) + 1);
+  }
+
+  @Override
+  public void removeTreasureFromLocation(Treasure t) {
+    if (t == null) {
+      throw new IllegalArgumentException("Treasure cannot be null");
+    }
+    if (store.getTreasure(value, t) > 0) {
+      store.setTreasure(value, t, store.getTreasure(value, t) - 1);
+    }
+  }
+
+  @Override
+  public List<Treasure> getTreasureList() {
+    List<Treasure> treasureList = new ArrayList<>();
+    for (Treasure t : Treasure.values()) {
+      for (int i = 0; i < store.getTreasure(value, t); i++) {
+        treasureList.add(t);
+      }
+    }
+    return treasureList;
+  }
+
+  @Override
+  public void addArrowToLocation() {
+    store.setArrows(value, store.getArrows(value) + 1);
+  }
+
+  @Override
+  public void removeArrowFromLocation() {
+    store.setArrows(value, store.getArrows(value) - 1);
+  }
+
+  @Override
+  public int getNumberOfArrows() {
+    return store.getArrows(value);
+  }
+
+  @Override
+  public void addMonsterToLocation() {
+    store.setMonsterHealth(value, 2);
+  }
+
+  @Override
+  public void removeMonsterFromLocation() {
+    store.setMonsterHealth(value, 0);
+  }
+
+  @Override
+  public Monster getMonster() {
+    if (store.getMonsterHealth(value) != 0) {
+      return new StoredOtyugh();
+    }
+    else {
+      return null;
+    }
+  }
+
+  @Override
+  public void addThief() {
+    store.setThief(value, true);
+  }
+
+  @Override
+  public void removeThief() {
+    store.setThief(value, false);
+  }
+
+  @Override
+  public boolean getThief() {
+    return store.getThief(value);
+  }
+
+  @Override
+  public void addNeighbour(Directions d) {
+    if (d == null) {
+      throw new IllegalArgumentException("Direction cannot be null");
+    }
+    store.setExits(value, store.getExits(value) | d.getMask());
+  }
+
+  @Override
+  public List<Directions> possibleMoves() {
+    List<Directions> moves = new ArrayList<>();
+    for (Directions d : Directions.values()) {
+      if ((store.getExits(value) & d.getMask()) != 0) {
+        moves.add(d);
+      }
+    }
+    return moves;
+  }
+
+  @Override
+  public int getExitMask() {
+    return store.getExits(value);
+  }
+
+  @Override
+  public int getNoOfEntrances() {
+    return Integer.bitCount(store.getExits(value));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CellView)) {
+      return false;
+    }
+    CellView other = (CellView) o;
+    return store == other.store && value == other.value;
+  }
+
+  @Override
+  public int hashCode() {
+    return Integer.hashCode(value);
+  }
+
+  // the Otyugh living in the location of this view
+  private final class StoredOtyugh implements Monster {
+
+    @Override
+    public void reduceHealth() {
+      if (store.getMonsterHealth(value) != 0) {
+        store.setMonsterHealth(value, store.getMonsterHealth(value) - 1);
+      }
+    }
+
+    @Override
+    public int getHealth() {
+      return store.getMonsterHealth(value);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package dungeon.model;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The locations of a cell store as a list of cells. Cells are views created
+ * when they are accessed, so the list itself holds no object per location.
+ */
+final class CellViews extends AbstractList<Cell> implements RandomAccess {
+  private final CellStore store;
+
+  /**
+   * The list is created over all the locations of the store.
+   *
+   * @param store store holding the locations
+   * @throws IllegalArgumentException if store is null
+   */
+  public CellViews(CellStore store) {
+    if (store == null) {
+      throw new IllegalArgumentException("Store cannot be null");
+    }
+    this.store = store;
+  }
+
+  @Override
+  public Cell get(int index) {
+    if (index < 0 || index >= store.size()) {
+      throw new IndexOutOfBoundsException("No location " + index);
+    }
+    return new CellView(store, index);
+  }
+
+  @Override
+  public int size() {
+    return store.size();
+  }
+}
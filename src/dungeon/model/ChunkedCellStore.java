@@ -0,0 +1,423 @@
+package dungeon.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cell store which creates the dungeon in square chunks of locations, only
+ * when a location of the chunk is first used, so a dungeon can be declared far
+ * larger than it is ever explored. Each chunk is connected by its own spanning
+ * tree, made by the algorithm of the dungeon with a random generator seeded
+ * from the dungeon seed and the position of the chunk, so a chunk is the same
+ * each time it is created. Neighbouring chunks are joined by one connector
+ * edge on their shared border, at a place found from the same seed, so the
+ * chunks connect the whole dungeon. Treasure, arrows and Otyughs are added to each chunk as
+ * the dungeon adds them to the whole grid.
+ *
+ * <p>Only a few chunks are kept at a time, the least recently used chunk being
+ * dropped when another one is needed. A chunk which was changed keeps the
+ * contents of its locations in a few bytes each once it is dropped, and gets
+ * them back when it is created again, so memory grows with the part of the
+ * dungeon the player changed and not with its declared size. The exits are
+ * not kept, as the chunk makes them again.
+ */
+final class ChunkedCellStore implements LargeCellStore {
+  static final int CHUNK_SIZE = 64;
+  private static final int MAX_LOADED = 64;
+  private static final long EAST_CONNECTOR = 1;
+  private static final long SOUTH_CONNECTOR = 2;
+  private static final Treasure[] TREASURE = {Treasure.RUBY, Treasure.DIAMOND,
+      Treasure.SAPPHIRE};
+
+  private static final int VISITED = 1;
+  private static final int THIEF = 1 << 1;
+  private static final int HEALTH_SHIFT = 2;
+  private static final int HAS_ITEMS = 1 << 4;
+
+  private final int rows;
+  private final int columns;
+  private final boolean isWrapping;
+  private final int interconnectivity;
+  private final int percentTreasure;
+  private final int difficulty;
+  private final GridAlgorithm algorithm;
+  private final long seed;
+  private final int chunkRows;
+  private final int chunkColumns;
+  private final Map<Long, Chunk> loaded;
+  private final Map<Long, byte[]> saved;
+  private Chunk last;
+
+  /**
+   * The store is created with no chunks; they are made when their locations
+   * are used.
+   *
+   * @param rows              number of rows of the dungeon
+   * @param columns           number of columns of the dungeon
+   * @param isWrapping        true if the chunks are joined around the edges of the grid
+   * @param interconnectivity number of extra edges in each chunk, as many as fit
+   * @param percentTreasure   percent of the caves of each chunk with treasure
+   * @param difficulty        defines the number of Otyughs in each chunk
+   * @param algorithm         how the edges of each chunk are chosen
+   * @param seed              seed of the dungeon, from which every chunk is made
+   * @throws IllegalArgumentException if rows or columns is less than 1, the dungeon
+   *                                  has more locations than an int, or
+   *                                  interconnectivity, percentTreasure or
+   *                                  difficulty is negative, or algorithm is null
+   */
+  public ChunkedCellStore(int rows, int columns, boolean isWrapping, int interconnectivity,
+                          int percentTreasure, int difficulty, GridAlgorithm algorithm,
+                          long seed) {
+    if (rows < 1 || columns < 1) {
+      throw new IllegalArgumentException("Rows and columns should be positive");
+    }
+    if ((long) rows * columns > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Dungeon cannot have more than "
+              + Integer.MAX_VALUE + " locations");
+    }
+    if (interconnectivity < 0 || percentTreasure < 0 || difficulty < 0) {
+      throw new IllegalArgumentException("Values cannot be negative");
+    }
+    if (algorithm == null) {
+      throw new IllegalArgumentException("Algorithm cannot be null");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.isWrapping = isWrapping;
+    this.interconnectivity = interconnectivity;
+    this.percentTreasure = percentTreasure;
+    this.difficulty = difficulty;
+    this.algorithm = algorithm;
+    this.seed = seed;
+    this.chunkRows = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    this.chunkColumns = (columns + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    this.saved = new HashMap<>();
+    this.loaded = new LinkedHashMap<Long, Chunk>(2 * MAX_LOADED, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+        if (size() <= MAX_LOADED) {
+          return false;
+        }
+        if (eldest.getValue().dirty) {
+          saved.put(eldest.getKey(), eldest.getValue().save());
+        }
+        return true;
+      }
+    };
+  }
+
+  /**
+   * The number of chunks held in memory now.
+   *
+   * @return number of chunks created and not dropped
+   */
+  synchronized int getLoadedChunks() {
+    return loaded.size();
+  }
+
+  // the chunk holding the location, created if it is not held
+  private Chunk chunk(int n) {
+    int x = n / columns;
+    int y = n % columns;
+    Chunk c = last;
+    if (c != null && x - c.top < c.height && x >= c.top && y >= c.left
+            && y - c.left < c.width) {
+      return c;
+    }
+    long key = (long) (x / CHUNK_SIZE) * chunkColumns + y / CHUNK_SIZE;
+    c = loaded.get(key);
+    if (c == null) {
+      c = new Chunk(x / CHUNK_SIZE, y / CHUNK_SIZE);
+      loaded.put(key, c);
+    }
+    last = c;
+    return c;
+  }
+
+  // the chunk holding the location, which is about to change
+  private Chunk changing(int n) {
+    Chunk c = chunk(n);
+    c.dirty = true;
+    return c;
+  }
+
+  // mixes the seed with the position of a chunk, so each chunk gets its own
+  // random numbers (the finalizer of SplitMix64)
+  private long mix(long key, long salt) {
+    long z = seed + (key * 4 + salt) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  // the place of the connector on a border of the chunk, from 0 to length - 1
+  private int connector(int chunkRow, int chunkColumn, long border, int length) {
+    return (int) Long.remainderUnsigned(
+            mix((long) chunkRow * chunkColumns + chunkColumn, border), length);
+  }
+
+  @Override
+  public int size() {
+    return rows * columns;
+  }
+
+  @Override
+  public int getColumns() {
+    return columns;
+  }
+
+  @Override
+  public synchronized int getExits(int n) {
+    Chunk c = chunk(n);
+    return c.store.getExits(c.local(n));
+  }
+
+  @Override
+  public synchronized void setExits(int n, int exits) {
+    Chunk c = changing(n);
+    c.store.setExits(c.local(n), exits);
+  }
+
+  @Override
+  public synchronized int getTreasure(int n, Treasure t) {
+    Chunk c = chunk(n);
+    return c.store.getTreasure(c.local(n), t);
+  }
+
+  @Override
+  public synchronized void setTreasure(int n, Treasure t, int count) {
+    Chunk c = changing(n);
+    c.store.setTreasure(c.local(n), t, count);
+  }
+
+  @Override
+  public synchronized int getArrows(int n) {
+    Chunk c = chunk(n);
+    return c.store.getArrows(c.local(n));
+  }
+
+  @Override
+  public synchronized void setArrows(int n, int count) {
+    Chunk c = changing(n);
+    c.store.setArrows(c.local(n), count);
+  }
+
+  @Override
+  public synchronized int getMonsterHealth(int n) {
+    Chunk c = chunk(n);
+    return c.store.getMonsterHealth(c.local(n));
+  }
+
+  @Override
+  public synchronized void setMonsterHealth(int n, int health) {
+    Chunk c = changing(n);
+    c.store.setMonsterHealth(c.local(n), health);
+  }
+
+  @Override
+  public synchronized boolean getThief(int n) {
+    Chunk c = chunk(n);
+    return c.store.getThief(c.local(n));
+  }
+
+  @Override
+  public synchronized void setThief(int n, boolean thief) {
+    Chunk c = changing(n);
+    c.store.setThief(c.local(n), thief);
+  }
+
+  @Override
+  public synchronized boolean isVisited(int n) {
+    Chunk c = chunk(n);
+    int i = c.local(n);
+    return (c.visited[i >>> 6] & (1L << i)) != 0;
+  }
+
+  @Override
+  public synchronized void setVisited(int n, boolean visited) {
+    Chunk c = changing(n);
+    int i = c.local(n);
+    if (visited) {
+      c.visited[i >>> 6] |= 1L << i;
+    } else {
+      c.visited[i >>> 6] &= ~(1L << i);
+    }
+  }
+
+  /**
+   * The locations of one chunk, in an array store of their own.
+   */
+  private final class Chunk {
+    private final int chunkRow;
+    private final int chunkColumn;
+    private final int top;
+    private final int left;
+    private final int height;
+    private final int width;
+    private final ArrayCellStore store;
+    private final long[] visited;
+    private boolean dirty;
+
+    // creates the chunk, with the contents it had when it was last dropped if it changed
+    private Chunk(int chunkRow, int chunkColumn) {
+      this.chunkRow = chunkRow;
+      this.chunkColumn = chunkColumn;
+      this.top = chunkRow * CHUNK_SIZE;
+      this.left = chunkColumn * CHUNK_SIZE;
+      this.height = Math.min(CHUNK_SIZE, rows - top);
+      this.width = Math.min(CHUNK_SIZE, columns - left);
+      this.store = new ArrayCellStore(height, width);
+      this.visited = new long[(height * width + 63) >>> 6];
+      RandomGenerator r = RandomSeedClass.fromState(
+              mix((long) chunkRow * chunkColumns + chunkColumn, 0));
+      connectTree(r);
+      connectBorders();
+      byte[] contents = saved.remove((long) chunkRow * chunkColumns + chunkColumn);
+      if (contents == null) {
+        addItems(r);
+      }
+      else {
+        restore(contents);
+        dirty = true;
+      }
+    }
+
+    // the position of the location in the chunk
+    private int local(int n) {
+      return (n / columns - top) * width + n % columns - left;
+    }
+
+    // connects the locations of the chunk by a spanning tree and as many extra edges
+    // of the chunk as the interconnectivity asks for, or as there are
+    private void connectTree(RandomGenerator r) {
+      int extra = (height - 1) * width + (width - 1) * height - (height * width - 1);
+      int[] edges = algorithm.connect(height, width, false, Math.min(interconnectivity, extra),
+              r);
+      for (int i = 0; i < edges.length; i += 2) {
+        int from = edges[i];
+        int to = edges[i + 1];
+        if (to == from + 1) {
+          open(from, Directions.EAST);
+          open(to, Directions.WEST);
+        }
+        else {
+          open(from, Directions.SOUTH);
+          open(to, Directions.NORTH);
+        }
+      }
+    }
+
+    // opens the exits of the connectors on the four borders of the chunk. The
+    // connector of the west and north borders is the one of the neighbouring chunk
+    // on its east and south border
+    private void connectBorders() {
+      boolean east = isWrapping || chunkColumn + 1 < chunkColumns;
+      boolean south = isWrapping || chunkRow + 1 < chunkRows;
+      if (east) {
+        int x = connector(chunkRow, chunkColumn, EAST_CONNECTOR, height);
+        open(x * width + width - 1, Directions.EAST);
+      }
+      if (south) {
+        int y = connector(chunkRow, chunkColumn, SOUTH_CONNECTOR, width);
+        open((height - 1) * width + y, Directions.SOUTH);
+      }
+      if (isWrapping || chunkColumn > 0) {
+        int west = (chunkColumn + chunkColumns - 1) % chunkColumns;
+        open(connector(chunkRow, west, EAST_CONNECTOR, height) * width, Directions.WEST);
+      }
+      if (isWrapping || chunkRow > 0) {
+        int north = (chunkRow + chunkRows - 1) % chunkRows;
+        open(connector(north, chunkColumn, SOUTH_CONNECTOR, width), Directions.NORTH);
+      }
+    }
+
+    private void open(int i, Directions d) {
+      store.setExits(i, store.getExits(i) | d.getMask());
+    }
+
+    // adds treasure and arrows to random caves and locations of the chunk, and
+    // Otyughs to different random caves
+    private void addItems(RandomGenerator r) {
+      int noOfCaves = 0;
+      int[] caves = new int[height * width];
+      for (int i = 0; i < caves.length; i++) {
+        if (Integer.bitCount(store.getExits(i)) != 2) {
+          caves[noOfCaves++] = i;
+        }
+      }
+      if (noOfCaves == 0) {
+        return;
+      }
+      int noToAdd = percentTreasure * noOfCaves / 100;
+      for (int i = 0; i < noToAdd; i++) {
+        int cave = caves[r.nextInt(noOfCaves)];
+        Treasure t = TREASURE[r.nextInt(3)];
+        store.setTreasure(cave, t, store.getTreasure(cave, t) + 1);
+      }
+      for (int i = 0; i < noToAdd; i++) {
+        int location = r.nextInt(height * width);
+        store.setArrows(location, store.getArrows(location) + 1);
+      }
+      int size = noOfCaves;
+      for (int i = 0; i < difficulty * 20 * noOfCaves / 100; i++) {
+        int k = r.nextInt(size);
+        store.setMonsterHealth(caves[k], 2);
+        caves[k] = caves[--size];
+      }
+    }
+
+    // the contents of the locations of the chunk, a byte of flags for each
+    // location followed by its treasure and arrows if it has any
+    private byte[] save() {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try {
+        for (int i = 0; i < height * width; i++) {
+          int ruby = store.getTreasure(i, Treasure.RUBY);
+          int sapphire = store.getTreasure(i, Treasure.SAPPHIRE);
+          int diamond = store.getTreasure(i, Treasure.DIAMOND);
+          int arrows = store.getArrows(i);
+          boolean hasItems = ruby + sapphire + diamond + arrows != 0;
+          out.write(((visited[i >>> 6] & (1L << i)) != 0 ? VISITED : 0)
+                  | (store.getThief(i) ? THIEF : 0)
+                  | store.getMonsterHealth(i) << HEALTH_SHIFT | (hasItems ? HAS_ITEMS : 0));
+          if (hasItems) {
+            DungeonCodec.writeVarint(out, ruby);
+            DungeonCodec.writeVarint(out, sapphire);
+            DungeonCodec.writeVarint(out, diamond);
+            DungeonCodec.writeVarint(out, arrows);
+          }
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot save the chunk: " + e.getMessage());
+      }
+      return out.toByteArray();
+    }
+
+    // puts back the contents written by save
+    private void restore(byte[] contents) {
+      ByteArrayInputStream in = new ByteArrayInputStream(contents);
+      try {
+        for (int i = 0; i < height * width; i++) {
+          int flags = in.read();
+          if ((flags & VISITED) != 0) {
+            visited[i >>> 6] |= 1L << i;
+          }
+          store.setThief(i, (flags & THIEF) != 0);
+          store.setMonsterHealth(i, (flags >>> HEALTH_SHIFT) & 3);
+          if ((flags & HAS_ITEMS) != 0) {
+            store.setTreasure(i, Treasure.RUBY, DungeonCodec.readVarint(in));
+            store.setTreasure(i, Treasure.SAPPHIRE, DungeonCodec.readVarint(in));
+            store.setTreasure(i, Treasure.DIAMOND, DungeonCodec.readVarint(in));
+            store.setArrows(i, DungeonCodec.readVarint(in));
+          }
+        }
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot restore the chunk: " + e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,381 @@
+package dungeon.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A dungeon which writes every command played on it to an append-only journal,
+ * from which {@link JournalReplay} rebuilds the game as it was after any
+ * command without a controller or a view. Commands are passed on to the
+ * dungeon, so the journal can be played in place of the dungeon.
+ *
+ * <p>The journal starts with the saved game, which holds its settings and the
+ * state of its random numbers, and each command is written after it is played
+ * as a single byte with its outcome: whether it was refused, brought the thief,
+ * missed, hit or killed an Otyugh, or ended the game. A shot also writes its
+ * distance. Every few commands the saved game is written again, so a replay
+ * starts from the last one before the command it looks for. Commands the
+ * dungeon refuses because a direction or distance is not valid change nothing
+ * and are not written.
+ *
+ * <p>Only dungeons which can be saved by {@link DungeonCodec} can be journaled.
+ * The stream is not flushed or closed by the journal, it should be buffered.
+ */
+public final class CommandJournal implements Dungeon, Flushable {
+  static final int MAGIC = 0x444A4E; // "DJN"
+  static final int VERSION = 1;
+
+  static final int MOVE = 0;
+  static final int PICK_TREASURE = 1;
+  static final int PICK_ARROW = 2;
+  static final int SHOOT = 3;
+  static final int SNAPSHOT = 4;
+  static final int COMMAND_MASK = 7;
+  static final int DIRECTION_SHIFT = 3;
+  static final int OUTCOME_SHIFT = 5;
+
+  static final int DONE = 0;
+  static final int REJECTED = 1;
+  static final int THIEF = 2;
+  static final int MISSED = 3;
+  static final int HIT = 4;
+  static final int KILLED = 5;
+  static final int WON = 6;
+  static final int EATEN = 7;
+
+  private final Dungeon dungeon;
+  private final OutputStream out;
+  private final int snapshotInterval;
+  private final Outcome outcome;
+  private int commands;
+
+  /**
+   * The journal is started with the game as it is now.
+   *
+   * @param dungeon the game to play and journal
+   * @param out where the journal is written
+   * @param snapshotInterval number of commands between saved games
+   * @throws IOException if the stream cannot be written to
+   * @throws IllegalArgumentException if dungeon or out is null, the dungeon
+   *                                  cannot be saved or snapshotInterval is
+   *                                  less than 1
+   */
+  public CommandJournal(Dungeon dungeon, OutputStream out, int snapshotInterval)
+          throws IOException {
+    if (dungeon == null || out == null) {
+      throw new IllegalArgumentException("Dungeon and stream cannot be null");
+    }
+    if (snapshotInterval < 1) {
+      throw new IllegalArgumentException("Snapshot interval should be at least 1");
+    }
+    this.dungeon = dungeon;
+    this.out = out;
+    this.snapshotInterval = snapshotInterval;
+    DungeonCodec.writeVarint(out, MAGIC);
+    DungeonCodec.writeVarint(out, VERSION);
+    writeSnapshot();
+    this.outcome = new Outcome(dungeon);
+  }
+
+  /**
+   * The number of commands written to the journal.
+   *
+   * @return number of commands
+   */
+  public int getCommands() {
+    return commands;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public void movePlayer(String d) {
+    Directions direction = Directions.parse(d);
+    if (direction == null) {
+      dungeon.movePlayer(d);
+      return;
+    }
+    play(MOVE, direction, 0, () -> {
+      dungeon.movePlayer(d);
+      return null;
+    });
+  }
+
+  @Override
+  public void pickUpTreasure() {
+    play(PICK_TREASURE, Directions.NORTH, 0, () -> {
+      dungeon.pickUpTreasure();
+      return null;
+    });
+  }
+
+  @Override
+  public void pickUpArrow() {
+    play(PICK_ARROW, Directions.NORTH, 0, () -> {
+      dungeon.pickUpArrow();
+      return null;
+    });
+  }
+
+  @Override
+  public String shootArrow(String d, int distance) {
+    Directions direction = Directions.parse(d);
+    if (direction == null || distance < 1 || distance > 5) {
+      return dungeon.shootArrow(d, distance);
+    }
+    return play(SHOOT, direction, distance, () -> dungeon.shootArrow(d, distance));
+  }
+
+  // plays the command on the dungeon and writes it with its outcome, refused or not
+  private <T> T play(int command, Directions d, int distance, Supplier<T> action) {
+    outcome.reset();
+    T result;
+    try {
+      result = action.get();
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      write(command, d, distance, outcome.rejected());
+      throw e;
+    }
+    write(command, d, distance, outcome.get());
+    return result;
+  }
+
+  private void write(int command, Directions d, int distance, int result) {
+    try {
+      out.write(command | d.ordinal() << DIRECTION_SHIFT | result << OUTCOME_SHIFT);
+      if (command == SHOOT) {
+        out.write(distance);
+      }
+      commands++;
+      if (commands % snapshotInterval == 0) {
+        writeSnapshot();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot write to the journal: " + e.getMessage());
+    }
+  }
+
+  // writes the saved game with its length, so a replay can skip over it
+  private void writeSnapshot() throws IOException {
+    ByteArrayOutputStream saved = new ByteArrayOutputStream();
+    DungeonCodec.write(dungeon, saved);
+    out.write(SNAPSHOT);
+    DungeonCodec.writeVarint(out, commands);
+    DungeonCodec.writeVarint(out, saved.size());
+    saved.writeTo(out);
+  }
+
+  @Override
+  public List<Integer> getSettings() {
+    return dungeon.getSettings();
+  }
+
+  @Override
+  public List<List<Integer>> getConnectedEdges() {
+    return dungeon.getConnectedEdges();
+  }
+
+  @Override
+  public DungeonGraph getGraph() {
+    return dungeon.getGraph();
+  }
+
+  @Override
+  public String displayLocationDescription() {
+    return dungeon.displayLocationDescription();
+  }
+
+  @Override
+  public String displayPlayerDescription() {
+    return dungeon.displayPlayerDescription();
+  }
+
+  @Override
+  public List<String> locationPossibleMoves() {
+    return dungeon.locationPossibleMoves();
+  }
+
+  @Override
+  public String isMonsterClose() {
+    return dungeon.isMonsterClose();
+  }
+
+  @Override
+  public int getStartLocation() {
+    return dungeon.getStartLocation();
+  }
+
+  @Override
+  public int getEndLocation() {
+    return dungeon.getEndLocation();
+  }
+
+  @Override
+  public int getCurrentLocation() {
+    return dungeon.getCurrentLocation();
+  }
+
+  @Override
+  public int getCurrentLocationX() {
+    return dungeon.getCurrentLocationX();
+  }
+
+  @Override
+  public int getCurrentLocationY() {
+    return dungeon.getCurrentLocationY();
+  }
+
+  @Override
+  public List<Cell> getCells() {
+    return dungeon.getCells();
+  }
+
+  @Override
+  public DungeonSnapshot getSnapshot() {
+    return dungeon.getSnapshot();
+  }
+
+  @Override
+  public <E extends DungeonEvent> void subscribe(Class<E> type, Consumer<? super E> listener) {
+    dungeon.subscribe(type, listener);
+  }
+
+  @Override
+  public void unsubscribe(Consumer<?> listener) {
+    dungeon.unsubscribe(listener);
+  }
+
+  @Override
+  public boolean gameOver() {
+    return dungeon.gameOver();
+  }
+
+  @Override
+  public int[][] gameState() {
+    return dungeon.gameState();
+  }
+
+  @Override
+  public List<Treasure> locationTreasure(int n) {
+    return dungeon.locationTreasure(n);
+  }
+
+  @Override
+  public List<Directions> locationMoves(int n) {
+    return dungeon.locationMoves(n);
+  }
+
+  @Override
+  public int locationExitMask(int n) {
+    return dungeon.locationExitMask(n);
+  }
+
+  @Override
+  public int locationArrows(int n) {
+    return dungeon.locationArrows(n);
+  }
+
+  @Override
+  public Monster locationMonster(int n) {
+    return dungeon.locationMonster(n);
+  }
+
+  @Override
+  public boolean locationThief(int n) {
+    return dungeon.locationThief(n);
+  }
+
+  @Override
+  public int playerArrows() {
+    return dungeon.playerArrows();
+  }
+
+  @Override
+  public int playerRuby() {
+    return dungeon.playerRuby();
+  }
+
+  @Override
+  public int playerSapphire() {
+    return dungeon.playerSapphire();
+  }
+
+  @Override
+  public int playerDiamond() {
+    return dungeon.playerDiamond();
+  }
+
+  /**
+   * The outcome of the command being played on a dungeon, found from the events
+   * the dungeon publishes while playing it.
+   */
+  static final class Outcome {
+    private final Dungeon dungeon;
+    private final Consumer<ThiefAppeared> thief;
+    private final Consumer<ArrowShot> shot;
+    private final Consumer<MonsterDamaged> damaged;
+    private final Consumer<GameEnded> ended;
+    private int result;
+
+    /**
+     * The outcome is followed on a dungeon until it is detached.
+     *
+     * @param dungeon dungeon the commands are played on
+     */
+    Outcome(Dungeon dungeon) {
+      this.dungeon = dungeon;
+      this.thief = e -> result = THIEF;
+      this.shot = e -> result = e.isHit() ? HIT : MISSED;
+      this.damaged = e -> result = e.isKilled() ? KILLED : result;
+      this.ended = e -> result = e.isWon() ? WON : EATEN;
+      dungeon.subscribe(ThiefAppeared.class, thief);
+      dungeon.subscribe(ArrowShot.class, shot);
+      dungeon.subscribe(MonsterDamaged.class, damaged);
+      dungeon.subscribe(GameEnded.class, ended);
+    }
+
+    /**
+     * Starts following a new command.
+     */
+    void reset() {
+      result = DONE;
+    }
+
+    /**
+     * The outcome of the command played since the last reset.
+     *
+     * @return outcome of the command
+     */
+    int get() {
+      return result;
+    }
+
+    /**
+     * The outcome of a command the dungeon refused, which may have brought the
+     * thief before it was refused.
+     *
+     * @return outcome of the refused command
+     */
+    int rejected() {
+      return result == DONE ? REJECTED : result;
+    }
+
+    /**
+     * Stops following the dungeon.
+     */
+    void detach() {
+      dungeon.unsubscribe(thief);
+      dungeon.unsubscribe(shot);
+      dungeon.unsubscribe(damaged);
+      dungeon.unsubscribe(ended);
+    }
+  }
+}
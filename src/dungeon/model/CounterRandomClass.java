@@ -0,0 +1,185 @@
+package dungeon.model;
+
+/**
+ * This class implements the RandomGenerator with a counter based generator,
+ * Philox4x32-10. The numbers are a function of a key, a stream and their
+ * position in the stream: the position divided by 4 is put through 10 rounds
+ * of multiplications and exclusive ors with the key, giving 4 numbers at once.
+ * So the generator can jump to any position at no cost, and the streams of a
+ * key are independent of each other, which lets every thread or task take a
+ * stream of its own and get the same numbers whatever the order they run in.
+ * The generator is not safe to share between threads.
+ */
+public class CounterRandomClass implements RandomGenerator {
+  private static final int ROUNDS = 10;
+  private static final long MULTIPLIER_0 = 0xD2511F53L;
+  private static final long MULTIPLIER_1 = 0xCD9E8D57L;
+  private static final int WEYL_0 = 0x9E3779B9;
+  private static final int WEYL_1 = 0xBB67AE85;
+
+  private final long key;
+  private final long stream;
+  private final int[] block = new int[4];
+  private long blockCounter = -1;
+  private long position;
+
+  /**
+   * The generator starts at the beginning of the first stream of the key.
+   *
+   * @param key key of the generator, which plays the part of a seed
+   */
+  public CounterRandomClass(long key) {
+    this(key, 0);
+  }
+
+  /**
+   * The generator starts at the beginning of a stream of the key.
+   *
+   * @param key key of the generator, which plays the part of a seed
+   * @param stream number of the stream
+   */
+  public CounterRandomClass(long key, long stream) {
+    this.key = key;
+    this.stream = stream;
+  }
+
+  /**
+   * A new generator at the beginning of another stream of the same key.
+   *
+   * @param stream number of the stream
+   * @return the new generator
+   */
+  public CounterRandomClass stream(long stream) {
+    return new CounterRandomClass(key, stream);
+  }
+
+  /**
+   * The position of the next number in the stream, which is the number of
+   * 32 bit values used so far.
+   *
+   * @return position in the stream
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  /**
+   * Moves to a position in the stream, forward or back, so the next number is
+   * the one found at that position.
+   *
+   * @param position position in the stream
+   * @throws IllegalArgumentException if position is negative
+   */
+  public void jump(long position) {
+    if (position < 0) {
+      throw new IllegalArgumentException("Position cannot be negative");
+    }
+    this.position = position;
+  }
+
+  /**
+   * The 4 values of the block of a counter, which are the values at 4 times
+   * the counter and the 3 positions after it.
+   *
+   * @param counter number of the block
+   * @return the values of the block
+   */
+  int[] block(long counter) {
+    philox(counter);
+    blockCounter = counter;
+    return block.clone();
+  }
+
+  // the 32 bit value at the current position, moving to the next one
+  private int next() {
+    long counter = position >>> 2;
+    if (counter != blockCounter) {
+      philox(counter);
+      blockCounter = counter;
+    }
+    return block[(int) (position++ & 3)];
+  }
+
+  // fills the block with the 4 values of the counter. The counter and the stream make the
+  // 128 bit input, low words first
+  private void philox(long counter) {
+    int c0 = (int) counter;
+    int c1 = (int) (counter >>> 32);
+    int c2 = (int) stream;
+    int c3 = (int) (stream >>> 32);
+    int k0 = (int) key;
+    int k1 = (int) (key >>> 32);
+    for (int i = 0; i < ROUNDS; i++) {
+      long product0 = MULTIPLIER_0 * (c0 & 0xFFFFFFFFL);
+      long product1 = MULTIPLIER_1 * (c2 & 0xFFFFFFFFL);
+      c0 = (int) (product1 >>> 32) ^ c1 ^ k0;
+      c1 = (int) product1;
+      c2 = (int) (product0 >>> 32) ^ c3 ^ k1;
+      c3 = (int) product0;
+      k0 += WEYL_0;
+      k1 += WEYL_1;
+    }
+    block[0] = c0;
+    block[1] = c1;
+    block[2] = c2;
+    block[3] = c3;
+  }
+
+  @Override
+  public int nextInt(int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("bound must be positive");
+    }
+    int r = next() >>> 1;
+    int m = n - 1;
+    if ((n & m) == 0) {
+      return (int) ((n * (long) r) >> 31);
+    }
+    for (int u = r; u - (r = u % n) + m < 0; u = next() >>> 1) {
+      // rejects the values which would make smaller numbers more likely
+    }
+    return r;
+  }
+
+  /**
+   * Fills an array with the numbers successive calls of {@link #nextInt}
+   * would give, taking the 4 values of each block of the stream in turn
+   * instead of one call at a time.
+   *
+   * @param values array to fill
+   * @param n the upper limit up to which random numbers generated can be
+   * @throws IllegalArgumentException if values is null or n is not positive
+   */
+  @Override
+  public void nextInts(int[] values, int n) {
+    if (values == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+    if (n <= 0) {
+      throw new IllegalArgumentException("bound must be positive");
+    }
+    int m = n - 1;
+    boolean powerOfTwo = (n & m) == 0;
+    int i = 0;
+    while (i < values.length) {
+      long counter = position >>> 2;
+      if (counter != blockCounter) {
+        philox(counter);
+        blockCounter = counter;
+      }
+      for (int k = (int) (position & 3); k < 4 && i < values.length; k++) {
+        position++;
+        int u = block[k] >>> 1;
+        if (powerOfTwo) {
+          values[i++] = (int) ((n * (long) u) >> 31);
+        }
+        else {
+          int r = u % n;
+          if (u - r + m >= 0) {
+            values[i++] = r;
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package dungeon.model;
+
+/**
+ * An immutable graph of the dungeon stored in compressed sparse row form.
+ * The neighbours of location n are stored in the neighbours array between
+ * offsets[n] and offsets[n + 1], so a lookup never allocates.
+ */
+final class CsrGraph implements DungeonGraph {
+  private final int[] offsets;
+  private final int[] neighbours;
+
+  /**
+   * The graph is built from the connected edges of the dungeon packed as
+   * pairs of cell values. Each edge is added in both directions.
+   *
+   * @param size number of locations in the dungeon
+   * @param edges packed cell values of the connected edges
+   * @throws IllegalArgumentException if edges is null or has an odd length
+   * @throws IllegalArgumentException if size is negative
+   */
+  public CsrGraph(int size, int[] edges) {
+    if (edges == null || edges.length % 2 != 0) {
+      throw new IllegalArgumentException("Edges should be pairs of cell values");
+    }
+    if (size < 0) {
+      throw new IllegalArgumentException("Size cannot be negative");
+    }
+    offsets = new int[size + 1];
+    neighbours = new int[edges.length];
+    for (int e : edges) {
+      offsets[e + 1]++;
+    }
+    for (int i = 0; i < size; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    int[] next = new int[size];
+    System.arraycopy(offsets, 0, next, 0, size);
+    for (int i = 0; i < edges.length; i += 2) {
+      neighbours[next[edges[i]]++] = edges[i + 1];
+      neighbours[next[edges[i + 1]]++] = edges[i];
+    }
+  }
+
+  @Override
+  public int size() {
+    return offsets.length - 1;
+  }
+
+  @Override
+  public int degree(int n) {
+    return offsets[n + 1] - offsets[n];
+  }
+
+  @Override
+  public int neighbour(int n, int i) {
+    if (i < 0 || i >= degree(n)) {
+      throw new IndexOutOfBoundsException("Location " + n + " has no neighbour " + i);
+    }
+    return neighbours[offsets[n] + i];
+  }
+}
@@ -26,4 +26,31 @@ public enum Directions {
   public int getY() {
     return y;
   }
+
+  /**
+   * The bit of this direction in an exit mask. An exit mask has one bit
+   * set for every direction a location can be left in.
+   *
+   * @return mask with only this direction set
+   */
+  public int getMask() {
+    return 1 << ordinal();
+  }
+
+  /**
+   * Finds the direction a player names, by its full name or first letter in
+   * any case.
+   *
+   * @param d name of the direction
+   * @return the direction, or null if d does not name one
+   */
+  static Directions parse(String d) {
+    for (Directions direction : values()) {
+      if (direction.name().equalsIgnoreCase(d)
+              || direction.name().substring(0, 1).equalsIgnoreCase(d)) {
+        return direction;
+      }
+    }
+    return null;
+  }
 }
@@ -0,0 +1,183 @@
+package dungeon.model;
+
+import java.util.Arrays;
+
+/**
+ * Breadth first search over the dungeon graph that finds every location within
+ * a given number of hops from a source. The queue, distances and visited set are
+ * allocated once and reused, and only the locations reached by the last search
+ * are cleared, so each search costs the number of locations it reaches. The
+ * queue grows as far as searches reach, so short searches of a very large
+ * dungeon only take a bit of memory per location. For graphs too large for
+ * even that, the visited set is a hash set of the locations reached, which is
+ * emptied at once by starting a new generation of its entries.
+ */
+final class DistanceSearch {
+  private static final int INITIAL_QUEUE = 64;
+  private static final int SPARSE_SIZE = 1 << 24;
+
+  private final DungeonGraph graph;
+  private int[] queue;
+  private int[] distance;
+  private final long[] visited;
+  private int[] keys;
+  private int[] generations;
+  private int generation;
+  private int reached;
+
+  /**
+   * The search is created for a graph which does not change afterwards.
+   *
+   * @param graph graph of the dungeon to search in
+   * @throws IllegalArgumentException if graph is null
+   */
+  public DistanceSearch(DungeonGraph graph) {
+    if (graph == null) {
+      throw new IllegalArgumentException("Graph cannot be null");
+    }
+    this.graph = graph;
+    queue = new int[Math.min(graph.size(), INITIAL_QUEUE)];
+    distance = new int[queue.length];
+    if (graph.size() > SPARSE_SIZE) {
+      visited = null;
+      keys = new int[2 * queue.length];
+      generations = new int[keys.length];
+      generation = 1;
+    }
+    else {
+      visited = new long[(graph.size() + 63) >>> 6];
+    }
+    reached = 0;
+  }
+
+  /**
+   * Finds the locations which are at most k hops away from the source. The
+   * source itself is reached at distance 0. The result replaces the result of
+   * the previous search.
+   *
+   * @param source cell identifier to start from
+   * @param k maximum number of hops
+   * @return number of locations reached
+   * @throws IllegalArgumentException if k is negative
+   */
+  public int search(int source, int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("Distance cannot be negative");
+    }
+    clear();
+    queue[0] = source;
+    distance[0] = 0;
+    mark(source);
+    int head = 0;
+    int tail = 1;
+    while (head < tail && distance[head] < k) {
+      int node = queue[head];
+      int d = distance[head] + 1;
+      head++;
+      for (int i = 0; i < graph.degree(node); i++) {
+        int next = graph.neighbour(node, i);
+        if (!isReached(next)) {
+          if (tail == queue.length) {
+            grow();
+          }
+          mark(next);
+          queue[tail] = next;
+          distance[tail] = d;
+          tail++;
+        }
+      }
+    }
+    reached = tail;
+    return reached;
+  }
+
+  // makes room in the queue for twice as many locations, and in the hash set for
+  // the locations already in the queue
+  private void grow() {
+    int old = queue.length;
+    int length = (int) Math.min(2L * old, graph.size());
+    queue = Arrays.copyOf(queue, length);
+    distance = Arrays.copyOf(distance, length);
+    if (visited == null) {
+      keys = new int[4 * old];
+      generations = new int[keys.length];
+      generation = 1;
+      for (int i = 0; i < old; i++) {
+        mark(queue[i]);
+      }
+    }
+  }
+
+  // empties the visited set of the locations reached by the last search
+  private void clear() {
+    if (visited != null) {
+      for (int i = 0; i < reached; i++) {
+        visited[queue[i] >>> 6] &= ~(1L << queue[i]);
+      }
+    }
+    else if (++generation == 0) {
+      Arrays.fill(generations, 0);
+      generation = 1;
+    }
+  }
+
+  // adds the location to the visited set
+  private void mark(int n) {
+    if (visited != null) {
+      visited[n >>> 6] |= 1L << n;
+      return;
+    }
+    int mask = keys.length - 1;
+    int i = slot(n);
+    while (generations[i] == generation && keys[i] != n) {
+      i = (i + 1) & mask;
+    }
+    keys[i] = n;
+    generations[i] = generation;
+  }
+
+  // the first slot of the hash set to look for the location in
+  private int slot(int n) {
+    int h = n * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & (keys.length - 1);
+  }
+
+  /**
+   * Gets the i-th location reached by the last search, in order of distance.
+   *
+   * @param i index between 0 and the number of locations reached
+   * @return cell identifier of the location
+   */
+  public int node(int i) {
+    return queue[i];
+  }
+
+  /**
+   * Gets the distance of the i-th location reached by the last search.
+   *
+   * @param i index between 0 and the number of locations reached
+   * @return number of hops from the source
+   */
+  public int distance(int i) {
+    return distance[i];
+  }
+
+  /**
+   * Checks if a location was reached by the last search.
+   *
+   * @param n cell identifier
+   * @return true if n is within the distance of the last search
+   */
+  public boolean isReached(int n) {
+    if (visited != null) {
+      return (visited[n >>> 6] & (1L << n)) != 0;
+    }
+    int mask = keys.length - 1;
+    for (int i = slot(n); generations[i] == generation; i = (i + 1) & mask) {
+      if (keys[i] == n) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
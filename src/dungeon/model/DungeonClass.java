@@ -2,9 +2,11 @@ package dungeon.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * A dungeon is created with a size determined by rows and columns. The number of paths
@@ -16,12 +18,23 @@ import java.util.Map;
  * to appearance of thief.
  */
 public final class DungeonClass implements Dungeon {
+  private static final int END_ATTEMPTS = 1000;
+
   private final Player p;
   private final RandomGenerator rand;
-  private final Cell[][] grid;
+  private final CellStorage storage;
+  private final GridAlgorithm algorithm;
+  private final DungeonEventBus events;
   private final int[][] state;
-  private final List<Cell> cells;
-  private final List<List<Integer>> connectedEdges;
+  private List<Cell> cells;
+  private LargeCellStore large;
+  private int[] connectedEdges;
+  private DungeonGraph graph;
+  private DistanceSearch search;
+  private MonsterProximity proximity;
+  private SnapshotTable snapshots;
+  private DungeonSnapshot snapshot;
+  private boolean modified;
   private Cell startLocation;
   private Cell endLocation;
   private final int rows;
@@ -56,20 +69,155 @@ public final class DungeonClass implements Dungeon {
   public DungeonClass(int rows, int columns, int interconnectivity,
                       int percentTreasure, boolean isWrapping, int difficulty, RandomGenerator rand)
           throws IllegalArgumentException {
+    this(rows, columns, interconnectivity, percentTreasure, isWrapping, difficulty, rand,
+            CellStorage.OBJECTS);
+  }
+
+  /**
+   * The dungeon is created the same way as with the other constructor, with the
+   * contents of its locations kept in the given storage. Array storage lets very
+   * large dungeons fit in memory, mapped storage keeps them in a file for
+   * dungeons larger than memory, and chunked storage only creates the parts of
+   * the dungeon the player comes near.
+   *
+   * @param rows              number of rows of the dungeon
+   * @param columns           number of columns of the dungeon
+   * @param interconnectivity interconnectivity which increases number of paths
+   * @param percentTreasure   percent of treasure in caves
+   * @param isWrapping        true if dungeon should be wrapping, false if non wrapping
+   * @param difficulty        defines the number of Otyughs to add to the dungeon
+   * @param rand              type of randomness the dungeon is using
+   * @param storage           how the contents of the locations are stored
+   * @throws IllegalArgumentException if the rows or columns is less than 6
+   * @throws IllegalArgumentException if interconnectivity is high for rows and columns
+   *                                  defined or is less than 0
+   * @throws IllegalArgumentException if percent of treasure is <0 or >100
+   * @throws IllegalArgumentException if interconnectivity or difficulty < 0
+   * @throws IllegalArgumentException if random instance or storage is null
+   * @throws IllegalStateException if the file of a mapped dungeon cannot be created
+   */
+  public DungeonClass(int rows, int columns, int interconnectivity, int percentTreasure,
+                      boolean isWrapping, int difficulty, RandomGenerator rand,
+                      CellStorage storage) throws IllegalArgumentException {
+    this(rows, columns, interconnectivity, percentTreasure, isWrapping, difficulty, rand,
+            storage, GridAlgorithm.KRUSKAL);
+  }
+
+  /**
+   * The dungeon is created the same way as with the other constructors, with its
+   * edges chosen by the given algorithm. A mapped dungeon is always created row by
+   * row with Eller's algorithm, and a chunked dungeon uses the algorithm for the
+   * tree of each chunk.
+   *
+   * @param rows              number of rows of the dungeon
+   * @param columns           number of columns of the dungeon
+   * @param interconnectivity interconnectivity which increases number of paths
+   * @param percentTreasure   percent of treasure in caves
+   * @param isWrapping        true if dungeon should be wrapping, false if non wrapping
+   * @param difficulty        defines the number of Otyughs to add to the dungeon
+   * @param rand              type of randomness the dungeon is using
+   * @param storage           how the contents of the locations are stored
+   * @param algorithm         how the edges of the dungeon are chosen
+   * @throws IllegalArgumentException if the rows or columns is less than 6
+   * @throws IllegalArgumentException if interconnectivity is high for rows and columns
+   *                                  defined or is less than 0
+   * @throws IllegalArgumentException if percent of treasure is <0 or >100
+   * @throws IllegalArgumentException if interconnectivity or difficulty < 0
+   * @throws IllegalArgumentException if random instance, storage or algorithm is null
+   * @throws IllegalStateException if the file of a mapped dungeon cannot be created
+   */
+  public DungeonClass(int rows, int columns, int interconnectivity, int percentTreasure,
+                      boolean isWrapping, int difficulty, RandomGenerator rand,
+                      CellStorage storage, GridAlgorithm algorithm) {
+    this(rows, columns, interconnectivity, percentTreasure, isWrapping, difficulty, rand,
+            storage, algorithm, true);
+  }
+
+  /**
+   * The dungeon is created randomly as with the other constructors, or without
+   * any edges to put back the layout of a saved dungeon. The edges of a dungeon
+   * which is not connected are put back one at a time with {@link #restoreEdge},
+   * so even a dungeon larger than the heap never holds them all in memory, and
+   * then the start and the end with {@link #restoreLayout}. Such a dungeon has
+   * no items or Otyughs; the saved contents of its locations and the player are
+   * put back with {@link #restoreCell} and {@link #restorePlayer}.
+   *
+   * @param rows              number of rows of the dungeon
+   * @param columns           number of columns of the dungeon
+   * @param interconnectivity interconnectivity which increases number of paths
+   * @param percentTreasure   percent of treasure in caves
+   * @param isWrapping        true if dungeon should be wrapping, false if non wrapping
+   * @param difficulty        defines the number of Otyughs to add to the dungeon
+   * @param rand              type of randomness the dungeon is using
+   * @param storage           how the contents of the locations are stored
+   * @param algorithm         how the edges are chosen, if the dungeon is connected
+   * @param connect           true to create the dungeon randomly, false to leave it
+   *                          without edges for a saved layout
+   * @throws IllegalArgumentException if the specifications are not valid, as described
+   *                                  for the other constructors, or a chunked dungeon is
+   *                                  not connected
+   */
+  DungeonClass(int rows, int columns, int interconnectivity, int percentTreasure,
+               boolean isWrapping, int difficulty, RandomGenerator rand, CellStorage storage,
+               GridAlgorithm algorithm, boolean connect) {
+    if (rand == null || storage == null || algorithm == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+    checkSettings(rows, columns, interconnectivity, percentTreasure, isWrapping, difficulty);
+    if (storage == CellStorage.CHUNKED && !connect) {
+      throw new IllegalArgumentException("A chunked dungeon cannot be created from a layout");
+    }
+    this.rand = rand;
+    this.storage = storage;
+    this.algorithm = algorithm;
+    this.events = new DungeonEventBus();
+    this.state = storage == CellStorage.MAPPED || storage == CellStorage.CHUNKED ? null
+            : new int[rows][columns];
+    this.rows = rows;
+    this.columns = columns;
+    this.interconnectivity = interconnectivity;
+    this.percentTreasure = percentTreasure;
+    this.isWrapping = isWrapping;
+    this.difficulty = difficulty;
+    this.p = new PlayerClass();
+    this.isGameOver = false;
+    this.playerWon = false;
+    wrongMoves = 0;
+    createGrid();
+    if (connect) {
+      createDungeonKruskal();
+      createStart();
+      createEnd();
+      updateCellItems();
+    }
+  }
+
+  /**
+   * Checks that the specifications can be used to create a dungeon.
+   *
+   * @param rows              number of rows of the dungeon
+   * @param columns           number of columns of the dungeon
+   * @param interconnectivity interconnectivity which increases number of paths
+   * @param percentTreasure   percent of treasure in caves
+   * @param isWrapping        true if dungeon should be wrapping, false if non wrapping
+   * @param difficulty        defines the number of Otyughs to add to the dungeon
+   * @throws IllegalArgumentException if the specifications are not valid, as described
+   *                                  for the constructor
+   */
+  static void checkSettings(int rows, int columns, int interconnectivity, int percentTreasure,
+                            boolean isWrapping, int difficulty) {
     if (rows < 6 || columns < 6) {
       throw new IllegalArgumentException("Minimum size of grid should be 6x6");
     }
-    if (!isWrapping && interconnectivity
-            > (((rows - 1) * columns + (columns - 1) * rows) - ((rows * columns) - 1))) {
-      throw new IllegalArgumentException("Interconnectivity to be less than :"
-              + (((rows - 1) * columns + (columns - 1) * rows) - ((rows * columns) - 1)));
+    long cells = (long) rows * columns;
+    if (cells > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Dungeon cannot have more than "
+              + Integer.MAX_VALUE + " locations");
     }
-    if (isWrapping && interconnectivity
-            > ((((rows - 1) * columns + (columns - 1) * rows) + rows + columns)
-            - ((rows * columns) - 1))) {
+    long edges = (rows - 1L) * columns + (columns - 1L) * rows + (isWrapping ? rows + columns : 0);
+    if (interconnectivity > edges - (cells - 1)) {
       throw new IllegalArgumentException("Interconnectivity to be less than :"
-              + ((((rows - 1) * columns + (columns - 1) * rows) + rows + columns)
-              - ((rows * columns) - 1)));
+              + (edges - (cells - 1)));
     }
     if (percentTreasure < 0 || percentTreasure > 100) {
       throw new IllegalArgumentException("Treasure percentage to be between 0 and 100");
@@ -80,26 +228,6 @@ public final class DungeonClass implements Dungeon {
     if (difficulty < 1 || difficulty > 3) {
       throw new IllegalArgumentException("Difficulty level to be set as 1,2 or 3");
     }
-    this.rand = rand;
-    this.grid = new CellClass[rows][columns];
-    this.state = new int[rows][columns];
-    this.cells = new ArrayList<>();
-    this.connectedEdges = new ArrayList<>();
-    this.rows = rows;
-    this.columns = columns;
-    this.interconnectivity = interconnectivity;
-    this.percentTreasure = percentTreasure;
-    this.isWrapping = isWrapping;
-    this.difficulty = difficulty;
-    this.p = new PlayerClass();
-    this.isGameOver = false;
-    this.playerWon = false;
-    wrongMoves = 0;
-    createGrid();
-    createDungeonKruskal();
-    createStart();
-    createEnd();
-    updateCellItems();
   }
 
   @Override
@@ -116,21 +244,84 @@ public final class DungeonClass implements Dungeon {
 
   // create grid based on number of rows and columns
   private void createGrid() {
+    if (storage == CellStorage.CHUNKED) {
+      long seed = (long) rand.nextInt(Integer.MAX_VALUE) << 31 | rand.nextInt(Integer.MAX_VALUE);
+      large = new ChunkedCellStore(rows, columns, isWrapping, interconnectivity,
+              percentTreasure, difficulty, algorithm, seed);
+      cells = new CellViews(large);
+      return;
+    }
+    if (storage == CellStorage.MAPPED) {
+      large = new MappedCellStore(rows, columns);
+      cells = new CellViews(large);
+      return;
+    }
+    if (storage == CellStorage.ARRAYS) {
+      cells = new CellViews(new ArrayCellStore(rows, columns));
+      return;
+    }
+    cells = new ArrayList<>();
     int counter = 0;
     for (int i = 0; i < rows; i++) {
       for (int j = 0; j < columns; j++) {
-        CellClass c = new CellClass(i, j, counter++);
-        cells.add(c);
-        grid[i][j] = c;
+        cells.add(new CellClass(i, j, counter++));
       }
     }
   }
 
-  // connects the edges of the grid based on Kruskal's algorithm
+  // connects the edges of the grid based on Kruskal's algorithm, row by row straight
+  // into the file for a mapped dungeon. A chunked dungeon connects each chunk when it
+  // is first used
   private void createDungeonKruskal() {
-    Grid uf = new GridImpl(grid, isWrapping, interconnectivity, rand);
-    for (List<Cell> e : uf.getConnected()) {
-      connectedEdges.add(Arrays.asList(e.get(0).getValue(), e.get(1).getValue()));
+    if (storage == CellStorage.CHUNKED) {
+      createSearch();
+      return;
+    }
+    if (large != null) {
+      new StreamingKruskal(rows, columns, isWrapping, interconnectivity, rand).connect(large);
+    }
+    else {
+      Grid uf = algorithm.create(rows, columns, isWrapping, interconnectivity, rand);
+      connectedEdges = uf.getConnectedValues();
+      addNeighbourToCell(connectedEdges);
+    }
+    createSearch();
+  }
+
+  // builds the graph searched by the game. A large dungeon reads it from the exits
+  // and counts the Otyughs nearby when asked, so neither is kept on the heap
+  private void createSearch() {
+    if (large != null) {
+      graph = new ExitMaskGraph(large, rows);
+      search = new DistanceSearch(graph);
+      proximity = new MonsterProximity(search, n -> large.getMonsterHealth(n) != 0);
+    }
+    else {
+      graph = new CsrGraph(rows * columns, connectedEdges);
+      search = new DistanceSearch(graph);
+      proximity = new MonsterProximity(search, rows * columns);
+    }
+  }
+
+  // once edges are connected, the corresponding neighbours are added to the cell
+  private void addNeighbourToCell(int[] edges) {
+    for (int i = 0; i < edges.length; i += 2) {
+      Cell from = cells.get(edges[i]);
+      Cell to = cells.get(edges[i + 1]);
+      if ((from.getY() + 1) % columns == to.getY()) {
+        from.addNeighbour(Directions.EAST);
+        to.addNeighbour(Directions.WEST);
+      }
+      else if ((from.getX() + 1) % rows == to.getX()) {
+        from.addNeighbour(Directions.SOUTH);
+        to.addNeighbour(Directions.NORTH);
+      }
+    }
+  }
+
+  private void checkLocation(int n) {
+    if (n < 0 || n >= rows * columns) {
+      throw new IllegalArgumentException("Location " + n + " is not in the dungeon");
     }
   }
 
@@ -142,83 +333,126 @@ public final class DungeonClass implements Dungeon {
     }
     startLocation = cells.get(r);
     p.setPlayerLocation(startLocation);
+    setVisited(r, true);
   }
 
   // find nodes which are at a distance > 5 from start and assign any random as end position
   private void createEnd() {
-    Map<Integer, Integer> lessThanKNodes = new HashMap<>();
-    nodesUnderK(connectedEdges, startLocation.getValue(), lessThanKNodes, 5);
-    List<Cell> possibleEndCells = new ArrayList<>(cells);
-    for (Integer i : lessThanKNodes.keySet()) {
-      possibleEndCells.removeIf(c -> c.getValue() == i);
+    search.search(startLocation.getValue(), 5);
+    if (storage == CellStorage.CHUNKED) {
+      createChunkedEnd();
+      return;
+    }
+    boolean hasEnd = false;
+    for (int n = 0; n < cells.size() && !hasEnd; n++) {
+      hasEnd = !search.isReached(n) && cells.get(n).getNoOfEntrances() != 2;
     }
-    if (possibleEndCells.size() == 0) {
+    if (!hasEnd) {
       throw new IllegalArgumentException("Increase size of grid or decrease interconnectivity");
     }
-    int r = rand.nextInt(possibleEndCells.size());
-    while (possibleEndCells.get(r).getNoOfEntrances() == 2) {
-      r = rand.nextInt(possibleEndCells.size());
+    int r = rand.nextInt(cells.size());
+    while (search.isReached(r) || cells.get(r).getNoOfEntrances() == 2) {
+      r = rand.nextInt(cells.size());
     }
-    endLocation = possibleEndCells.get(r);
+    endLocation = cells.get(r);
   }
 
-  // helper method to get the nodes under distance of k from specified cell
-  private void nodesUnderK(List<List<Integer>> graph, int node,
-                           Map<Integer, Integer> lessThanKNodes, int k) {
-    int v = rows * columns;
-    List<List<Integer>> treeTry = new ArrayList<>();
-
-    for (int i = 0; i < v + 1; i++) {
-      treeTry.add(new ArrayList<>());
-    }
-    for (List<Integer> integers : graph) {
-      int from = integers.get(0);
-      int to = integers.get(1);
-      treeTry.get(from).add(to);
-      treeTry.get(to).add(from);
+  // tries random locations for the end of a chunked dungeon, as looking through every
+  // location would create every chunk
+  private void createChunkedEnd() {
+    for (int i = 0; i < END_ATTEMPTS; i++) {
+      int r = rand.nextInt(cells.size());
+      if (!search.isReached(r) && cells.get(r).getNoOfEntrances() != 2) {
+        endLocation = cells.get(r);
+        return;
+      }
     }
-    dfs(k, node, -1, treeTry, lessThanKNodes);
+    throw new IllegalArgumentException("Increase size of grid or decrease interconnectivity");
   }
 
-  // traversal through graph
-  private void dfs(int k, int node, int parent,
-                   List<List<Integer>> tree, Map<Integer, Integer> lessThanKNodes) {
-    if (k < 0) {
+  // adding treasure, arrow and monsters to the dungeon. The chunks of a chunked dungeon
+  // have their items, only the start is cleared of Otyughs and the end is guarded
+  private void updateCellItems() {
+    if (storage == CellStorage.CHUNKED) {
+      if (startLocation.getMonster() != null) {
+        startLocation.removeMonsterFromLocation();
+      }
+      if (endLocation.getMonster() == null) {
+        placeMonster(endLocation);
+      }
       return;
     }
-    lessThanKNodes.put(node, k);
-    List<Integer> temp = tree.get(node);
-
-    for (int i : temp) {
-      if (i != parent) {
-        dfs(k - 1, i, node, tree, lessThanKNodes);
-      }
+    if (large != null) {
+      updateMappedItems();
+      return;
     }
-  }
-
-  // adding treasure, arrow and monsters to the dungeon
-  private void updateCellItems() {
-    List<Cell> caves = new ArrayList<>();
-    for (Cell c : cells) {
-      if (c.getNoOfEntrances() == 1 || c.getNoOfEntrances() == 3 || c.getNoOfEntrances() == 4) {
-        caves.add(c);
+    int noOfCaves = 0;
+    int[] caves = new int[cells.size()];
+    for (int i = 0; i < cells.size(); i++) {
+      if (cells.get(i).getNoOfEntrances() != 2) {
+        caves[noOfCaves++] = i;
       }
     }
-    int noToAdd = (percentTreasure * caves.size() / 100);
-    int noMonstersToAdd = (difficulty * 20 * caves.size() / 100);
+    caves = Arrays.copyOf(caves, noOfCaves);
+    int noToAdd = itemCount(percentTreasure, noOfCaves);
+    int noMonstersToAdd = itemCount(difficulty * 20, noOfCaves);
     addTreasure(caves, noToAdd);
     addArrow(noToAdd);
     addMonster(caves, noMonstersToAdd);
   }
 
+  // the percent of the caves, multiplied as a long so a dungeon of hundreds of millions
+  // of caves does not overflow; the count itself is never more than the caves
+  private static int itemCount(int percent, int noOfCaves) {
+    return (int) ((long) percent * noOfCaves / 100);
+  }
+
+  // adding treasure, arrows and monsters to a mapped dungeon in one pass over the file,
+  // as random writes all over a file larger than memory would wait on the disk. Each
+  // location is chosen with the chance of the items left over the locations left, so
+  // exactly as many items are added, each to a different location
+  private void updateMappedItems() {
+    int noOfCaves = 0;
+    for (int i = 0; i < cells.size(); i++) {
+      if (Integer.bitCount(large.getExits(i)) != 2) {
+        noOfCaves++;
+      }
+    }
+    int treasureLeft = itemCount(percentTreasure, noOfCaves);
+    int arrowsLeft = treasureLeft;
+    int monstersLeft = itemCount(difficulty * 20, noOfCaves) - 1;
+    int cavesLeft = noOfCaves;
+    int monsterCavesLeft = noOfCaves - 2;
+    Treasure[] treasures = {Treasure.RUBY, Treasure.DIAMOND, Treasure.SAPPHIRE};
+    placeMonster(endLocation);
+    for (int i = 0; i < cells.size(); i++) {
+      if (rand.nextInt(cells.size() - i) < arrowsLeft) {
+        cells.get(i).addArrowToLocation();
+        arrowsLeft--;
+      }
+      if (Integer.bitCount(large.getExits(i)) == 2) {
+        continue;
+      }
+      if (rand.nextInt(cavesLeft--) < treasureLeft) {
+        cells.get(i).addTreasureToLocation(treasures[rand.nextInt(3)]);
+        treasureLeft--;
+      }
+      if (i != startLocation.getValue() && i != endLocation.getValue()
+              && rand.nextInt(monsterCavesLeft--) < monstersLeft) {
+        placeMonster(cells.get(i));
+        monstersLeft--;
+      }
+    }
+  }
+
   // adding treasure to random caves
-  private void addTreasure(List<Cell> c, int n) {
+  private void addTreasure(int[] c, int n) {
     if (c == null || n < 0) {
       throw new IllegalArgumentException("Invalid arguments");
     }
     List<Treasure> treasures = Arrays.asList(Treasure.RUBY, Treasure.DIAMOND, Treasure.SAPPHIRE);
     for (int i = 0; i < n; i++) {
-      c.get(rand.nextInt(c.size())).addTreasureToLocation(treasures.get(rand.nextInt(3)));
+      cells.get(c[rand.nextInt(c.length)]).addTreasureToLocation(treasures.get(rand.nextInt(3)));
     }
   }
 
@@ -233,36 +467,70 @@ public final class DungeonClass implements Dungeon {
     }
   }
 
-  // adding Otyughs to random caves
-  private void addMonster(List<Cell> c, int noMonstersToAdd) {
+  // adding Otyughs to random caves other than the start and end
+  private void addMonster(int[] c, int noMonstersToAdd) {
     if (c == null || noMonstersToAdd < 0) {
       throw new IllegalArgumentException("Invalid arguments");
     }
-    List<Cell> temp = new ArrayList<>(c);
-    endLocation.addMonsterToLocation();
-    temp.remove(startLocation);
-    temp.remove(endLocation);
+    int[] temp = new int[c.length];
+    int size = 0;
+    for (int cave : c) {
+      if (cave != startLocation.getValue() && cave != endLocation.getValue()) {
+        temp[size++] = cave;
+      }
+    }
+    placeMonster(endLocation);
     for (int i = 0; i < noMonstersToAdd - 1; i++) {
-      int randomCave = rand.nextInt(temp.size());
-      temp.get(randomCave).addMonsterToLocation();
-      temp.remove(randomCave);
+      int randomCave = rand.nextInt(size);
+      placeMonster(cells.get(temp[randomCave]));
+      temp[randomCave] = temp[--size];
     }
   }
 
+  // adds an Otyugh to the cave and to the smell index
+  private void placeMonster(Cell c) {
+    c.addMonsterToLocation();
+    proximity.add(c.getValue());
+  }
 
-  private Directions defineDirectionFromString(String d) {
-    if (d.equalsIgnoreCase("n") || d.equalsIgnoreCase("north")) {
-      return Directions.NORTH;
-    } else if (d.equalsIgnoreCase("e") || d.equalsIgnoreCase("east")) {
-      return Directions.EAST;
-    } else if (d.equalsIgnoreCase("s") || d.equalsIgnoreCase("south")) {
-      return Directions.SOUTH;
-    } else if (d.equalsIgnoreCase("w") || d.equalsIgnoreCase("west")) {
-      return  Directions.WEST;
+  // removes the Otyugh from the cave and from the smell index
+  private void removeMonster(Cell c) {
+    c.removeMonsterFromLocation();
+    proximity.remove(c.getValue());
+  }
+
+  // records that the cell is about to change, so the next snapshot copies it
+  private void touch(Cell c) {
+    modified = true;
+    if (snapshots != null) {
+      snapshots.touch(c.getValue());
+    }
+  }
+
+  // marks the cell as visited by the player
+  private void visit(Cell c) {
+    if (!isVisited(c.getValue())) {
+      touch(c);
+      setVisited(c.getValue(), true);
+    }
+  }
+
+  private void setVisited(int n, boolean visited) {
+    if (large != null) {
+      large.setVisited(n, visited);
     }
     else {
+      state[n / columns][n % columns] = visited ? 1 : 0;
+    }
+  }
+
+
+  private Directions defineDirectionFromString(String d) {
+    Directions direction = Directions.parse(d);
+    if (direction == null) {
       throw new IllegalArgumentException("Illegal move!");
     }
+    return direction;
   }
 
   private Cell updateCurrentLocation(Cell cell, Directions d) {
@@ -281,7 +549,7 @@ public final class DungeonClass implements Dungeon {
     } else {
       horizontalMove = (cell.getY() + d.getY()) % columns;
     }
-    return (grid[verticalMove][horizontalMove]);
+    return cells.get(verticalMove * columns + horizontalMove);
   }
 
   @Override
@@ -291,12 +559,14 @@ public final class DungeonClass implements Dungeon {
     }
     Cell currentCell = p.getPlayerLocation();
     Directions d = defineDirectionFromString(direction);
-    if (!p.getPlayerLocation().possibleMoves().contains(d)) {
+    if ((currentCell.getExitMask() & d.getMask()) == 0) {
       wrongMoves++;
       if (wrongMoves == 3) {
+        touch(currentCell);
         currentCell.addThief();
         p.removeTreasureFromPlayer();
         wrongMoves = 0;
+        events.publish(new ThiefAppeared(currentCell.getValue()));
         throw new IllegalArgumentException("A thief came and stole your "
                 + "treasure cause of bad move choices");
       }
@@ -304,22 +574,32 @@ public final class DungeonClass implements Dungeon {
               + "Player stays in same location");
     }
 
-    if (p.getPlayerLocation().possibleMoves().contains(d)) {
-      p.setPlayerLocation(updateCurrentLocation(p.getPlayerLocation(), d));
+    boolean wasOver = gameOver();
+    p.setPlayerLocation(updateCurrentLocation(currentCell, d));
+    if (currentCell.getThief()) {
+      touch(currentCell);
+      currentCell.removeThief();
     }
-    currentCell.removeThief();
+    modified = true;
     gameOverCondition();
-    gameState();
+    visit(p.getPlayerLocation());
+    events.publish(new PlayerMoved(currentCell.getValue(), getCurrentLocation(), d));
+    if (!wasOver && gameOver()) {
+      events.publish(new GameEnded(getCurrentLocation(), playerWon));
+    }
   }
 
 
   @Override
   public void pickUpTreasure() {
     if (p.getPlayerLocation().getTreasureList().size() != 0) {
-      for (Treasure t : p.getPlayerLocation().getTreasureList()) {
+      touch(p.getPlayerLocation());
+      List<Treasure> picked = new ArrayList<>(p.getPlayerLocation().getTreasureList());
+      for (Treasure t : picked) {
         p.addTreasureToPlayer(t);
         p.getPlayerLocation().removeTreasureFromLocation(t);
       }
+      events.publish(new ItemPicked(getCurrentLocation(), picked, 0));
     }
     else {
       throw new IllegalStateException("There is no treasure to pick up here");
@@ -329,8 +609,10 @@ public final class DungeonClass implements Dungeon {
   @Override
   public void pickUpArrow() {
     if (p.getPlayerLocation().getNumberOfArrows() != 0) {
+      touch(p.getPlayerLocation());
       p.addArrowToPlayer();
       p.getPlayerLocation().removeArrowFromLocation();
+      events.publish(new ItemPicked(getCurrentLocation(), Collections.emptyList(), 1));
     }
     else {
       throw new IllegalStateException("There are no arrows to pick up here");
@@ -373,6 +655,11 @@ public final class DungeonClass implements Dungeon {
     return cells.get(n).possibleMoves();
   }
 
+  @Override
+  public int locationExitMask(int n) {
+    return cells.get(n).getExitMask();
+  }
+
   @Override
   public int locationArrows(int n) {
     return cells.get(n).getNumberOfArrows();
@@ -474,29 +761,16 @@ public final class DungeonClass implements Dungeon {
     return output;
   }
 
-  private Map<Cell, Integer> detectMonster() {
-    Map<Integer, Integer> lessThanKNode = new HashMap<>();
-    Map<Cell, Integer> monsterNearby = new HashMap<>();
-    nodesUnderK(connectedEdges, getCurrentLocation(), lessThanKNode, 2);
-    for (Integer i : lessThanKNode.keySet()) {
-      for (Cell c : cells) {
-        if (c.getValue() == i && c.getMonster() != null) {
-          monsterNearby.put(c, lessThanKNode.get(i));
-        }
-      }
-    }
-    return monsterNearby;
-  }
-
-
   @Override
   public String isMonsterClose() {
-    Map<Cell, Integer> monsterNearby = new HashMap<>(detectMonster());
-    if (monsterNearby.size() == 1 && monsterNearby.containsValue(0)) {
-      return ("You smell something bad nearby");
-    } else if (monsterNearby.size() == 1 && monsterNearby.containsValue(1)) {
+    int current = getCurrentLocation();
+    int close = proximity.count(current, 1);
+    int far = proximity.count(current, 2);
+    if (proximity.count(current, 0) + close + far > 1) {
       return ("The smell just got worse");
-    } else if (monsterNearby.size() > 1) {
+    } else if (far == 1) {
+      return ("You smell something bad nearby");
+    } else if (close == 1) {
       return ("The smell just got worse");
     }
     return "";
@@ -515,42 +789,55 @@ public final class DungeonClass implements Dungeon {
     }
     Directions d = defineDirectionFromString(direction);
     Cell currentCell = p.getPlayerLocation();
+    Directions shot = d;
     while (distance > 0) {
-      if (currentCell.possibleMoves().contains(d)) {
+      if ((currentCell.getExitMask() & d.getMask()) != 0) {
         currentCell = (updateCurrentLocation(currentCell, d));
       }
       else {
         return "You shoot an arrow into the darkness";
       }
       if (currentCell.getNoOfEntrances() == 2) {
-        d = updateDirection(d, currentCell.possibleMoves());
+        d = updateDirection(d, currentCell.getExitMask());
       }
       else {
         distance --;
       }
     }
     p.removeArrowFromPlayer();
-    if (currentCell.getMonster() != null && currentCell.getMonster().getHealth() > 1) {
-      currentCell.getMonster().reduceHealth();
+    touch(currentCell);
+    Monster monster = currentCell.getMonster();
+    events.publish(new ArrowShot(getCurrentLocation(), currentCell.getValue(), shot,
+            monster != null));
+    if (monster != null && monster.getHealth() > 1) {
+      monster.reduceHealth();
+      events.publish(new MonsterDamaged(currentCell.getValue(), monster.getHealth()));
       return "There is a loud howl from nearby!";
-    } else if (currentCell.getMonster() != null && currentCell.getMonster().getHealth() == 1) {
-      currentCell.getMonster().reduceHealth();
-      currentCell.removeMonsterFromLocation();
+    } else if (monster != null && monster.getHealth() == 1) {
+      monster.reduceHealth();
+      removeMonster(currentCell);
+      events.publish(new MonsterDamaged(currentCell.getValue(), 0));
       return "There is a loud howl from nearby! You killed the monster";
     } else {
       return "You shoot an arrow into the darkness";
     }
   }
 
-  private Directions updateDirection(Directions d, List<Directions> moves) {
-    if (d == null || moves == null) {
+  // the direction an arrow leaves a tunnel in, turning if the tunnel bends
+  private Directions updateDirection(Directions d, int exits) {
+    if (d == null) {
       throw new IllegalArgumentException("Invalid arguments!");
     }
-    if (moves.contains(d)) {
+    if ((exits & d.getMask()) != 0) {
       return d;
     }
-    moves.removeIf(direction -> direction.getX() == d.getX() || direction.getY() == d.getY());
-    return moves.get(0);
+    for (Directions direction : Directions.values()) {
+      if ((exits & direction.getMask()) != 0
+              && direction.getX() != d.getX() && direction.getY() != d.getY()) {
+        return direction;
+      }
+    }
+    throw new IllegalArgumentException("Invalid arguments!");
   }
 
 
@@ -588,18 +875,64 @@ public final class DungeonClass implements Dungeon {
     return copy;
   }
 
+  @Override
+  public DungeonSnapshot getSnapshot() {
+    if (snapshots == null) {
+      snapshots = new SnapshotTable(cells, this::isVisited);
+    }
+    if (snapshot == null || modified) {
+      long version = snapshot == null ? 0 : snapshot.getVersion() + 1;
+      snapshot = new DungeonSnapshot(version, rows, columns, snapshots.commit(), snapshots,
+              getStartLocation(), getEndLocation(), getCurrentLocation(), playerArrows(),
+              playerRuby(), playerSapphire(), playerDiamond(), gameOver());
+      modified = false;
+    }
+    return snapshot;
+  }
+
   @Override
   public List<List<Integer>> getConnectedEdges() {
-    return new ArrayList<>(connectedEdges);
+    List<List<Integer>> edges = new ArrayList<>();
+    if (connectedEdges == null) {
+      for (int n = 0; n < cells.size(); n++) {
+        int exits = large.getExits(n);
+        if ((exits & Directions.EAST.getMask()) != 0) {
+          edges.add(Arrays.asList(n, n - n % columns + (n % columns + 1) % columns));
+        }
+        if ((exits & Directions.SOUTH.getMask()) != 0) {
+          edges.add(Arrays.asList(n, (n / columns + 1) % rows * columns + n % columns));
+        }
+      }
+      return edges;
+    }
+    for (int i = 0; i < connectedEdges.length; i += 2) {
+      edges.add(Arrays.asList(connectedEdges[i], connectedEdges[i + 1]));
+    }
+    return edges;
+  }
+
+  @Override
+  public DungeonGraph getGraph() {
+    return graph;
+  }
+
+  @Override
+  public <E extends DungeonEvent> void subscribe(Class<E> type, Consumer<? super E> listener) {
+    events.subscribe(type, listener);
+  }
+
+  @Override
+  public void unsubscribe(Consumer<?> listener) {
+    events.unsubscribe(listener);
   }
 
 
   private void gameOverCondition() {
-    if (p.getPlayerLocation() == endLocation && p.getPlayerLocation().getMonster() == null) {
+    boolean atEnd = p.getPlayerLocation().getValue() == endLocation.getValue();
+    if (atEnd && p.getPlayerLocation().getMonster() == null) {
       playerWon = true;
     }
-    else if (p.getPlayerLocation() == endLocation
-            && p.getPlayerLocation().getMonster().getHealth() == 1) {
+    else if (atEnd && p.getPlayerLocation().getMonster().getHealth() == 1) {
       int gameEnd50Chance = rand.nextInt(2);
       if (gameEnd50Chance == 1) {
         isGameOver = true;
@@ -628,8 +961,228 @@ public final class DungeonClass implements Dungeon {
 
   @Override
   public int[][] gameState() {
+    if (state == null) {
+      int[][] copy = new int[rows][columns];
+      for (int n = 0; n < cells.size(); n++) {
+        copy[n / columns][n % columns] = large.isVisited(n) ? 1 : 0;
+      }
+      copy[startLocation.getX()][startLocation.getY()] = 1;
+      copy[p.getPlayerLocation().getX()][p.getPlayerLocation().getY()] = 1;
+      return copy;
+    }
     state[startLocation.getX()][startLocation.getY()] = 1;
     state[p.getPlayerLocation().getX()][p.getPlayerLocation().getY()] = 1;
     return state;
   }
+
+  /**
+   * How the contents of the locations are stored.
+   *
+   * @return storage of the dungeon
+   */
+  CellStorage getStorage() {
+    return storage;
+  }
+
+  /**
+   * The random generator the dungeon uses during the game.
+   *
+   * @return random generator of the dungeon
+   */
+  RandomGenerator getRandom() {
+    return rand;
+  }
+
+  /**
+   * Whether the player has been to a location.
+   *
+   * @param n cell identifier
+   * @return true if the location was visited
+   */
+  boolean isVisited(int n) {
+    return large != null ? large.isVisited(n) : state[n / columns][n % columns] != 0;
+  }
+
+  /**
+   * The treasure of the player, in the order it was picked up.
+   *
+   * @return list of treasure of the player
+   */
+  List<Treasure> getPlayerTreasure() {
+    return p.getPlayerTreasureList();
+  }
+
+  /**
+   * The number of moves without an exit since a thief last came.
+   *
+   * @return number of wrong moves
+   */
+  int getWrongMoves() {
+    return wrongMoves;
+  }
+
+  /**
+   * Whether the player has been eaten by an Otyugh.
+   *
+   * @return true if the player was eaten
+   */
+  boolean isPlayerEaten() {
+    return isGameOver;
+  }
+
+  /**
+   * Whether the player has won the game.
+   *
+   * @return true if the player won
+   */
+  boolean hasPlayerWon() {
+    return playerWon;
+  }
+
+  /**
+   * Connects a saved edge of a dungeon created without edges, from a location
+   * to the location east or south of it.
+   *
+   * @param n cell identifier
+   * @param d {@link Directions#EAST} or {@link Directions#SOUTH}
+   * @throws IllegalArgumentException if the edge is not in the dungeon
+   * @throws IllegalStateException if the layout of the dungeon is complete
+   */
+  void restoreEdge(int n, Directions d) {
+    if (startLocation != null) {
+      throw new IllegalStateException("Layout of the dungeon is complete");
+    }
+    checkLocation(n);
+    int x = n / columns;
+    int y = n % columns;
+    if (d == Directions.EAST && (y + 1 < columns || isWrapping)) {
+      cells.get(n).addNeighbour(Directions.EAST);
+      cells.get(x * columns + (y + 1) % columns).addNeighbour(Directions.WEST);
+    }
+    else if (d == Directions.SOUTH && (x + 1 < rows || isWrapping)) {
+      cells.get(n).addNeighbour(Directions.SOUTH);
+      cells.get((x + 1) % rows * columns + y).addNeighbour(Directions.NORTH);
+    }
+    else {
+      throw new IllegalArgumentException("Edge " + d + " of location " + n
+              + " is not in the dungeon");
+    }
+  }
+
+  /**
+   * Completes the layout of a dungeon created without edges once its edges are
+   * connected, placing the start, the end and the player at the start.
+   *
+   * @param start cell identifier of the start
+   * @param end   cell identifier of the end
+   * @throws IllegalArgumentException if start or end is not in the dungeon
+   * @throws IllegalStateException if the layout of the dungeon is complete
+   */
+  void restoreLayout(int start, int end) {
+    if (startLocation != null) {
+      throw new IllegalStateException("Layout of the dungeon is complete");
+    }
+    checkLocation(start);
+    checkLocation(end);
+    if (large == null) {
+      connectedEdges = exitEdges();
+    }
+    createSearch();
+    startLocation = cells.get(start);
+    endLocation = cells.get(end);
+    p.setPlayerLocation(startLocation);
+    setVisited(start, true);
+  }
+
+  // the edges opened east and south of each location in turn, as pairs of locations
+  private int[] exitEdges() {
+    int noOfEdges = 0;
+    for (Cell c : cells) {
+      noOfEdges += Integer.bitCount(c.getExitMask()
+              & (Directions.EAST.getMask() | Directions.SOUTH.getMask()));
+    }
+    int[] edges = new int[2 * noOfEdges];
+    int k = 0;
+    for (int n = 0; n < cells.size(); n++) {
+      int exits = cells.get(n).getExitMask();
+      if ((exits & Directions.EAST.getMask()) != 0) {
+        edges[k++] = n;
+        edges[k++] = n - n % columns + (n % columns + 1) % columns;
+      }
+      if ((exits & Directions.SOUTH.getMask()) != 0) {
+        edges[k++] = n;
+        edges[k++] = (n / columns + 1) % rows * columns + n % columns;
+      }
+    }
+    return edges;
+  }
+
+  /**
+   * Puts the saved contents back into a location of a dungeon created from a
+   * layout. The location must be empty.
+   *
+   * @param n             cell identifier
+   * @param treasure      treasure of the location, in order
+   * @param arrows        number of arrows in the location
+   * @param monsterHealth health of the Otyugh in the location, 0 if there is none
+   * @param thief         true if a thief is in the location
+   * @param visited       true if the player has been to the location
+   * @throws IllegalArgumentException if a value is not valid
+   */
+  void restoreCell(int n, List<Treasure> treasure, int arrows, int monsterHealth,
+                   boolean thief, boolean visited) {
+    checkLocation(n);
+    if (treasure == null || arrows < 0 || monsterHealth < 0 || monsterHealth > 2) {
+      throw new IllegalArgumentException("Invalid contents of location " + n);
+    }
+    Cell c = cells.get(n);
+    for (Treasure t : treasure) {
+      c.addTreasureToLocation(t);
+    }
+    for (int i = 0; i < arrows; i++) {
+      c.addArrowToLocation();
+    }
+    if (monsterHealth > 0) {
+      placeMonster(c);
+      while (c.getMonster().getHealth() > monsterHealth) {
+        c.getMonster().reduceHealth();
+      }
+    }
+    if (thief) {
+      c.addThief();
+    }
+    setVisited(n, visited);
+  }
+
+  /**
+   * Puts the saved player back into a dungeon created from a layout.
+   *
+   * @param location   cell identifier of the player
+   * @param treasure   treasure of the player, in the order it was picked up
+   * @param arrows     number of arrows of the player
+   * @param wrongMoves number of moves without an exit since a thief last came
+   * @param eaten      true if the player was eaten
+   * @param won        true if the player won
+   * @throws IllegalArgumentException if a value is not valid
+   */
+  void restorePlayer(int location, List<Treasure> treasure, int arrows, int wrongMoves,
+                     boolean eaten, boolean won) {
+    checkLocation(location);
+    if (treasure == null || arrows < 0 || wrongMoves < 0 || wrongMoves > 2) {
+      throw new IllegalArgumentException("Invalid state of the player");
+    }
+    p.setPlayerLocation(cells.get(location));
+    for (Treasure t : treasure) {
+      p.addTreasureToPlayer(t);
+    }
+    while (p.getNumberOfArrows() < arrows) {
+      p.addArrowToPlayer();
+    }
+    while (p.getNumberOfArrows() > arrows) {
+      p.removeArrowFromPlayer();
+    }
+    this.wrongMoves = wrongMoves;
+    this.isGameOver = eaten;
+    this.playerWon = won;
+  }
 }
@@ -0,0 +1,297 @@
+package dungeon.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saves a game in progress to a compact binary format and restores it, so a
+ * game can be checkpointed and continued later exactly where it was left,
+ * random numbers included. Numbers are written as variable length integers.
+ * Every edge joins a location to the location east or south of it, so the
+ * edges are read from the exits of each location in turn and written as the
+ * differences between the numbers of their location and direction, taking
+ * about a byte each; a restored dungeon has its edges in that order. Each
+ * location takes a single byte unless it holds items. The format starts with
+ * a version, and a saved game is written and read in one pass without holding
+ * its bytes in memory, so the streams should be buffered.
+ *
+ * <p>Only dungeons created by {@link DungeonClass} with a {@link RandomSeedClass}
+ * or a {@link RandomClass} can be saved.
+ */
+public final class DungeonCodec {
+  private static final int MAGIC = 0x44474E; // "DGN"
+  private static final int VERSION = 1;
+  private static final Treasure[] TREASURE = Treasure.values();
+  private static final CellStorage[] STORAGE = CellStorage.values();
+
+  private static final int VISITED = 1;
+  private static final int THIEF = 1 << 1;
+  private static final int HEALTH_SHIFT = 2;
+  private static final int HAS_TREASURE = 1 << 4;
+  private static final int HAS_ARROWS = 1 << 5;
+  private static final int EAST = Directions.EAST.getMask();
+  private static final int SOUTH = Directions.SOUTH.getMask();
+
+  private DungeonCodec() {
+  }
+
+  /**
+   * Writes the whole state of a game to a stream. The stream is not flushed or
+   * closed.
+   *
+   * @param dungeon the game to save
+   * @param out where the game is written
+   * @throws IOException if the stream cannot be written to
+   * @throws IllegalArgumentException if dungeon or out is null or the dungeon
+   *                                  cannot be saved
+   */
+  public static void write(Dungeon dungeon, OutputStream out) throws IOException {
+    if (dungeon == null || out == null) {
+      throw new IllegalArgumentException("Dungeon and stream cannot be null");
+    }
+    if (!(dungeon instanceof DungeonClass)
+            || !(((DungeonClass) dungeon).getRandom() instanceof StatefulRandom)) {
+      throw new IllegalArgumentException("Only dungeons of DungeonClass with RandomSeedClass "
+              + "or RandomClass can be saved");
+    }
+    DungeonClass d = (DungeonClass) dungeon;
+    if (d.getStorage() == CellStorage.CHUNKED) {
+      throw new IllegalArgumentException("A chunked dungeon cannot be saved");
+    }
+    List<Integer> settings = d.getSettings();
+    writeVarint(out, MAGIC);
+    writeVarint(out, VERSION);
+    writeVarint(out, settings.get(0));
+    writeVarint(out, settings.get(1));
+    writeVarint(out, settings.get(2));
+    writeVarint(out, settings.get(3));
+    out.write(settings.get(4) == 0 ? 1 : 0);
+    writeVarint(out, settings.get(5));
+    out.write(d.getStorage().ordinal());
+    writeLong(out, ((StatefulRandom) d.getRandom()).getState());
+
+    int rows = settings.get(0);
+    int columns = settings.get(1);
+    long noOfEdges = 0;
+    for (int n = 0; n < rows * columns; n++) {
+      noOfEdges += Integer.bitCount(d.locationExitMask(n) & (EAST | SOUTH));
+    }
+    writeVarlong(out, noOfEdges);
+    long previous = 0;
+    for (int n = 0; n < rows * columns; n++) {
+      int exits = d.locationExitMask(n);
+      if ((exits & EAST) != 0) {
+        writeVarlong(out, 2L * n - previous);
+        previous = 2L * n;
+      }
+      if ((exits & SOUTH) != 0) {
+        writeVarlong(out, 2L * n + 1 - previous);
+        previous = 2L * n + 1;
+      }
+    }
+    writeVarint(out, d.getStartLocation());
+    writeVarint(out, d.getEndLocation());
+
+    writeVarint(out, d.getCurrentLocation());
+    writeTreasure(out, d.getPlayerTreasure());
+    writeVarint(out, d.playerArrows());
+    writeVarint(out, d.getWrongMoves());
+    out.write((d.isPlayerEaten() ? 1 : 0) | (d.hasPlayerWon() ? 2 : 0));
+
+    for (int n = 0; n < rows * columns; n++) {
+      List<Treasure> treasure = d.locationTreasure(n);
+      int arrows = d.locationArrows(n);
+      Monster monster = d.locationMonster(n);
+      int flags = (d.isVisited(n) ? VISITED : 0) | (d.locationThief(n) ? THIEF : 0)
+              | (monster == null ? 0 : monster.getHealth() << HEALTH_SHIFT)
+              | (treasure.isEmpty() ? 0 : HAS_TREASURE) | (arrows == 0 ? 0 : HAS_ARROWS);
+      out.write(flags);
+      if (!treasure.isEmpty()) {
+        writeTreasure(out, treasure);
+      }
+      if (arrows != 0) {
+        writeVarint(out, arrows);
+      }
+    }
+  }
+
+  /**
+   * Reads a game written by {@link #write}. The stream is read up to the end
+   * of the game and not closed, so more can follow the game in the stream.
+   *
+   * @param in where the game is read from
+   * @return the game, in the state it was saved in
+   * @throws IOException if the stream cannot be read, ends early or does not
+   *                     hold a saved game of a known version
+   * @throws IllegalArgumentException if in is null
+   */
+  public static Dungeon read(InputStream in) throws IOException {
+    if (in == null) {
+      throw new IllegalArgumentException("Stream cannot be null");
+    }
+    if (readVarint(in) != MAGIC) {
+      throw new IOException("Not a saved dungeon");
+    }
+    int version = readVarint(in);
+    if (version != VERSION) {
+      throw new IOException("Unknown version of saved dungeon " + version);
+    }
+    try {
+      int rows = readVarint(in);
+      int columns = readVarint(in);
+      int interconnectivity = readVarint(in);
+      int percentTreasure = readVarint(in);
+      boolean isWrapping = readByte(in) != 0;
+      int difficulty = readVarint(in);
+      CellStorage storage = STORAGE[readByte(in)];
+      RandomGenerator rand = RandomSeedClass.fromState(readLong(in));
+      DungeonClass.checkSettings(rows, columns, interconnectivity, percentTreasure,
+              isWrapping, difficulty);
+
+      DungeonClass d = new DungeonClass(rows, columns, interconnectivity, percentTreasure,
+              isWrapping, difficulty, rand, storage, GridAlgorithm.KRUSKAL, false);
+      long noOfCodes = 2L * rows * columns;
+      long noOfEdges = readVarlong(in);
+      if (noOfEdges > noOfCodes) {
+        throw new IOException("Too many edges in saved dungeon");
+      }
+      long code = 0;
+      for (long i = 0; i < noOfEdges; i++) {
+        code += readVarlong(in);
+        if (code >= noOfCodes) {
+          throw new IOException("Edge is not in the dungeon");
+        }
+        d.restoreEdge((int) (code / 2), code % 2 == 0 ? Directions.EAST : Directions.SOUTH);
+      }
+      d.restoreLayout(readVarint(in), readVarint(in));
+
+      int location = readVarint(in);
+      List<Treasure> treasure = readTreasure(in);
+      int arrows = readVarint(in);
+      int wrongMoves = readVarint(in);
+      int over = readByte(in);
+      d.restorePlayer(location, treasure, arrows, wrongMoves, (over & 1) != 0,
+              (over & 2) != 0);
+
+      for (int n = 0; n < rows * columns; n++) {
+        int flags = readByte(in);
+        List<Treasure> cellTreasure = (flags & HAS_TREASURE) != 0
+                ? readTreasure(in) : new ArrayList<>();
+        int cellArrows = (flags & HAS_ARROWS) != 0 ? readVarint(in) : 0;
+        d.restoreCell(n, cellTreasure, cellArrows, (flags >> HEALTH_SHIFT) & 3,
+                (flags & THIEF) != 0, (flags & VISITED) != 0);
+      }
+      return d;
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new IOException("Saved dungeon is not valid: " + e.getMessage(), e);
+    }
+  }
+
+  private static void writeTreasure(OutputStream out, List<Treasure> treasure)
+          throws IOException {
+    writeVarint(out, treasure.size());
+    for (Treasure t : treasure) {
+      out.write(t.ordinal());
+    }
+  }
+
+  private static List<Treasure> readTreasure(InputStream in) throws IOException {
+    int size = readVarint(in);
+    List<Treasure> treasure = new ArrayList<>(Math.min(size, 64));
+    for (int i = 0; i < size; i++) {
+      treasure.add(TREASURE[readByte(in)]);
+    }
+    return treasure;
+  }
+
+  /**
+   * Writes a number which is not negative in as many bytes as it needs, 7 bits
+   * to a byte with the lowest bits first.
+   *
+   * @param out where the number is written
+   * @param value number to write
+   * @throws IOException if the stream cannot be written to
+   * @throws IllegalArgumentException if value is negative
+   */
+  static void writeVarint(OutputStream out, int value) throws IOException {
+    if (value < 0) {
+      throw new IllegalArgumentException("Value cannot be negative");
+    }
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  /**
+   * Reads a number written by {@link #writeVarint}.
+   *
+   * @param in where the number is read from
+   * @return the number
+   * @throws IOException if the stream cannot be read, ends early or the number
+   *                     does not fit in an int
+   */
+  static int readVarint(InputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = readByte(in);
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        if (value < 0) {
+          throw new IOException("Number is too large");
+        }
+        return value;
+      }
+    }
+    throw new IOException("Number is too large");
+  }
+
+  // writes a long which is not negative as writeVarint writes an int, so a long that fits
+  // in an int takes the same bytes
+  private static void writeVarlong(OutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarlong(InputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 63; shift += 7) {
+      int b = readByte(in);
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Number is too large");
+  }
+
+  private static void writeLong(OutputStream out, long value) throws IOException {
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      out.write((int) (value >>> shift));
+    }
+  }
+
+  private static long readLong(InputStream in) throws IOException {
+    long value = 0;
+    for (int i = 0; i < 8; i++) {
+      value = value << 8 | readByte(in);
+    }
+    return value;
+  }
+
+  private static int readByte(InputStream in) throws IOException {
+    int b = in.read();
+    if (b < 0) {
+      throw new EOFException("Saved dungeon ends early");
+    }
+    return b;
+  }
+}
@@ -0,0 +1,16 @@
+package dungeon.model;
+
+/**
+ * A change in the state of a dungeon game. The dungeon publishes an event every
+ * time a command changes the game, so views and controllers can update from what
+ * changed instead of reading the whole dungeon again. Events are immutable.
+ */
+public interface DungeonEvent {
+
+  /**
+   * The location of the dungeon the event happened in.
+   *
+   * @return cell identifier of the location
+   */
+  int getLocation();
+}
@@ -0,0 +1,81 @@
+package dungeon.model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * The events of a dungeon game are delivered to listeners through this bus.
+ * A listener subscribes to a type of event and receives every published event
+ * of that type, including subtypes, so subscribing to {@link DungeonEvent}
+ * receives everything. Listeners are called in the order they subscribed, on the
+ * thread that changed the dungeon, and may subscribe or unsubscribe while an event
+ * is being delivered.
+ */
+public final class DungeonEventBus {
+  private final List<Subscription<?>> subscriptions;
+
+  /**
+   * An empty bus is created with no listeners.
+   */
+  public DungeonEventBus() {
+    subscriptions = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Adds a listener for the events of a type.
+   *
+   * @param type type of the events to receive
+   * @param listener called with each event of the type
+   * @param <E> type of the events
+   * @throws IllegalArgumentException if type or listener is null
+   */
+  public <E extends DungeonEvent> void subscribe(Class<E> type, Consumer<? super E> listener) {
+    if (type == null || listener == null) {
+      throw new IllegalArgumentException("Type and listener cannot be null");
+    }
+    subscriptions.add(new Subscription<>(type, listener));
+  }
+
+  /**
+   * Removes a listener from every type of event it subscribed to.
+   * Nothing happens if the listener is not subscribed.
+   *
+   * @param listener listener to remove
+   */
+  public void unsubscribe(Consumer<?> listener) {
+    subscriptions.removeIf(s -> s.listener == listener);
+  }
+
+  /**
+   * Delivers an event to every listener subscribed to its type.
+   *
+   * @param event event to deliver
+   * @throws IllegalArgumentException if event is null
+   */
+  public void publish(DungeonEvent event) {
+    if (event == null) {
+      throw new IllegalArgumentException("Event cannot be null");
+    }
+    for (Subscription<?> s : subscriptions) {
+      s.deliver(event);
+    }
+  }
+
+  // a listener together with the type of events it receives
+  private static final class Subscription<E extends DungeonEvent> {
+    private final Class<E> type;
+    private final Consumer<? super E> listener;
+
+    private Subscription(Class<E> type, Consumer<? super E> listener) {
+      this.type = type;
+      this.listener = listener;
+    }
+
+    private void deliver(DungeonEvent event) {
+      if (type.isInstance(event)) {
+        listener.accept(type.cast(event));
+      }
+    }
+  }
+}
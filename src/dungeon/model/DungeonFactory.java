@@ -0,0 +1,141 @@
+package dungeon.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates dungeons in the background, ahead of when they are needed, so that a
+ * new game can start without waiting for its dungeon to be created. Dungeons are
+ * identified by a seed and always created with {@link RandomSeedClass} of that
+ * seed, so the dungeon of a seed is the same whichever thread creates it and
+ * whenever it is created. The factory creates dungeons for one set of settings
+ * at a time; changing the settings cancels the work for the old ones.
+ */
+public final class DungeonFactory implements AutoCloseable {
+  private final ExecutorService pool;
+  private final int capacity;
+  private final Map<Integer, CompletableFuture<Dungeon>> ready;
+  private DungeonSettings settings;
+
+  /**
+   * The factory is created with its own threads, which do not keep the program
+   * running when it ends.
+   *
+   * @param settings settings of the dungeons to create
+   * @param capacity most dungeons to keep created ahead
+   * @param threads number of threads creating dungeons
+   * @throws IllegalArgumentException if settings is null or capacity or threads
+   *                                  is less than 1
+   */
+  public DungeonFactory(DungeonSettings settings, int capacity, int threads) {
+    if (settings == null) {
+      throw new IllegalArgumentException("Settings cannot be null");
+    }
+    if (capacity < 1 || threads < 1) {
+      throw new IllegalArgumentException("Capacity and threads should be at least 1");
+    }
+    AtomicInteger count = new AtomicInteger();
+    this.pool = Executors.newFixedThreadPool(threads, r -> {
+      Thread t = new Thread(r, "dungeon-factory-" + count.incrementAndGet());
+      t.setDaemon(true);
+      t.setPriority(Thread.NORM_PRIORITY - 1);
+      return t;
+    });
+    this.capacity = capacity;
+    this.ready = new LinkedHashMap<>();
+    this.settings = settings;
+  }
+
+  /**
+   * The settings of the dungeons the factory creates.
+   *
+   * @return current settings
+   */
+  public synchronized DungeonSettings getSettings() {
+    return settings;
+  }
+
+  /**
+   * Changes the settings of the dungeons to create. If they are different from
+   * the current settings, the dungeons created or being created for the current
+   * settings are cancelled.
+   *
+   * @param settings new settings
+   * @throws IllegalArgumentException if settings is null
+   */
+  public synchronized void setSettings(DungeonSettings settings) {
+    if (settings == null) {
+      throw new IllegalArgumentException("Settings cannot be null");
+    }
+    if (!settings.equals(this.settings)) {
+      for (CompletableFuture<Dungeon> f : ready.values()) {
+        f.cancel(false);
+      }
+      ready.clear();
+      this.settings = settings;
+    }
+  }
+
+  /**
+   * Starts creating the dungeons of the seeds, unless they are already created
+   * or being created. If that would keep more dungeons than the capacity of the
+   * factory, the dungeons asked for the longest time ago are cancelled.
+   *
+   * @param seeds seeds of the dungeons that will be needed
+   * @throws IllegalArgumentException if a seed is negative
+   */
+  public synchronized void prefetch(int... seeds) {
+    for (int seed : seeds) {
+      if (seed < 0) {
+        throw new IllegalArgumentException("Seed cannot be negative");
+      }
+      CompletableFuture<Dungeon> f = ready.remove(seed);
+      ready.put(seed, f != null ? f : create(seed));
+    }
+    Iterator<CompletableFuture<Dungeon>> oldest = ready.values().iterator();
+    while (ready.size() > capacity) {
+      oldest.next().cancel(false);
+      oldest.remove();
+    }
+  }
+
+  /**
+   * Takes the dungeon of a seed, which is created now if it was not asked for
+   * ahead. A dungeon is only handed out once; asking for the same seed again
+   * gives a new copy of the same dungeon.
+   *
+   * @param seed seed of the dungeon
+   * @return the dungeon, once it is created; it completes exceptionally with
+   *         an {@link IllegalArgumentException} if the dungeon cannot be created
+   * @throws IllegalArgumentException if seed is negative
+   */
+  public synchronized CompletableFuture<Dungeon> take(int seed) {
+    if (seed < 0) {
+      throw new IllegalArgumentException("Seed cannot be negative");
+    }
+    CompletableFuture<Dungeon> f = ready.remove(seed);
+    return f != null ? f : create(seed);
+  }
+
+  private CompletableFuture<Dungeon> create(int seed) {
+    DungeonSettings s = settings;
+    return CompletableFuture.supplyAsync(() -> s.createDungeon(new RandomSeedClass(seed)), pool);
+  }
+
+  /**
+   * Cancels the dungeons not taken yet and stops the threads of the factory.
+   */
+  @Override
+  public synchronized void close() {
+    for (CompletableFuture<Dungeon> f : ready.values()) {
+      f.cancel(false);
+    }
+    ready.clear();
+    pool.shutdownNow();
+  }
+}
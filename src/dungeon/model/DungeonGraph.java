@@ -0,0 +1,38 @@
+package dungeon.model;
+
+/**
+ * This interface is a read-only view of the connections between the
+ * locations of a dungeon. Each location is identified by its cell value
+ * and its neighbours are the locations it has a direct path to. The graph
+ * does not change once the dungeon is created.
+ */
+public interface DungeonGraph {
+
+  /**
+   * The number of locations in the dungeon.
+   *
+   * @return number of locations
+   */
+  int size();
+
+  /**
+   * The number of locations directly connected to the location
+   * identified by the value n.
+   *
+   * @param n cell identifier
+   * @return number of neighbours of the location
+   * @throws IndexOutOfBoundsException if n is not a location of the dungeon
+   */
+  int degree(int n);
+
+  /**
+   * Gets the i-th neighbour of the location identified by the value n.
+   * Neighbours are numbered from 0 up to the degree of the location.
+   *
+   * @param n cell identifier
+   * @param i index of the neighbour
+   * @return cell identifier of the neighbour
+   * @throws IndexOutOfBoundsException if i is not between 0 and the degree of n
+   */
+  int neighbour(int n, int i);
+}
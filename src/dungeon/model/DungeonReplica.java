@@ -0,0 +1,283 @@
+package dungeon.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A read only copy of a dungeon for a thread other than the one playing the
+ * game, such as the thread drawing it. The thread that owns the dungeon captures
+ * its state after every change, and the reading thread applies the captured
+ * state and gets the events of the change from the replica, so it never reads
+ * the dungeon while it is being changed. The captured states are immutable and
+ * can be handed between threads freely.
+ */
+public final class DungeonReplica implements ReadOnlyDungeon {
+  private final ReadOnlyDungeon source;
+  private final List<Integer> settings;
+  private final List<List<Integer>> connectedEdges;
+  private final DungeonGraph graph;
+  private final DungeonEventBus events;
+  private State state;
+
+  /**
+   * The replica is created on the thread that owns the dungeon, with the
+   * current state of the dungeon.
+   *
+   * @param source the dungeon to copy
+   * @throws IllegalArgumentException if source is null
+   */
+  public DungeonReplica(ReadOnlyDungeon source) {
+    if (source == null) {
+      throw new IllegalArgumentException("Dungeon cannot be null");
+    }
+    this.source = source;
+    this.settings = Collections.unmodifiableList(source.getSettings());
+    this.connectedEdges = Collections.unmodifiableList(source.getConnectedEdges());
+    this.graph = source.getGraph();
+    this.events = new DungeonEventBus();
+    this.state = new State(source);
+  }
+
+  /**
+   * Captures the current state of the dungeon. It must be called on the thread
+   * that owns the dungeon; the update it returns must be run on the thread that
+   * reads the replica, where it applies the state and publishes the events.
+   *
+   * @param changes events of the dungeon since the last capture, in order
+   * @return the update to run on the reading thread
+   * @throws IllegalArgumentException if changes is null
+   */
+  public Runnable capture(List<? extends DungeonEvent> changes) {
+    if (changes == null) {
+      throw new IllegalArgumentException("Events cannot be null");
+    }
+    State captured = new State(source);
+    List<DungeonEvent> published = new ArrayList<>(changes);
+    return () -> {
+      state = captured;
+      for (DungeonEvent e : published) {
+        events.publish(e);
+      }
+    };
+  }
+
+  @Override
+  public List<Integer> getSettings() {
+    return new ArrayList<>(settings);
+  }
+
+  @Override
+  public List<List<Integer>> getConnectedEdges() {
+    return new ArrayList<>(connectedEdges);
+  }
+
+  @Override
+  public DungeonGraph getGraph() {
+    return graph;
+  }
+
+  @Override
+  public String displayLocationDescription() {
+    return state.locationDescription;
+  }
+
+  @Override
+  public String displayPlayerDescription() {
+    return state.playerDescription;
+  }
+
+  @Override
+  public List<String> locationPossibleMoves() {
+    return new ArrayList<>(state.possibleMoves);
+  }
+
+  @Override
+  public String isMonsterClose() {
+    return state.smell;
+  }
+
+  @Override
+  public int getStartLocation() {
+    return state.snapshot.getStartLocation();
+  }
+
+  @Override
+  public int getEndLocation() {
+    return state.snapshot.getEndLocation();
+  }
+
+  @Override
+  public int getCurrentLocation() {
+    return state.snapshot.getCurrentLocation();
+  }
+
+  @Override
+  public int getCurrentLocationX() {
+    return getCurrentLocation() / state.snapshot.getColumns();
+  }
+
+  @Override
+  public int getCurrentLocationY() {
+    return getCurrentLocation() % state.snapshot.getColumns();
+  }
+
+  @Override
+  public List<Cell> getCells() {
+    DungeonSnapshot snapshot = state.snapshot;
+    List<Cell> cells = new ArrayList<>();
+    for (int n = 0; n < snapshot.getRows() * snapshot.getColumns(); n++) {
+      CellSnapshot s = snapshot.getCell(n);
+      Cell c = new CellClass(s.getX(), s.getY(), s.getValue());
+      for (Directions d : Directions.values()) {
+        if ((s.getExitMask() & d.getMask()) != 0) {
+          c.addNeighbour(d);
+        }
+      }
+      for (Treasure t : treasure(s)) {
+        c.addTreasureToLocation(t);
+      }
+      for (int i = 0; i < s.getArrows(); i++) {
+        c.addArrowToLocation();
+      }
+      if (s.getMonsterHealth() > 0) {
+        c.addMonsterToLocation();
+        while (c.getMonster().getHealth() > s.getMonsterHealth()) {
+          c.getMonster().reduceHealth();
+        }
+      }
+      if (s.hasThief()) {
+        c.addThief();
+      }
+      cells.add(c);
+    }
+    return cells;
+  }
+
+  @Override
+  public DungeonSnapshot getSnapshot() {
+    return state.snapshot;
+  }
+
+  @Override
+  public <E extends DungeonEvent> void subscribe(Class<E> type, Consumer<? super E> listener) {
+    events.subscribe(type, listener);
+  }
+
+  @Override
+  public void unsubscribe(Consumer<?> listener) {
+    events.unsubscribe(listener);
+  }
+
+  @Override
+  public boolean gameOver() {
+    return state.snapshot.isGameOver();
+  }
+
+  @Override
+  public int[][] gameState() {
+    DungeonSnapshot snapshot = state.snapshot;
+    int[][] visited = new int[snapshot.getRows()][snapshot.getColumns()];
+    for (int n = 0; n < snapshot.getRows() * snapshot.getColumns(); n++) {
+      if (snapshot.getCell(n).isVisited()) {
+        visited[n / snapshot.getColumns()][n % snapshot.getColumns()] = 1;
+      }
+    }
+    return visited;
+  }
+
+  @Override
+  public List<Treasure> locationTreasure(int n) {
+    return treasure(state.snapshot.getCell(n));
+  }
+
+  @Override
+  public List<Directions> locationMoves(int n) {
+    int exits = state.snapshot.getCell(n).getExitMask();
+    List<Directions> moves = new ArrayList<>();
+    for (Directions d : Directions.values()) {
+      if ((exits & d.getMask()) != 0) {
+        moves.add(d);
+      }
+    }
+    return moves;
+  }
+
+  @Override
+  public int locationExitMask(int n) {
+    return state.snapshot.getCell(n).getExitMask();
+  }
+
+  @Override
+  public int locationArrows(int n) {
+    return state.snapshot.getCell(n).getArrows();
+  }
+
+  @Override
+  public Monster locationMonster(int n) {
+    int health = state.snapshot.getCell(n).getMonsterHealth();
+    if (health == 0) {
+      return null;
+    }
+    Monster m = new Otyugh();
+    while (m.getHealth() > health) {
+      m.reduceHealth();
+    }
+    return m;
+  }
+
+  @Override
+  public boolean locationThief(int n) {
+    return state.snapshot.getCell(n).hasThief();
+  }
+
+  @Override
+  public int playerArrows() {
+    return state.snapshot.getPlayerArrows();
+  }
+
+  @Override
+  public int playerRuby() {
+    return state.snapshot.getPlayerRuby();
+  }
+
+  @Override
+  public int playerSapphire() {
+    return state.snapshot.getPlayerSapphire();
+  }
+
+  @Override
+  public int playerDiamond() {
+    return state.snapshot.getPlayerDiamond();
+  }
+
+  // the treasure of a location, grouped by type
+  private static List<Treasure> treasure(CellSnapshot s) {
+    List<Treasure> treasure = new ArrayList<>();
+    for (Treasure t : Treasure.values()) {
+      treasure.addAll(Collections.nCopies(s.getTreasure(t), t));
+    }
+    return treasure;
+  }
+
+  /**
+   * The state of a dungeon at one point of the game which is not part of its
+   * snapshot, together with the snapshot.
+   */
+  private static final class State {
+    private final DungeonSnapshot snapshot;
+    private final String locationDescription;
+    private final String playerDescription;
+    private final String smell;
+    private final List<String> possibleMoves;
+
+    private State(ReadOnlyDungeon d) {
+      snapshot = d.getSnapshot();
+      locationDescription = d.displayLocationDescription();
+      playerDescription = d.displayPlayerDescription();
+      smell = d.isMonsterClose();
+      possibleMoves = Collections.unmodifiableList(new ArrayList<>(d.locationPossibleMoves()));
+    }
+  }
+}
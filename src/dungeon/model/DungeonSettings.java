@@ -0,0 +1,195 @@
+package dungeon.model;
+
+import java.util.Objects;
+
+/**
+ * The specifications a dungeon is created from. The same settings with the same
+ * random generator always create the same dungeon, so one settings value can be
+ * used to create any number of games.
+ */
+public final class DungeonSettings {
+  private final int rows;
+  private final int columns;
+  private final int interconnectivity;
+  private final int percentTreasure;
+  private final boolean isWrapping;
+  private final int difficulty;
+  private final CellStorage storage;
+  private final GridAlgorithm algorithm;
+
+  /**
+   * The settings are created from the same specifications as the dungeon
+   * and are checked the same way.
+   *
+   * @param rows              number of rows of the dungeon
+   * @param columns           number of columns of the dungeon
+   * @param interconnectivity interconnectivity which increases number of paths
+   * @param percentTreasure   percent of treasure in caves
+   * @param isWrapping        true if dungeon should be wrapping, false if non wrapping
+   * @param difficulty        defines the number of Otyughs to add to the dungeon
+   * @param storage           how the contents of the locations are stored
+   * @throws IllegalArgumentException if the rows or columns is less than 6
+   * @throws IllegalArgumentException if interconnectivity is high for rows and columns
+   *                                  defined or is less than 0
+   * @throws IllegalArgumentException if percent of treasure is <0 or >100
+   * @throws IllegalArgumentException if difficulty is not 1, 2 or 3
+   * @throws IllegalArgumentException if storage is null
+   */
+  public DungeonSettings(int rows, int columns, int interconnectivity, int percentTreasure,
+                         boolean isWrapping, int difficulty, CellStorage storage) {
+    this(rows, columns, interconnectivity, percentTreasure, isWrapping, difficulty, storage,
+            GridAlgorithm.KRUSKAL);
+  }
+
+  /**
+   * The settings are created as with the other constructor, with the algorithm
+   * which chooses the edges of the dungeons.
+   *
+   * @param rows              number of rows of the dungeon
+   * @param columns           number of columns of the dungeon
+   * @param interconnectivity interconnectivity which increases number of paths
+   * @param percentTreasure   percent of treasure in caves
+   * @param isWrapping        true if dungeon should be wrapping, false if non wrapping
+   * @param difficulty        defines the number of Otyughs to add to the dungeon
+   * @param storage           how the contents of the locations are stored
+   * @param algorithm         how the edges of the dungeon are chosen
+   * @throws IllegalArgumentException if the rows or columns is less than 6
+   * @throws IllegalArgumentException if interconnectivity is high for rows and columns
+   *                                  defined or is less than 0
+   * @throws IllegalArgumentException if percent of treasure is <0 or >100
+   * @throws IllegalArgumentException if difficulty is not 1, 2 or 3
+   * @throws IllegalArgumentException if storage or algorithm is null
+   */
+  public DungeonSettings(int rows, int columns, int interconnectivity, int percentTreasure,
+                         boolean isWrapping, int difficulty, CellStorage storage,
+                         GridAlgorithm algorithm) {
+    if (storage == null || algorithm == null) {
+      throw new IllegalArgumentException("Storage and algorithm cannot be null");
+    }
+    DungeonClass.checkSettings(rows, columns, interconnectivity, percentTreasure, isWrapping,
+            difficulty);
+    this.rows = rows;
+    this.columns = columns;
+    this.interconnectivity = interconnectivity;
+    this.percentTreasure = percentTreasure;
+    this.isWrapping = isWrapping;
+    this.difficulty = difficulty;
+    this.storage = storage;
+    this.algorithm = algorithm;
+  }
+
+  /**
+   * Creates a new dungeon with these settings.
+   *
+   * @param rand type of randomness the dungeon is using
+   * @return a new dungeon
+   * @throws IllegalArgumentException if rand is null
+   * @throws IllegalArgumentException if the dungeon created has no cave far enough
+   *                                  from the start to be the end
+   */
+  public Dungeon createDungeon(RandomGenerator rand) {
+    return new DungeonClass(rows, columns, interconnectivity, percentTreasure, isWrapping,
+            difficulty, rand, storage, algorithm);
+  }
+
+  /**
+   * Number of rows of the dungeon.
+   *
+   * @return number of rows
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Number of columns of the dungeon.
+   *
+   * @return number of columns
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Interconnectivity of the dungeon.
+   *
+   * @return number of extra paths
+   */
+  public int getInterconnectivity() {
+    return interconnectivity;
+  }
+
+  /**
+   * Percent of caves with treasure.
+   *
+   * @return percent of treasure
+   */
+  public int getPercentTreasure() {
+    return percentTreasure;
+  }
+
+  /**
+   * Whether the dungeon wraps around its edges.
+   *
+   * @return true if the dungeon is wrapping
+   */
+  public boolean isWrapping() {
+    return isWrapping;
+  }
+
+  /**
+   * Difficulty level of the dungeon.
+   *
+   * @return difficulty between 1 and 3
+   */
+  public int getDifficulty() {
+    return difficulty;
+  }
+
+  /**
+   * How the contents of the locations are stored.
+   *
+   * @return storage of the dungeon
+   */
+  public CellStorage getStorage() {
+    return storage;
+  }
+
+  /**
+   * How the edges of the dungeon are chosen.
+   *
+   * @return algorithm of the dungeon
+   */
+  public GridAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof DungeonSettings)) {
+      return false;
+    }
+    DungeonSettings other = (DungeonSettings) o;
+    return rows == other.rows && columns == other.columns
+            && interconnectivity == other.interconnectivity
+            && percentTreasure == other.percentTreasure && isWrapping == other.isWrapping
+            && difficulty == other.difficulty && storage == other.storage
+            && algorithm == other.algorithm;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(rows, columns, interconnectivity, percentTreasure, isWrapping,
+            difficulty, storage, algorithm);
+  }
+
+  @Override
+  public String toString() {
+    return rows + "x" + columns + " interconnectivity " + interconnectivity + " treasure "
+            + percentTreasure + "% " + (isWrapping ? "wrapping" : "non wrapping")
+            + " difficulty " + difficulty + " " + storage + " " + algorithm;
+  }
+}
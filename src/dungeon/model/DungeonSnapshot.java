@@ -0,0 +1,218 @@
+package dungeon.model;
+
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable view of the whole dungeon at one version of the game. Reading a
+ * snapshot never allocates, and a snapshot stays valid after the game moves on.
+ * Consecutive versions share the snapshots of every location that did not
+ * change between them, so taking a snapshot after each move is cheap.
+ */
+public final class DungeonSnapshot {
+  private final long version;
+  private final int rows;
+  private final int columns;
+  private final CellSnapshot[][] chunks;
+  private final SnapshotTable table;
+  private final int startLocation;
+  private final int endLocation;
+  private final int currentLocation;
+  private final int playerArrows;
+  private final int playerRuby;
+  private final int playerSapphire;
+  private final int playerDiamond;
+  private final boolean gameOver;
+
+  /**
+   * A snapshot is created by the dungeon from the chunks of its snapshot table
+   * and the state of the player.
+   *
+   * @param version         version of the game, increasing with every change
+   * @param rows            number of rows of the dungeon
+   * @param columns         number of columns of the dungeon
+   * @param chunks          location snapshots, empty where a chunk never changed
+   * @param table           table holding the pristine chunks
+   * @param startLocation   cell identifier of the start
+   * @param endLocation     cell identifier of the end
+   * @param currentLocation cell identifier of the player
+   * @param playerArrows    number of arrows of the player
+   * @param playerRuby      number of rubies of the player
+   * @param playerSapphire  number of sapphires of the player
+   * @param playerDiamond   number of diamonds of the player
+   * @param gameOver        true if the game is over
+   */
+  DungeonSnapshot(long version, int rows, int columns, CellSnapshot[][] chunks,
+                  SnapshotTable table, int startLocation, int endLocation, int currentLocation,
+                  int playerArrows, int playerRuby, int playerSapphire, int playerDiamond,
+                  boolean gameOver) {
+    if (chunks == null || table == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+    this.version = version;
+    this.rows = rows;
+    this.columns = columns;
+    this.chunks = chunks;
+    this.table = table;
+    this.startLocation = startLocation;
+    this.endLocation = endLocation;
+    this.currentLocation = currentLocation;
+    this.playerArrows = playerArrows;
+    this.playerRuby = playerRuby;
+    this.playerSapphire = playerSapphire;
+    this.playerDiamond = playerDiamond;
+    this.gameOver = gameOver;
+  }
+
+  /**
+   * The version of the game this snapshot was taken at. A later snapshot of
+   * the same dungeon has a higher version if anything changed in between.
+   *
+   * @return version of the snapshot
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Number of rows of the dungeon.
+   *
+   * @return number of rows
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Number of columns of the dungeon.
+   *
+   * @return number of columns
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Gets the snapshot of the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @return snapshot of the location
+   * @throws IndexOutOfBoundsException if n is not a location of the dungeon
+   */
+  public CellSnapshot getCell(int n) {
+    if (n < 0 || n >= rows * columns) {
+      throw new IndexOutOfBoundsException("No location " + n);
+    }
+    CellSnapshot[] chunk = chunks[n >>> SnapshotTable.CHUNK_BITS];
+    if (chunk == null) {
+      chunk = table.pristine(n >>> SnapshotTable.CHUNK_BITS);
+    }
+    return chunk[n & SnapshotTable.CHUNK_MASK];
+  }
+
+  /**
+   * Calls the action with every location whose snapshot differs from an older
+   * snapshot of the same dungeon. Only the chunks that were copied between the
+   * two versions are compared, so the cost depends on what changed rather than
+   * on the size of the dungeon. If the older snapshot is null or belongs to
+   * another dungeon, every location is reported.
+   *
+   * @param older earlier snapshot to compare with
+   * @param action called with the cell identifier of each changed location
+   * @throws IllegalArgumentException if action is null
+   */
+  public void forEachChangedCell(DungeonSnapshot older, IntConsumer action) {
+    if (action == null) {
+      throw new IllegalArgumentException("Action cannot be null");
+    }
+    if (older == null || older.table != table) {
+      for (int n = 0; n < rows * columns; n++) {
+        action.accept(n);
+      }
+      return;
+    }
+    for (int c = 0; c < chunks.length; c++) {
+      if (chunks[c] == older.chunks[c]) {
+        continue;
+      }
+      CellSnapshot[] now = chunks[c] != null ? chunks[c] : table.pristine(c);
+      CellSnapshot[] before = older.chunks[c] != null ? older.chunks[c] : table.pristine(c);
+      for (int i = 0; i < now.length; i++) {
+        if (now[i] != before[i]) {
+          action.accept((c << SnapshotTable.CHUNK_BITS) + i);
+        }
+      }
+    }
+  }
+
+  /**
+   * Cell identifier of the start location.
+   *
+   * @return start location
+   */
+  public int getStartLocation() {
+    return startLocation;
+  }
+
+  /**
+   * Cell identifier of the end location.
+   *
+   * @return end location
+   */
+  public int getEndLocation() {
+    return endLocation;
+  }
+
+  /**
+   * Cell identifier of the location of the player.
+   *
+   * @return current location
+   */
+  public int getCurrentLocation() {
+    return currentLocation;
+  }
+
+  /**
+   * Number of arrows the player has.
+   *
+   * @return number of arrows
+   */
+  public int getPlayerArrows() {
+    return playerArrows;
+  }
+
+  /**
+   * Number of rubies the player has.
+   *
+   * @return number of rubies
+   */
+  public int getPlayerRuby() {
+    return playerRuby;
+  }
+
+  /**
+   * Number of sapphires the player has.
+   *
+   * @return number of sapphires
+   */
+  public int getPlayerSapphire() {
+    return playerSapphire;
+  }
+
+  /**
+   * Number of diamonds the player has.
+   *
+   * @return number of diamonds
+   */
+  public int getPlayerDiamond() {
+    return playerDiamond;
+  }
+
+  /**
+   * Whether the game was over at this version.
+   *
+   * @return true if the player won or was eaten
+   */
+  public boolean isGameOver() {
+    return gameOver;
+  }
+}
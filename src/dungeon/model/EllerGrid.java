@@ -0,0 +1,31 @@
+package dungeon.model;
+
+/**
+ * Creation of a random dungeon one row at a time (Eller's algorithm), by the
+ * same {@link StreamingKruskal} that creates the dungeons kept in a file. Only
+ * the sets of one row are kept while the dungeon is created, so apart from the
+ * exits it returns, it needs memory for a few rows and not for every location,
+ * and it reads and writes the exits in order, which suits the cache.
+ */
+final class EllerGrid extends SpanningTreeGrid {
+
+  /**
+   * The grid creation is done using the values passed for wrapping condition
+   * and interconnectivity in dungeon.
+   *
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
+   * @param isWrapping condition if grid should be wrapping or not
+   * @param interconnectivity degree of connectivity
+   * @param r random instance
+   * @throws IllegalArgumentException if random instance is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   * @throws IllegalArgumentException if interconnectivity is negative
+   */
+  public EllerGrid(int rows, int columns, boolean isWrapping, int interconnectivity,
+                   RandomGenerator r) {
+    super(rows, columns, isWrapping, interconnectivity, r);
+    new StreamingKruskal(rows, columns, isWrapping, interconnectivity, r)
+            .connect(this);
+  }
+}
@@ -0,0 +1,62 @@
+package dungeon.model;
+
+/**
+ * The graph of a dungeon read from the exit masks of its cell store, so it
+ * takes no memory of its own. The neighbours of a location are the locations
+ * its exits lead to, in the order of {@link Directions}, wrapping around the
+ * edges of the grid.
+ */
+final class ExitMaskGraph implements DungeonGraph {
+  private static final Directions[] DIRECTIONS = Directions.values();
+
+  private final CellStore store;
+  private final int rows;
+  private final int columns;
+
+  /**
+   * The graph is created over the exits of a store, which are read on every
+   * lookup.
+   *
+   * @param store store holding the exits of the locations
+   * @param rows number of rows of the dungeon
+   * @throws IllegalArgumentException if store is null or rows does not match
+   *                                  the size of the store
+   */
+  public ExitMaskGraph(CellStore store, int rows) {
+    if (store == null) {
+      throw new IllegalArgumentException("Store cannot be null");
+    }
+    if (rows < 1 || (long) rows * store.getColumns() != store.size()) {
+      throw new IllegalArgumentException("Rows do not match the store");
+    }
+    this.store = store;
+    this.rows = rows;
+    this.columns = store.getColumns();
+  }
+
+  @Override
+  public int size() {
+    return store.size();
+  }
+
+  @Override
+  public int degree(int n) {
+    return Integer.bitCount(store.getExits(n));
+  }
+
+  @Override
+  public int neighbour(int n, int i) {
+    int exits = store.getExits(n);
+    int k = i;
+    if (k >= 0) {
+      for (Directions d : DIRECTIONS) {
+        if ((exits & d.getMask()) != 0 && k-- == 0) {
+          int x = (n / columns + d.getX() + rows) % rows;
+          int y = (n % columns + d.getY() + columns) % columns;
+          return x * columns + y;
+        }
+      }
+    }
+    throw new IndexOutOfBoundsException("Location " + n + " has no neighbour " + i);
+  }
+}
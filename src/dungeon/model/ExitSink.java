@@ -0,0 +1,28 @@
+package dungeon.model;
+
+/**
+ * This interface is package private to make it accessible only within package.
+ * Where a maze algorithm writes the exits it opens, one location at a time.
+ * Exits are a mask with one bit for each direction in the order of
+ * {@link Directions}; the exits already opened are read back so an edge is
+ * never connected twice.
+ */
+interface ExitSink {
+
+  /**
+   * Gets the exit mask of the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @return exit mask of the location
+   */
+  int getExits(int n);
+
+  /**
+   * Opens more exits of the location identified by the value n, keeping the
+   * exits it has.
+   *
+   * @param n cell identifier
+   * @param mask exits to open
+   */
+  void addExit(int n, int mask);
+}
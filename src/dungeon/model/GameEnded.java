@@ -0,0 +1,39 @@
+package dungeon.model;
+
+/**
+ * Published once when the game is over, after the move that ended it.
+ */
+public final class GameEnded implements DungeonEvent {
+  private final int location;
+  private final boolean won;
+
+  /**
+   * The event is created with the outcome of the game.
+   *
+   * @param location cell identifier of the location the game ended in
+   * @param won true if the player won, false if they were eaten
+   */
+  GameEnded(int location, boolean won) {
+    this.location = location;
+    this.won = won;
+  }
+
+  @Override
+  public int getLocation() {
+    return location;
+  }
+
+  /**
+   * Whether the player won the game.
+   *
+   * @return true if the player reached the end, false if they were eaten
+   */
+  public boolean isWon() {
+    return won;
+  }
+
+  @Override
+  public String toString() {
+    return "GameEnded at " + location + (won ? " won" : " lost");
+  }
+}
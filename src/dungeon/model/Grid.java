@@ -1,7 +1,5 @@
 package dungeon.model;
 
-import java.util.List;
-
 /**
  * This interface is package private to make it readable only.
  * The grid to be used for dungeon is passed here for connection
@@ -12,9 +10,10 @@ import java.util.List;
 interface Grid {
 
   /**
-   * List of connected cells in the grid after its creation.
+   * Connected edges of the grid packed as pairs of cell values. The edge k
+   * connects the cells at index 2k and 2k + 1 of the returned array.
    *
-   * @return list of connected cells
+   * @return packed cell values of the connected edges
    */
-  List<List<Cell>> getConnected();
+  int[] getConnectedValues();
 }
@@ -0,0 +1,103 @@
+package dungeon.model;
+
+/**
+ * The ways the edges of a dungeon can be chosen. Every algorithm connects the
+ * locations by a random spanning tree and adds the extra edges asked for by
+ * the interconnectivity; they differ in the shape of the tunnels, their speed
+ * and the memory they need while creating the dungeon. The same seed creates
+ * a different dungeon with each algorithm.
+ *
+ * <p>The algorithms are a closed set: a new one is added as a constant here,
+ * with its grid in this package, and is then chosen like the others.
+ */
+public enum GridAlgorithm {
+
+  /**
+   * Edges are visited in random order and connected if they join two parts not
+   * connected yet (Kruskal's algorithm).
+   */
+  KRUSKAL,
+
+  /**
+   * Edges are chosen one row at a time, keeping only the sets of the locations
+   * of one row (Eller's algorithm).
+   */
+  ELLER,
+
+  /**
+   * Loop-erased random walks are added to the tree until it spans the grid
+   * (Wilson's algorithm). Every spanning tree is equally likely.
+   */
+  WILSON,
+
+  /**
+   * A random walk connects each location the first time it enters it
+   * (Aldous-Broder algorithm). Every spanning tree is equally likely, but the
+   * walk is long on large dungeons.
+   */
+  ALDOUS_BRODER,
+
+  /**
+   * A depth first search moves to random unseen neighbours and backs up when
+   * there are none (recursive backtracker), giving long winding tunnels.
+   */
+  BACKTRACKER,
+
+  /**
+   * Kruskal's algorithm on bands of rows at the same time, on the threads of
+   * the common fork join pool, merging the edges the bands leave and the edges
+   * between them afterwards in weight order. The dungeon is the one Kruskal's
+   * algorithm makes on one thread, and does not depend on the number of threads.
+   */
+  PARALLEL_KRUSKAL;
+
+  /**
+   * Creates a random grid with this algorithm.
+   *
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
+   * @param isWrapping condition if grid should be wrapping or not
+   * @param interconnectivity degree of connectivity
+   * @param r random instance
+   * @return the grid, with its edges connected
+   * @throws IllegalArgumentException if random instance is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   * @throws IllegalArgumentException if interconnectivity is negative
+   */
+  Grid create(int rows, int columns, boolean isWrapping, int interconnectivity,
+              RandomGenerator r) {
+    switch (this) {
+      case ELLER:
+        return new EllerGrid(rows, columns, isWrapping, interconnectivity, r);
+      case WILSON:
+        return new WilsonGrid(rows, columns, isWrapping, interconnectivity, r);
+      case ALDOUS_BRODER:
+        return new AldousBroderGrid(rows, columns, isWrapping, interconnectivity, r);
+      case BACKTRACKER:
+        return new BacktrackerGrid(rows, columns, isWrapping, interconnectivity, r);
+      case PARALLEL_KRUSKAL:
+        return new ParallelKruskalGrid(rows, columns, isWrapping, interconnectivity, r);
+      default:
+        return new GridImpl(rows, columns, isWrapping, interconnectivity, r);
+    }
+  }
+
+  /**
+   * Creates the edges of a random grid with this algorithm, packed as pairs of
+   * cell values as {@link Grid#getConnectedValues()} returns them.
+   *
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
+   * @param isWrapping condition if grid should be wrapping or not
+   * @param interconnectivity degree of connectivity
+   * @param r random instance
+   * @return packed cell values of the connected edges
+   * @throws IllegalArgumentException if random instance is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   * @throws IllegalArgumentException if interconnectivity is negative
+   */
+  public int[] connect(int rows, int columns, boolean isWrapping, int interconnectivity,
+                       RandomGenerator r) {
+    return create(rows, columns, isWrapping, interconnectivity, r).getConnectedValues();
+  }
+}
@@ -1,10 +1,6 @@
 package dungeon.model;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 
 /**
  * Creation of a random dungeon is done here (based off Kruskal Algorithm).
@@ -13,14 +9,16 @@ import java.util.Set;
  */
 final class GridImpl implements Grid {
   private final RandomGenerator r;
-  private final Cell[][] grid;
   private final int noOfRows;
   private final int noOfColumns;
-  private final List<List<Cell>> edges;
+  private final int[] edges;
+  private final int noOfEdges;
   private final int[] root;
-  private final int[] rank;
-  private final List<List<Cell>> connectedEdges;
-  private final List<List<Cell>> leftoverEdges;
+  private final int[] size;
+  private final int[] connectedEdges;
+  private final int[] leftoverEdges;
+  private int noOfConnected;
+  private int noOfLeftover;
 
 
   /**
@@ -29,116 +27,123 @@ final class GridImpl implements Grid {
    * connected edges are then returned after following the algorithm
    * to create the connected grid.
    *
-   * @param grid the unconnected grid
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
    * @param isWrapping condition if grid should be wrapping or not
    * @param interconnectivity degree of connectivity
    * @param r random instance
-   * @throws IllegalArgumentException if grid is null value
+   * @throws IllegalArgumentException if random instance is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
    * @throws IllegalArgumentException if interconnectivity is negative
    */
-  public GridImpl(Cell[][] grid, boolean isWrapping, int interconnectivity, RandomGenerator r) {
-    if (grid == null || r == null) {
+  public GridImpl(int rows, int columns, boolean isWrapping, int interconnectivity,
+                  RandomGenerator r) {
+    if (r == null) {
       throw new IllegalArgumentException("Values cannot be null");
     }
+    if (rows < 1 || columns < 1) {
+      throw new IllegalArgumentException("Rows and columns should be positive");
+    }
     if (interconnectivity < 0) {
       throw new IllegalArgumentException("Interconnectivity cannot be negative");
     }
     this.r = r;
-    this.grid = grid;
-    noOfRows = (grid.length);
-    noOfColumns = (grid[0].length);
-    int size = (noOfRows - 1) * noOfColumns + (noOfColumns - 1) * noOfRows;
-    root = new int[size];
-    rank = new int[size];
-    edges = new ArrayList<>();
-    for (int i = 0; i < size; i++) {
+    noOfRows = rows;
+    noOfColumns = columns;
+    int noOfCells = noOfRows * noOfColumns;
+    root = new int[noOfCells];
+    size = new int[noOfCells];
+    noOfEdges = (noOfRows - 1) * noOfColumns + (noOfColumns - 1) * noOfRows
+            + (isWrapping ? noOfRows + noOfColumns : 0);
+    edges = new int[2 * noOfEdges];
+    for (int i = 0; i < noOfCells; i++) {
       root[i] = i;
-      rank[i] = 1;
+      size[i] = 1;
     }
-    connectedEdges = new ArrayList<>();
-    leftoverEdges = new ArrayList<>();
+    connectedEdges = new int[2 * (noOfCells - 1 + interconnectivity)];
+    leftoverEdges = new int[2 * interconnectivity];
     createEdges(isWrapping);
-    union();
+    union(interconnectivity);
     unionLeftover(interconnectivity);
-    addNeighbourToCell();
   }
 
 
-  // creates all the possible edges of a grid
+  // creates all the possible edges of a grid, each edge exactly once. An edge is stored
+  // as the pair of cell values at edges[2k] and edges[2k + 1]
   private void createEdges(boolean isWrapping) {
-    List<Cell> visited = new ArrayList<>();
+    int k = 0;
     for (int i = 0; i < noOfRows; i++) {
       for (int j = 0; j < noOfColumns; j++) {
-        visited.add(grid[i][j]);
-        if (getGridCell(i + 1, j) != null && !visited.contains(grid[i + 1][j])) {
-          edges.add(Arrays.asList(grid[i][j], grid[i + 1][j]));
-        }
-        if (getGridCell(i - 1, j) != null && !visited.contains(grid[i - 1][j])) {
-          edges.add(Arrays.asList(grid[i][j], grid[i - 1][j]));
-        }
-        if (getGridCell(i, j + 1) != null && !visited.contains(grid[i][j + 1])) {
-          edges.add(Arrays.asList(grid[i][j], grid[i][j + 1]));
+        int value = i * noOfColumns + j;
+        if (i + 1 < noOfRows) {
+          edges[k++] = value;
+          edges[k++] = value + noOfColumns;
         }
-        if (getGridCell(i, j - 1) != null && !visited.contains(grid[i][j - 1])) {
-          edges.add(Arrays.asList(grid[i][j], grid[i][j - 1]));
+        if (j + 1 < noOfColumns) {
+          edges[k++] = value;
+          edges[k++] = value + 1;
         }
       }
     }
     if (isWrapping) {
       for (int j = 0; j < noOfColumns; j++) {
-        edges.add(Arrays.asList(grid[noOfRows - 1][j], grid[0][j]));
+        edges[k++] = (noOfRows - 1) * noOfColumns + j;
+        edges[k++] = j;
       }
       for (int i = 0; i < noOfRows; i++) {
-        edges.add(Arrays.asList(grid[i][noOfColumns - 1], grid[i][0]));
+        edges[k++] = i * noOfColumns + noOfColumns - 1;
+        edges[k++] = i * noOfColumns;
       }
     }
   }
 
-  // checks if the cell is within the grid
-  private Cell getGridCell(int x, int y) {
-    try {
-      return grid[x][y];
-    } catch (ArrayIndexOutOfBoundsException e) {
-      return null;
-    }
-  }
-
-  // locates the cell in the grid
+  // locates the root of the cell, halving the path on the way up
   private int find(int x) {
-    if (x == root[x]) {
-      return x;
+    while (root[x] != x) {
+      root[x] = root[root[x]];
+      x = root[x];
     }
-    return root[x] = find(root[x]);
+    return x;
   }
 
+  // swaps the edges at index i and j of the edge array
+  private void swapEdges(int i, int j) {
+    int from = edges[2 * i];
+    int to = edges[2 * i + 1];
+    edges[2 * i] = edges[2 * j];
+    edges[2 * i + 1] = edges[2 * j + 1];
+    edges[2 * j] = from;
+    edges[2 * j + 1] = to;
+  }
 
-  // connection of edges
-  private void union() {
-    int ctr = 0;
-    Set<Integer> s = new HashSet<>();
-    while (ctr < edges.size()) {
-      int k = r.nextInt(edges.size());
-      if (!s.contains(k)) {
-        s.add(k);
-        int x = edges.get(k).get(0).getValue();
-        int y = edges.get(k).get(1).getValue();
+  // connection of edges, visiting them in a Fisher-Yates shuffled order. The shuffle
+  // is done one step ahead of the visit so it stops once the spanning tree is complete
+  // and enough leftover edges are collected for the interconnectivity
+  private void union(int interconnectivity) {
+    int treeEdges = noOfRows * noOfColumns - 1;
+    for (int k = 0; k < noOfEdges
+            && (noOfConnected < treeEdges || noOfLeftover < interconnectivity); k++) {
+      swapEdges(k, k + r.nextInt(noOfEdges - k));
+      int x = edges[2 * k];
+      int y = edges[2 * k + 1];
 
-        int rootX = find(x);
-        int rootY = find(y);
-        if (rootX != rootY) {
-          connectedEdges.add(Arrays.asList(edges.get(k).get(0), edges.get(k).get(1)));
-          if (rank[rootX] > rank[rootY]) {
-            root[rootY] = rootX;
-          } else if (rank[rootX] < rank[rootY]) {
-            root[rootX] = rootY;
-          } else {
-            root[rootY] = rootX;
-            rank[rootX] += 1;
-          }
+      int rootX = find(x);
+      int rootY = find(y);
+      if (rootX != rootY) {
+        connectedEdges[2 * noOfConnected] = x;
+        connectedEdges[2 * noOfConnected + 1] = y;
+        noOfConnected++;
+        if (size[rootX] < size[rootY]) {
+          root[rootX] = rootY;
+          size[rootY] += size[rootX];
         } else {
-          leftoverEdges.add(Arrays.asList(edges.get(k).get(0), edges.get(k).get(1)));
+          root[rootY] = rootX;
+          size[rootX] += size[rootY];
         }
-        ctr++;
+      } else if (noOfLeftover < interconnectivity) {
+        leftoverEdges[2 * noOfLeftover] = x;
+        leftoverEdges[2 * noOfLeftover + 1] = y;
+        noOfLeftover++;
       }
     }
   }
@@ -147,26 +152,14 @@ final class GridImpl implements Grid {
   // connection of leftover edges
   private void unionLeftover(int interconnectivity) {
     for (int i = 0; i < interconnectivity; i++) {
-      connectedEdges.add(leftoverEdges.get(i));
-    }
-  }
-
-  // once edges are connected, the corresponding neighbours are added to the cell
-  private void addNeighbourToCell() {
-    for (List<Cell> c : connectedEdges) {
-      if ((c.get(0).getY() + 1) % noOfColumns == c.get(1).getY()) {
-        c.get(0).addNeighbour(Directions.EAST);
-        c.get(1).addNeighbour(Directions.WEST);
-      }
-      else if ((c.get(0).getX() + 1) % noOfRows == c.get(1).getX()) {
-        c.get(0).addNeighbour(Directions.SOUTH);
-        c.get(1).addNeighbour(Directions.NORTH);
-      }
+      connectedEdges[2 * noOfConnected] = leftoverEdges[2 * i];
+      connectedEdges[2 * noOfConnected + 1] = leftoverEdges[2 * i + 1];
+      noOfConnected++;
     }
   }
 
   @Override
-  public List<List<Cell>> getConnected() {
-    return new ArrayList<>(connectedEdges);
+  public int[] getConnectedValues() {
+    return Arrays.copyOf(connectedEdges, 2 * noOfConnected);
   }
 }
@@ -0,0 +1,61 @@
+package dungeon.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Published when the player picks up treasure or an arrow from their location.
+ */
+public final class ItemPicked implements DungeonEvent {
+  private final int location;
+  private final List<Treasure> treasure;
+  private final int arrows;
+
+  /**
+   * The event is created with the items that were picked up.
+   *
+   * @param location cell identifier of the location the items were picked from
+   * @param treasure treasure picked up, empty if an arrow was picked up
+   * @param arrows number of arrows picked up
+   * @throws IllegalArgumentException if treasure is null or arrows is negative
+   */
+  ItemPicked(int location, List<Treasure> treasure, int arrows) {
+    if (treasure == null) {
+      throw new IllegalArgumentException("Treasure cannot be null");
+    }
+    if (arrows < 0) {
+      throw new IllegalArgumentException("Arrows cannot be negative");
+    }
+    this.location = location;
+    this.treasure = Collections.unmodifiableList(treasure);
+    this.arrows = arrows;
+  }
+
+  @Override
+  public int getLocation() {
+    return location;
+  }
+
+  /**
+   * The treasure the player picked up.
+   *
+   * @return unmodifiable list of treasure
+   */
+  public List<Treasure> getTreasure() {
+    return treasure;
+  }
+
+  /**
+   * The number of arrows the player picked up.
+   *
+   * @return number of arrows
+   */
+  public int getArrows() {
+    return arrows;
+  }
+
+  @Override
+  public String toString() {
+    return "ItemPicked " + treasure + " and " + arrows + " arrows at " + location;
+  }
+}
@@ -0,0 +1,254 @@
+package dungeon.model;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Rebuilds the games written by a {@link CommandJournal}, as they were after
+ * any command of the journal. The journal is read once when it is opened to
+ * find its saved games. A game is then rebuilt from the last saved game before
+ * the command, playing the commands after it on the model alone, so it takes
+ * as long as the number of commands since that saved game. Every command must
+ * have the same outcome as when it was written, or the journal does not belong
+ * to the game. A record cut short at the end of the journal, as when the game
+ * stopped while writing it, is left out.
+ */
+public final class JournalReplay implements AutoCloseable {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final Directions[] DIRECTIONS = Directions.values();
+
+  private final FileChannel channel;
+  private int[] snapshotCommands;
+  private long[] snapshotOffsets;
+  private int noOfSnapshots;
+  private int commands;
+
+  /**
+   * The replay is opened on a journal file.
+   *
+   * @param journal path of the journal
+   * @throws IOException if the file cannot be read or is not a journal
+   * @throws IllegalArgumentException if journal is null
+   */
+  public JournalReplay(Path journal) throws IOException {
+    if (journal == null) {
+      throw new IllegalArgumentException("Journal cannot be null");
+    }
+    channel = FileChannel.open(journal, StandardOpenOption.READ);
+    snapshotCommands = new int[16];
+    snapshotOffsets = new long[16];
+    try {
+      index();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  // reads the journal through, counting the commands and noting where the saved games are
+  private void index() throws IOException {
+    CountingInputStream in = new CountingInputStream(new BufferedInputStream(
+            Channels.newInputStream(channel.position(0)), BUFFER_SIZE));
+    if (DungeonCodec.readVarint(in) != CommandJournal.MAGIC) {
+      throw new IOException("Not a journal of a dungeon");
+    }
+    int version = DungeonCodec.readVarint(in);
+    if (version != CommandJournal.VERSION) {
+      throw new IOException("Unknown version of journal " + version);
+    }
+    try {
+      int record;
+      while ((record = in.read()) >= 0) {
+        int command = record & CommandJournal.COMMAND_MASK;
+        if (command == CommandJournal.SNAPSHOT) {
+          int at = DungeonCodec.readVarint(in);
+          int length = DungeonCodec.readVarint(in);
+          if (at != commands) {
+            throw new IOException("Saved game at command " + at + " is out of place");
+          }
+          long offset = in.getCount();
+          skip(in, length);
+          addSnapshot(at, offset);
+        }
+        else if (command <= CommandJournal.SHOOT) {
+          if (command == CommandJournal.SHOOT) {
+            readByte(in);
+          }
+          commands++;
+        }
+        else {
+          throw new IOException("Unknown record in journal");
+        }
+      }
+    } catch (EOFException e) {
+      // the last record was cut short and is left out
+    }
+    if (noOfSnapshots == 0 || snapshotCommands[0] != 0) {
+      throw new IOException("Journal does not start with a saved game");
+    }
+  }
+
+  private void addSnapshot(int at, long offset) {
+    if (noOfSnapshots == snapshotCommands.length) {
+      snapshotCommands = Arrays.copyOf(snapshotCommands, 2 * noOfSnapshots);
+      snapshotOffsets = Arrays.copyOf(snapshotOffsets, 2 * noOfSnapshots);
+    }
+    snapshotCommands[noOfSnapshots] = at;
+    snapshotOffsets[noOfSnapshots] = offset;
+    noOfSnapshots++;
+  }
+
+  /**
+   * The number of commands in the journal.
+   *
+   * @return number of commands
+   */
+  public int getCommands() {
+    return commands;
+  }
+
+  /**
+   * Rebuilds the game as it was after a number of commands. Each call returns
+   * a new game, which can be played on.
+   *
+   * @param n number of commands played, 0 for the game before any command
+   * @return the game after n commands
+   * @throws IOException if the journal cannot be read or does not match the game
+   * @throws IllegalArgumentException if n is negative or more than the number
+   *                                  of commands
+   */
+  public synchronized Dungeon seek(int n) throws IOException {
+    if (n < 0 || n > commands) {
+      throw new IllegalArgumentException("Journal has no command " + n);
+    }
+    int s = Arrays.binarySearch(snapshotCommands, 0, noOfSnapshots, n);
+    if (s < 0) {
+      s = -s - 2;
+    }
+    InputStream in = new BufferedInputStream(
+            Channels.newInputStream(channel.position(snapshotOffsets[s])), BUFFER_SIZE);
+    Dungeon dungeon = DungeonCodec.read(in);
+    CommandJournal.Outcome outcome = new CommandJournal.Outcome(dungeon);
+    for (int k = snapshotCommands[s]; k < n; ) {
+      int record = readByte(in);
+      int command = record & CommandJournal.COMMAND_MASK;
+      if (command == CommandJournal.SNAPSHOT) {
+        DungeonCodec.readVarint(in);
+        skip(in, DungeonCodec.readVarint(in));
+        continue;
+      }
+      Directions d = DIRECTIONS[(record >>> CommandJournal.DIRECTION_SHIFT) & 3];
+      int distance = command == CommandJournal.SHOOT ? readByte(in) : 0;
+      if (play(dungeon, outcome, command, d, distance)
+              != record >>> CommandJournal.OUTCOME_SHIFT) {
+        throw new IOException("Journal does not match the game at command " + (k + 1));
+      }
+      k++;
+    }
+    outcome.detach();
+    return dungeon;
+  }
+
+  // plays a command of the journal on the dungeon and finds its outcome
+  private static int play(Dungeon dungeon, CommandJournal.Outcome outcome, int command,
+                          Directions d, int distance) {
+    outcome.reset();
+    try {
+      switch (command) {
+        case CommandJournal.MOVE:
+          dungeon.movePlayer(d.name());
+          break;
+        case CommandJournal.PICK_TREASURE:
+          dungeon.pickUpTreasure();
+          break;
+        case CommandJournal.PICK_ARROW:
+          dungeon.pickUpArrow();
+          break;
+        default:
+          dungeon.shootArrow(d.name(), distance);
+          break;
+      }
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return outcome.rejected();
+    }
+    return outcome.get();
+  }
+
+  private static int readByte(InputStream in) throws IOException {
+    int b = in.read();
+    if (b < 0) {
+      throw new EOFException("Journal ends early");
+    }
+    return b;
+  }
+
+  private static void skip(InputStream in, long length) throws IOException {
+    while (length > 0) {
+      long skipped = in.skip(length);
+      if (skipped <= 0) {
+        readByte(in);
+        skipped = 1;
+      }
+      length -= skipped;
+    }
+  }
+
+  /**
+   * Closes the journal file.
+   *
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * A stream which counts the bytes read and skipped, to know where the
+   * records of the journal are.
+   */
+  private static final class CountingInputStream extends FilterInputStream {
+    private long count;
+
+    private CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    private long getCount() {
+      return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
+}
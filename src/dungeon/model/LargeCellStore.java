@@ -0,0 +1,26 @@
+package dungeon.model;
+
+/**
+ * This interface is package private to make it accessible only within package.
+ * A cell store for dungeons too large to keep anything for each location on
+ * the heap. Besides the contents of the locations, it keeps which locations
+ * the player has visited.
+ */
+interface LargeCellStore extends CellStore {
+
+  /**
+   * Checks if the player has been to the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @return true if the location was visited
+   */
+  boolean isVisited(int n);
+
+  /**
+   * Marks whether the player has been to the location identified by the value n.
+   *
+   * @param n cell identifier
+   * @param visited true if the location was visited
+   */
+  void setVisited(int n, boolean visited);
+}
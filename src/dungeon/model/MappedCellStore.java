@@ -0,0 +1,167 @@
+package dungeon.model;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A cell store kept in a memory-mapped file instead of on the heap, so a
+ * dungeon can have more locations than the heap could hold. Each location is
+ * a record of 6 bytes: one with the exits, the thief, whether the location
+ * was visited and the Otyugh health, one for each type of treasure and two
+ * for the arrows. The file is mapped in regions, as a single mapping cannot
+ * be larger than 2 GB. The operating system pages the records in and out, so
+ * only the locations in use take memory.
+ *
+ * <p>The file is created in the temporary directory and deleted once it is no
+ * longer mapped. It lives as long as the store; a mapping cannot be released
+ * before the store is garbage collected.
+ */
+final class MappedCellStore implements LargeCellStore {
+  private static final int RECORD = 6;
+  private static final int REGION_BITS = 27;
+  private static final int REGION_MASK = (1 << REGION_BITS) - 1;
+
+  private static final int EXITS = 0xF;
+  private static final int THIEF = 1 << 4;
+  private static final int VISITED = 1 << 5;
+  private static final int HEALTH_SHIFT = 6;
+  private static final int ARROWS = 4;
+
+  private final int size;
+  private final int columns;
+  private final MappedByteBuffer[] regions;
+
+  /**
+   * The store is created with empty locations and no exits.
+   *
+   * @param rows number of rows of the dungeon
+   * @param columns number of columns of the dungeon
+   * @throws IllegalArgumentException if rows or columns is less than 1 or the
+   *                                  dungeon has more locations than an int
+   * @throws IllegalStateException if the file cannot be created or mapped
+   */
+  public MappedCellStore(int rows, int columns) {
+    if (rows < 1 || columns < 1) {
+      throw new IllegalArgumentException("Rows and columns should be positive");
+    }
+    if ((long) rows * columns > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Dungeon cannot have more than "
+              + Integer.MAX_VALUE + " locations");
+    }
+    this.size = rows * columns;
+    this.columns = columns;
+    this.regions = new MappedByteBuffer[(size + REGION_MASK) >>> REGION_BITS];
+    try {
+      Path file = Files.createTempFile("dungeon", ".cells");
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+              StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+        for (int i = 0; i < regions.length; i++) {
+          long first = (long) i << REGION_BITS;
+          long cells = Math.min(size - first, 1L << REGION_BITS);
+          regions[i] = channel.map(FileChannel.MapMode.READ_WRITE, first * RECORD,
+                  cells * RECORD);
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot map the dungeon file: " + e.getMessage());
+    }
+  }
+
+  // the region holding the record of the location
+  private MappedByteBuffer region(int n) {
+    return regions[n >>> REGION_BITS];
+  }
+
+  // the position of the record of the location in its region
+  private static int offset(int n) {
+    return (n & REGION_MASK) * RECORD;
+  }
+
+  private int getFlags(int n) {
+    return region(n).get(offset(n)) & 0xFF;
+  }
+
+  private void setFlags(int n, int mask, int flags) {
+    region(n).put(offset(n), (byte) ((getFlags(n) & ~mask) | (flags & mask)));
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int getColumns() {
+    return columns;
+  }
+
+  @Override
+  public int getExits(int n) {
+    return getFlags(n) & EXITS;
+  }
+
+  @Override
+  public void setExits(int n, int exits) {
+    setFlags(n, EXITS, exits);
+  }
+
+  @Override
+  public int getTreasure(int n, Treasure t) {
+    return region(n).get(offset(n) + 1 + t.ordinal()) & 0xFF;
+  }
+
+  @Override
+  public void setTreasure(int n, Treasure t, int count) {
+    if (count < 0 || count > 0xFF) {
+      throw new IllegalStateException("Location cannot hold " + count + " " + t);
+    }
+    region(n).put(offset(n) + 1 + t.ordinal(), (byte) count);
+  }
+
+  @Override
+  public int getArrows(int n) {
+    return region(n).getShort(offset(n) + ARROWS) & 0xFFFF;
+  }
+
+  @Override
+  public void setArrows(int n, int count) {
+    if (count < 0 || count > 0xFFFF) {
+      throw new IllegalStateException("Location cannot hold " + count + " arrows");
+    }
+    region(n).putShort(offset(n) + ARROWS, (short) count);
+  }
+
+  @Override
+  public int getMonsterHealth(int n) {
+    return getFlags(n) >>> HEALTH_SHIFT;
+  }
+
+  @Override
+  public void setMonsterHealth(int n, int health) {
+    setFlags(n, 3 << HEALTH_SHIFT, health << HEALTH_SHIFT);
+  }
+
+  @Override
+  public boolean getThief(int n) {
+    return (getFlags(n) & THIEF) != 0;
+  }
+
+  @Override
+  public void setThief(int n, boolean thief) {
+    setFlags(n, THIEF, thief ? THIEF : 0);
+  }
+
+  @Override
+  public boolean isVisited(int n) {
+    return (getFlags(n) & VISITED) != 0;
+  }
+
+  @Override
+  public void setVisited(int n, boolean visited) {
+    setFlags(n, VISITED, visited ? VISITED : 0);
+  }
+}
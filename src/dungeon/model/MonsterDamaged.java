@@ -0,0 +1,52 @@
+package dungeon.model;
+
+/**
+ * Published when an arrow hits an Otyugh.
+ */
+public final class MonsterDamaged implements DungeonEvent {
+  private final int location;
+  private final int health;
+
+  /**
+   * The event is created with the health the Otyugh has left.
+   *
+   * @param location cell identifier of the Otyugh's cave
+   * @param health health left, 0 if the Otyugh was killed
+   * @throws IllegalArgumentException if health is negative
+   */
+  MonsterDamaged(int location, int health) {
+    if (health < 0) {
+      throw new IllegalArgumentException("Health cannot be negative");
+    }
+    this.location = location;
+    this.health = health;
+  }
+
+  @Override
+  public int getLocation() {
+    return location;
+  }
+
+  /**
+   * The health the Otyugh has left.
+   *
+   * @return health of the Otyugh
+   */
+  public int getHealth() {
+    return health;
+  }
+
+  /**
+   * Whether the hit killed the Otyugh.
+   *
+   * @return true if the Otyugh is dead
+   */
+  public boolean isKilled() {
+    return health == 0;
+  }
+
+  @Override
+  public String toString() {
+    return "MonsterDamaged at " + location + " health " + health;
+  }
+}
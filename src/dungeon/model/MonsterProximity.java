@@ -0,0 +1,108 @@
+package dungeon.model;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Index of how many Otyughs are within smelling distance of each location.
+ * For every location the number of live Otyughs at distance 0, 1 and 2 is
+ * kept, and only the neighbourhood of a cave is updated when an Otyugh is
+ * added to or removed from it. Looking up the smell is then an array read.
+ * For dungeons too large to index, the counts are found instead by searching
+ * the neighbourhood of the location when they are looked up.
+ */
+final class MonsterProximity {
+  static final int RANGE = 2;
+
+  private final DistanceSearch search;
+  private final byte[] counts;
+  private final IntPredicate monster;
+
+  /**
+   * The index starts with no Otyughs in the dungeon.
+   *
+   * @param search distance search over the graph of the dungeon
+   * @param size number of locations in the dungeon
+   * @throws IllegalArgumentException if search is null or size is negative
+   */
+  public MonsterProximity(DistanceSearch search, int size) {
+    if (search == null) {
+      throw new IllegalArgumentException("Search cannot be null");
+    }
+    if (size < 0) {
+      throw new IllegalArgumentException("Size cannot be negative");
+    }
+    this.search = search;
+    counts = new byte[size * (RANGE + 1)];
+    monster = null;
+  }
+
+  /**
+   * The index keeps no counts, and counts the Otyughs around a location each
+   * time it is looked up.
+   *
+   * @param search distance search over the graph of the dungeon
+   * @param monster tells if there is a live Otyugh in the location with the given value
+   * @throws IllegalArgumentException if search or monster is null
+   */
+  public MonsterProximity(DistanceSearch search, IntPredicate monster) {
+    if (search == null || monster == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+    this.search = search;
+    this.counts = null;
+    this.monster = monster;
+  }
+
+  /**
+   * Records an Otyugh added to the location n.
+   *
+   * @param n cell identifier of the cave
+   */
+  public void add(int n) {
+    update(n, 1);
+  }
+
+  /**
+   * Records an Otyugh removed from the location n.
+   *
+   * @param n cell identifier of the cave
+   */
+  public void remove(int n) {
+    update(n, -1);
+  }
+
+  private void update(int n, int delta) {
+    if (counts == null) {
+      return;
+    }
+    int reached = search.search(n, RANGE);
+    for (int i = 0; i < reached; i++) {
+      counts[search.node(i) * (RANGE + 1) + search.distance(i)] += delta;
+    }
+  }
+
+  /**
+   * Gets the number of live Otyughs at exactly the given distance from location n.
+   *
+   * @param n cell identifier
+   * @param distance number of hops between 0 and 2
+   * @return number of Otyughs at that distance
+   * @throws IllegalArgumentException if distance is not between 0 and 2
+   */
+  public int count(int n, int distance) {
+    if (distance < 0 || distance > RANGE) {
+      throw new IllegalArgumentException("Distance to be between 0 and " + RANGE);
+    }
+    if (counts != null) {
+      return counts[n * (RANGE + 1) + distance];
+    }
+    int count = 0;
+    int reached = search.search(n, distance);
+    for (int i = 0; i < reached; i++) {
+      if (search.distance(i) == distance && monster.test(search.node(i))) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
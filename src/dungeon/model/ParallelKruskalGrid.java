@@ -0,0 +1,284 @@
+package dungeon.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Creation of a random dungeon by Kruskal's algorithm on the threads of a fork
+ * join pool. Every edge gets a random weight, and the spanning tree is the one
+ * Kruskal's algorithm makes by taking the edges in weight order, whatever the
+ * number of threads. The grid is cut into bands of rows, and each band is
+ * worked on at the same time as the others. An edge of a band lighter than
+ * every edge between the band and the next ones is connected right away, as
+ * no path through another band can be lighter. Of the heavier edges of the
+ * band, those which close a loop in the band are dropped, and the others are
+ * left for a merge, with the edges between the bands, which takes them in
+ * weight order into one tree. Each band takes the weights of its edges from
+ * the stream of a {@link CounterRandomClass} keyed by the seed and numbered by
+ * the band, so the dungeon is the same for a seed on any pool.
+ *
+ * <p>A band starts at an even location, so the exits written by two threads
+ * never share a byte.
+ */
+final class ParallelKruskalGrid extends SpanningTreeGrid {
+  private static final int BAND_ROWS = 64;
+  private static final int WEIGHTS = 1 << 30;
+  private static final long NONE = Long.MAX_VALUE;
+
+  private final long seed;
+  private final int noOfBands;
+  private final int noOfBoundaries;
+
+  /**
+   * The grid creation is done using the values passed for wrapping condition
+   * and interconnectivity in dungeon, on the common fork join pool.
+   *
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
+   * @param isWrapping condition if grid should be wrapping or not
+   * @param interconnectivity degree of connectivity
+   * @param r random instance
+   * @throws IllegalArgumentException if random instance is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   * @throws IllegalArgumentException if interconnectivity is negative
+   */
+  public ParallelKruskalGrid(int rows, int columns, boolean isWrapping, int interconnectivity,
+                             RandomGenerator r) {
+    this(rows, columns, isWrapping, interconnectivity, r, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * The grid creation is done using the values passed for wrapping condition
+   * and interconnectivity in dungeon, on the given pool.
+   *
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
+   * @param isWrapping condition if grid should be wrapping or not
+   * @param interconnectivity degree of connectivity
+   * @param r random instance
+   * @param pool pool whose threads create the bands
+   * @throws IllegalArgumentException if random instance or pool is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   * @throws IllegalArgumentException if interconnectivity is negative
+   */
+  public ParallelKruskalGrid(int rows, int columns, boolean isWrapping, int interconnectivity,
+                             RandomGenerator r, ForkJoinPool pool) {
+    super(rows, columns, isWrapping, interconnectivity, r);
+    if (pool == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+    this.seed = (long) r.nextInt(Integer.MAX_VALUE) << 31 | r.nextInt(Integer.MAX_VALUE);
+    this.noOfBands = (rows + BAND_ROWS - 1) / BAND_ROWS;
+    this.noOfBoundaries = isWrapping && noOfBands > 1 ? noOfBands : noOfBands - 1;
+    long[][] left = new long[noOfBands + noOfBoundaries][];
+    pool.invoke(new Split(0, noOfBoundaries, b -> left[noOfBands + b] = weighBoundary(b)));
+    int[] parent = new int[rows * columns];
+    int[] connected = new int[noOfBands];
+    pool.invoke(new Split(0, noOfBands, b -> left[b] = connectBand(b, parent,
+            threshold(left, b), connected)));
+    joinBands(pool.invoke(new Merge(left, 0, left.length)), parent,
+            Arrays.stream(connected).sum());
+    connectLeftover(interconnectivity);
+  }
+
+  // the key of an edge, its weight followed by the edge, so no two edges weigh the same. The
+  // edge is 2 * n for the east edge of the location n and 2 * n + 1 for its south edge
+  private static long key(int weight, long edge) {
+    return (long) weight << 32 | edge;
+  }
+
+  private static int location(long key) {
+    return (int) ((key & 0xFFFFFFFFL) >>> 1);
+  }
+
+  private static Directions direction(long key) {
+    return (key & 1) == 0 ? Directions.EAST : Directions.SOUTH;
+  }
+
+  // the keys of the south edges of the last row of band b, to the next band, in weight
+  // order. They are weighed by the stream of band b, as the other edges of the band are
+  private long[] weighBoundary(int b) {
+    int top = b * BAND_ROWS;
+    int last = Math.min(top + BAND_ROWS, noOfRows) - 1;
+    CounterRandomClass rand = new CounterRandomClass(seed, b);
+    rand.jump(2L * (last - top) * noOfColumns);
+    int[] weights = new int[2 * noOfColumns];
+    rand.nextInts(weights, WEIGHTS);
+    long[] keys = new long[noOfColumns];
+    for (int y = 0; y < noOfColumns; y++) {
+      keys[y] = key(weights[2 * y + 1], 2L * (last * noOfColumns + y) + 1);
+    }
+    Arrays.sort(keys);
+    return keys;
+  }
+
+  // the key of the lightest edge between the band and the bands next to it, from the
+  // weighed boundaries which follow the bands in left
+  private long threshold(long[][] left, int band) {
+    long threshold = NONE;
+    if (band < noOfBoundaries) {
+      threshold = left[noOfBands + band][0];
+    }
+    int above = band > 0 ? band - 1 : noOfBoundaries == noOfBands ? noOfBands - 1 : -1;
+    if (above >= 0) {
+      threshold = Math.min(threshold, left[noOfBands + above][0]);
+    }
+    return threshold;
+  }
+
+  // connects the edges of the band lighter than the threshold in weight order, counting
+  // them in connected, and gives the keys of the heavier edges of a spanning forest of the
+  // band in weight order. The band only uses its own locations in parent
+  private long[] connectBand(int band, int[] parent, long threshold, int[] connected) {
+    int top = band * BAND_ROWS;
+    int first = top * noOfColumns;
+    int noOfCells = (Math.min(top + BAND_ROWS, noOfRows) - top) * noOfColumns;
+    boolean southWraps = isWrapping && noOfBands == 1;
+    int[] weights = new int[2 * noOfCells];
+    new CounterRandomClass(seed, band).nextInts(weights, WEIGHTS);
+    long[] keys = new long[2 * noOfCells];
+    int noOfEdges = 0;
+    for (int i = 0; i < noOfCells; i++) {
+      if (i % noOfColumns + 1 < noOfColumns || isWrapping) {
+        keys[noOfEdges++] = key(weights[2 * i], 2L * (first + i));
+      }
+      if (i + noOfColumns < noOfCells || southWraps) {
+        keys[noOfEdges++] = key(weights[2 * i + 1], 2L * (first + i) + 1);
+      }
+    }
+    Arrays.sort(keys, 0, noOfEdges);
+    for (int i = first; i < first + noOfCells; i++) {
+      parent[i] = i;
+    }
+    int k = 0;
+    int count = 0;
+    for (; k < noOfEdges && keys[k] < threshold && count < noOfCells - 1; k++) {
+      if (union(parent, 0, keys[k])) {
+        connect(location(keys[k]), direction(keys[k]));
+        count++;
+      }
+    }
+    connected[band] = count;
+    // the rest of the forest is found on a copy, as its edges are only offered to the merge
+    int[] root = new int[noOfCells];
+    for (int i = 0; i < noOfCells; i++) {
+      root[i] = parent[first + i] - first;
+    }
+    int noOfLeft = 0;
+    for (; k < noOfEdges && count + noOfLeft < noOfCells - 1; k++) {
+      if (union(root, first, keys[k])) {
+        keys[noOfLeft++] = keys[k];
+      }
+    }
+    return Arrays.copyOf(keys, noOfLeft);
+  }
+
+  // connects the edges left by the bands and the edges between them in weight order, as
+  // Kruskal's algorithm does, until the grid is one tree
+  private void joinBands(long[] keys, int[] parent, int connected) {
+    for (int k = 0; k < keys.length && connected < parent.length - 1; k++) {
+      if (union(parent, 0, keys[k])) {
+        connect(location(keys[k]), direction(keys[k]));
+        connected++;
+      }
+    }
+    if (connected < parent.length - 1) {
+      throw new IllegalStateException("Bands of the grid cannot be joined");
+    }
+  }
+
+  // joins the trees of the two ends of the edge in the union-find of the locations from
+  // offset on, and tells if they were apart
+  private boolean union(int[] root, int offset, long key) {
+    int n = location(key);
+    int from = find(root, n - offset);
+    int to = find(root, neighbour(n, direction(key)) - offset);
+    if (from == to) {
+      return false;
+    }
+    root[from] = to;
+    return true;
+  }
+
+  // locates the root of the location, halving the path on the way up
+  private static int find(int[] root, int x) {
+    while (root[x] != x) {
+      root[x] = root[root[x]];
+      x = root[x];
+    }
+    return x;
+  }
+
+  /**
+   * Runs some work for every index of a range, splitting the range between the
+   * threads of the pool.
+   */
+  private static final class Split extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final IntConsumer work;
+
+    private Split(int from, int to, IntConsumer work) {
+      this.from = from;
+      this.to = to;
+      this.work = work;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= 1) {
+        if (from < to) {
+          work.accept(from);
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new Split(from, middle, work), new Split(middle, to, work));
+    }
+  }
+
+  /**
+   * Merges lists of keys in weight order into one, splitting the lists between
+   * the threads of the pool.
+   */
+  private static final class Merge extends RecursiveTask<long[]> {
+    private static final long serialVersionUID = 1L;
+
+    private final long[][] lists;
+    private final int from;
+    private final int to;
+
+    private Merge(long[][] lists, int from, int to) {
+      this.lists = lists;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected long[] compute() {
+      if (to - from <= 1) {
+        return from < to ? lists[from] : new long[0];
+      }
+      int middle = (from + to) >>> 1;
+      Merge left = new Merge(lists, from, middle);
+      Merge right = new Merge(lists, middle, to);
+      invokeAll(left, right);
+      return merge(left.join(), right.join());
+    }
+
+    private static long[] merge(long[] a, long[] b) {
+      long[] merged = new long[a.length + b.length];
+      int i = 0;
+      int j = 0;
+      for (int k = 0; k < merged.length; k++) {
+        merged[k] = j == b.length || i < a.length && a[i] < b[j] ? a[i++] : b[j++];
+      }
+      return merged;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package dungeon.model;
+
+/**
+ * Published when the player moves from one location to a neighbouring location.
+ */
+public final class PlayerMoved implements DungeonEvent {
+  private final int from;
+  private final int location;
+  private final Directions direction;
+
+  /**
+   * The event is created with the locations the player moved between.
+   *
+   * @param from cell identifier of the location the player left
+   * @param location cell identifier of the location the player moved to
+   * @param direction direction the player moved in
+   * @throws IllegalArgumentException if direction is null
+   */
+  PlayerMoved(int from, int location, Directions direction) {
+    if (direction == null) {
+      throw new IllegalArgumentException("Direction cannot be null");
+    }
+    this.from = from;
+    this.location = location;
+    this.direction = direction;
+  }
+
+  /**
+   * The location the player left.
+   *
+   * @return cell identifier of the previous location
+   */
+  public int getFrom() {
+    return from;
+  }
+
+  /**
+   * The location the player moved to.
+   *
+   * @return cell identifier of the new location
+   */
+  @Override
+  public int getLocation() {
+    return location;
+  }
+
+  /**
+   * The direction the player moved in.
+   *
+   * @return direction of the move
+   */
+  public Directions getDirection() {
+    return direction;
+  }
+
+  @Override
+  public String toString() {
+    return "PlayerMoved " + direction + " from " + from + " to " + location;
+  }
+}
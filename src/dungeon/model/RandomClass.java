@@ -6,21 +6,27 @@ import java.util.Random;
 /**
  * This class implements the RandomGenerator and is used
  * to generate random numbers as required by the dungeon, and it's
- * creation.
+ * creation. The numbers are those of a {@link RandomSeedClass} with an
+ * unpredictable starting state, so the state can be saved with the dungeon.
  */
-public class RandomClass implements RandomGenerator {
-  private final Random rand;
+public class RandomClass implements StatefulRandom {
+  private final RandomSeedClass rand;
 
   /**
-   * The rand variable initialised here uses the
-   * nextInt method of Java.Random.
+   * The rand variable initialised here starts from a state
+   * taken from Java.Random.
    */
   public RandomClass() {
-    rand = new Random();
+    rand = RandomSeedClass.fromState(new Random().nextLong());
   }
 
   @Override
   public int nextInt(int n) {
     return rand.nextInt(n);
   }
+
+  @Override
+  public long getState() {
+    return rand.getState();
+  }
 }
@@ -2,10 +2,11 @@ package dungeon.model;
 
 /**
  * A dungeon requires random number generation for various creation of the
- * dungeon grid. There are three types of implementations of the random generator.
+ * dungeon grid. There are several types of implementations of the random generator.
  * One is for randomly creating numbers, one generates numbers based on a predefined
  * list of numbers which is useful for testing purposes, one uses seed value which
- * is a set of predefined values.
+ * is a set of predefined values. For work split between threads, one can be split
+ * into independent generators and one can jump to any position of its numbers.
  */
 public interface RandomGenerator {
 
@@ -18,4 +19,22 @@ public interface RandomGenerator {
    * @return the random number integer
    */
   int nextInt(int n);
+
+  /**
+   * Fills an array with random numbers within the limits of 0 and the number
+   * defined in the parameters, the same numbers as calls of {@link #nextInt}
+   * would give one after the other.
+   *
+   * @param values array to fill
+   * @param n the upper limit up to which random numbers generated can be
+   * @throws IllegalArgumentException if values is null
+   */
+  default void nextInts(int[] values, int n) {
+    if (values == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+    for (int i = 0; i < values.length; i++) {
+      values[i] = nextInt(n);
+    }
+  }
 }
@@ -1,14 +1,18 @@
 package dungeon.model;
 
-import java.util.Random;
-
 /**
  * This class implements the RandomGenerator and is used
  * to generate numbers based on seed value passed. This makes the
- * random number generation predictable.
+ * random number generation predictable. The numbers are those of
+ * {@link java.util.Random} with the same seed, computed here so that
+ * the state of the generator can be saved with the dungeon.
  */
-public class RandomSeedClass implements RandomGenerator {
-  private final Random rand;
+public class RandomSeedClass implements StatefulRandom {
+  private static final long MULTIPLIER = 0x5DEECE66DL;
+  private static final long ADDEND = 0xBL;
+  private static final long MASK = (1L << 48) - 1;
+
+  private long seed;
 
   /**
    * The seed value is fixed here. These values can then be used to
@@ -18,11 +22,48 @@ public class RandomSeedClass implements RandomGenerator {
     if (n < 0) {
       throw new IllegalArgumentException("Number cannot be negative");
     }
-    rand = new Random(n);
+    seed = (n ^ MULTIPLIER) & MASK;
+  }
+
+  private RandomSeedClass() {
+  }
+
+  /**
+   * Creates a generator which continues from a saved state.
+   *
+   * @param state state of a generator, as given by {@link #getState()}
+   * @return generator in that state
+   */
+  static RandomSeedClass fromState(long state) {
+    RandomSeedClass r = new RandomSeedClass();
+    r.seed = state & MASK;
+    return r;
+  }
+
+  @Override
+  public long getState() {
+    return seed;
+  }
+
+  // the next random bits, as java.util.Random gives them
+  private int next(int bits) {
+    seed = (seed * MULTIPLIER + ADDEND) & MASK;
+    return (int) (seed >>> (48 - bits));
   }
 
   @Override
   public int nextInt(int n) {
-    return rand.nextInt(n);
+    if (n <= 0) {
+      throw new IllegalArgumentException("bound must be positive");
+    }
+    int r = next(31);
+    int m = n - 1;
+    if ((n & m) == 0) {
+      return (int) ((n * (long) r) >> 31);
+    }
+    for (int u = r; u - (r = u % n) + m < 0; u = next(31)) {
+      // rejects the values which would make smaller numbers more likely
+    }
+    return r;
   }
 }
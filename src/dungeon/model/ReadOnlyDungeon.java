@@ -1,6 +1,7 @@
 package dungeon.model;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * This interface is read-only interface of the dungeon.
@@ -23,6 +24,15 @@ public interface ReadOnlyDungeon {
    */
   List<List<Integer>> getConnectedEdges();
 
+  /**
+   * The connections between the locations of the dungeon as a read-only graph.
+   * The graph is built once when the dungeon is created and can be queried
+   * without creating any new objects.
+   *
+   * @return graph of the connected locations of the dungeon
+   */
+  DungeonGraph getGraph();
+
   /**
    * Location description is used to display what are the conditions
    * of the current location of the player. This includes what items are present
@@ -106,6 +116,36 @@ public interface ReadOnlyDungeon {
    */
   List<Cell> getCells();
 
+  /**
+   * An immutable snapshot of the whole dungeon at the current state of the game.
+   * The same snapshot is returned until the game changes, and consecutive snapshots
+   * share every location that did not change, so the board can be read as often as
+   * needed without copying it.
+   *
+   * @return snapshot of the dungeon
+   */
+  DungeonSnapshot getSnapshot();
+
+  /**
+   * Adds a listener for a type of event of the game. The dungeon publishes an
+   * event after every change a command makes, so the listener can update from
+   * what changed instead of reading the whole dungeon. Subscribing to
+   * {@link DungeonEvent} receives every event.
+   *
+   * @param type type of the events to receive
+   * @param listener called with each event of the type
+   * @param <E> type of the events
+   * @throws IllegalArgumentException if type or listener is null
+   */
+  <E extends DungeonEvent> void subscribe(Class<E> type, Consumer<? super E> listener);
+
+  /**
+   * Removes a listener from every type of event it subscribed to.
+   *
+   * @param listener listener to remove
+   */
+  void unsubscribe(Consumer<?> listener);
+
   /**
    * Returns a true or false condition based on game condition.
    * A game is over if the player gets eaten by an Otyugh or the player
@@ -141,6 +181,16 @@ public interface ReadOnlyDungeon {
    */
   List<Directions> locationMoves(int n);
 
+  /**
+   * Gets the moves from the location of cell identified by the value n
+   * as an exit mask, with the bit of each direction set as given by
+   * {@link Directions#getMask()}.
+   *
+   * @param n cell identifier
+   * @return exit mask of the location
+   */
+  int locationExitMask(int n);
+
   /**
    * Gets the list of arrows present in the location of cell
    * identified by the value n.
@@ -0,0 +1,108 @@
+package dungeon.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Keeps the location snapshots of a dungeon and builds new versions of them
+ * copy-on-write. Locations are grouped in chunks, and a version only copies
+ * the chunks holding locations that changed since the previous version. A
+ * chunk that never changed is left empty in every version and read from a
+ * pristine copy built on first use, so snapshots of very large dungeons cost
+ * nothing up front.
+ */
+final class SnapshotTable {
+  static final int CHUNK_BITS = 10;
+  static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+  private final List<Cell> cells;
+  private final IntPredicate visited;
+  private final CellSnapshot[][] pristine;
+  private final long[] dirtyMarks;
+  private int[] dirty;
+  private int noOfDirty;
+  private CellSnapshot[][] latest;
+
+  /**
+   * The table starts from the current contents of the cells.
+   *
+   * @param cells locations of the dungeon, identified by their index
+   * @param visited tells if the location with the given value has been visited
+   * @throws IllegalArgumentException if cells or visited is null
+   */
+  public SnapshotTable(List<Cell> cells, IntPredicate visited) {
+    if (cells == null || visited == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+    this.cells = cells;
+    this.visited = visited;
+    int chunks = (cells.size() + CHUNK_MASK) >>> CHUNK_BITS;
+    pristine = new CellSnapshot[chunks][];
+    latest = new CellSnapshot[chunks][];
+    dirtyMarks = new long[(cells.size() + 63) >>> 6];
+    dirty = new int[16];
+    noOfDirty = 0;
+  }
+
+  /**
+   * Gets the chunk as it was before any location in it changed.
+   *
+   * @param chunk index of the chunk
+   * @return snapshots of the locations in the chunk
+   */
+  synchronized CellSnapshot[] pristine(int chunk) {
+    if (pristine[chunk] == null) {
+      int from = chunk << CHUNK_BITS;
+      int to = Math.min(cells.size(), from + CHUNK_MASK + 1);
+      CellSnapshot[] copy = new CellSnapshot[to - from];
+      for (int i = from; i < to; i++) {
+        copy[i - from] = new CellSnapshot(cells.get(i), visited.test(i));
+      }
+      pristine[chunk] = copy;
+    }
+    return pristine[chunk];
+  }
+
+  /**
+   * Records that the location n is about to change. This has to be called
+   * before the change so the pristine copy of its chunk is still correct.
+   *
+   * @param n cell identifier
+   */
+  public void touch(int n) {
+    pristine(n >>> CHUNK_BITS);
+    if ((dirtyMarks[n >>> 6] & (1L << n)) == 0) {
+      dirtyMarks[n >>> 6] |= 1L << n;
+      if (noOfDirty == dirty.length) {
+        dirty = Arrays.copyOf(dirty, 2 * noOfDirty);
+      }
+      dirty[noOfDirty++] = n;
+    }
+  }
+
+  /**
+   * Builds the chunks of the next version from the locations touched since the
+   * previous version. If nothing was touched the previous chunks are returned.
+   *
+   * @return chunks of the next version, empty where a chunk never changed
+   */
+  public CellSnapshot[][] commit() {
+    if (noOfDirty == 0) {
+      return latest;
+    }
+    CellSnapshot[][] next = latest.clone();
+    for (int i = 0; i < noOfDirty; i++) {
+      int n = dirty[i];
+      int chunk = n >>> CHUNK_BITS;
+      if (next[chunk] == latest[chunk]) {
+        next[chunk] = (latest[chunk] != null ? latest[chunk] : pristine(chunk)).clone();
+      }
+      next[chunk][n & CHUNK_MASK] = new CellSnapshot(cells.get(n), visited.test(n));
+      dirtyMarks[n >>> 6] &= ~(1L << n);
+    }
+    noOfDirty = 0;
+    latest = next;
+    return next;
+  }
+}
@@ -0,0 +1,198 @@
+package dungeon.model;
+
+/**
+ * The common part of the grids which grow a spanning tree of the dungeon by
+ * walking over it, one location at a time. The exits opened are kept with 4
+ * bits per location, and once the tree spans the grid the extra edges for the
+ * interconnectivity are chosen at random among the edges not connected, so
+ * every grid is a spanning tree plus as many extra edges as asked for.
+ */
+abstract class SpanningTreeGrid implements Grid, ExitSink {
+  private static final Directions[] DIRECTIONS = Directions.values();
+
+  final RandomGenerator r;
+  final int noOfRows;
+  final int noOfColumns;
+  final boolean isWrapping;
+  private final byte[] exits;
+
+  /**
+   * The grid is created with no edges connected.
+   *
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
+   * @param isWrapping condition if grid should be wrapping or not
+   * @param interconnectivity degree of connectivity
+   * @param r random instance
+   * @throws IllegalArgumentException if random instance is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   * @throws IllegalArgumentException if interconnectivity is negative
+   */
+  SpanningTreeGrid(int rows, int columns, boolean isWrapping, int interconnectivity,
+                   RandomGenerator r) {
+    if (r == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+    if (rows < 1 || columns < 1) {
+      throw new IllegalArgumentException("Rows and columns should be positive");
+    }
+    if (interconnectivity < 0) {
+      throw new IllegalArgumentException("Interconnectivity cannot be negative");
+    }
+    this.r = r;
+    this.noOfRows = rows;
+    this.noOfColumns = columns;
+    this.isWrapping = isWrapping;
+    this.exits = new byte[(rows * columns + 1) / 2];
+  }
+
+  /**
+   * The location next to n in a direction, across the edges of the grid if it
+   * is wrapping.
+   *
+   * @param n cell value
+   * @param d direction to look in
+   * @return cell value of the neighbour, or -1 if there is none
+   */
+  final int neighbour(int n, Directions d) {
+    int x = n / noOfColumns + d.getX();
+    int y = n % noOfColumns + d.getY();
+    if (x < 0 || y < 0 || x >= noOfRows || y >= noOfColumns) {
+      if (!isWrapping) {
+        return -1;
+      }
+      x = (x + noOfRows) % noOfRows;
+      y = (y + noOfColumns) % noOfColumns;
+    }
+    return x * noOfColumns + y;
+  }
+
+  /**
+   * A random direction from n which leads to a neighbour.
+   *
+   * @param n cell value
+   * @return direction of a neighbour
+   */
+  final Directions randomDirection(int n) {
+    Directions d = DIRECTIONS[r.nextInt(DIRECTIONS.length)];
+    while (neighbour(n, d) < 0) {
+      d = DIRECTIONS[r.nextInt(DIRECTIONS.length)];
+    }
+    return d;
+  }
+
+  /**
+   * Gets the exits opened from location n, as a mask in the order of
+   * {@link Directions}.
+   *
+   * @param n cell value
+   * @return exit mask of the location
+   */
+  @Override
+  public final int getExits(int n) {
+    return (exits[n >>> 1] >>> ((n & 1) << 2)) & 0xF;
+  }
+
+  /**
+   * Sets the exits opened from location n. The opposite exits of the
+   * neighbours are not changed.
+   *
+   * @param n cell value
+   * @param mask exit mask of the location
+   */
+  final void setExits(int n, int mask) {
+    int shift = (n & 1) << 2;
+    exits[n >>> 1] = (byte) ((exits[n >>> 1] & ~(0xF << shift)) | ((mask & 0xF) << shift));
+  }
+
+  @Override
+  public final void addExit(int n, int mask) {
+    setExits(n, getExits(n) | mask);
+  }
+
+  /**
+   * Connects the edge from location n in a direction, opening the exits on
+   * both of its ends.
+   *
+   * @param n cell value
+   * @param d direction of the edge
+   */
+  final void connect(int n, Directions d) {
+    int to = neighbour(n, d);
+    if ((getExits(n) & d.getMask()) == 0) {
+      setExits(n, getExits(n) | d.getMask());
+      setExits(to, getExits(to) | DIRECTIONS[(d.ordinal() + 2) % DIRECTIONS.length].getMask());
+    }
+  }
+
+  /**
+   * Connects extra edges chosen at random among the edges not connected, or
+   * every such edge if there are fewer of them.
+   *
+   * @param interconnectivity number of extra edges to connect
+   */
+  final void connectLeftover(int interconnectivity) {
+    if (interconnectivity == 0) {
+      return;
+    }
+    int noOfCells = noOfRows * noOfColumns;
+    int eastPerRow = isWrapping && noOfColumns > 1 ? noOfColumns : noOfColumns - 1;
+    int southPerColumn = isWrapping && noOfRows > 1 ? noOfRows : noOfRows - 1;
+    long noOfEdges = (long) eastPerRow * noOfRows + (long) southPerColumn * noOfColumns;
+    if (2L * interconnectivity <= noOfEdges - (noOfCells - 1)) {
+      // at most half of the edges left out of the tree are wanted, so random edges are
+      // drawn until enough new ones are found instead of listing every one of them
+      for (int added = 0; added < interconnectivity; ) {
+        int n = r.nextInt(noOfCells);
+        Directions d = r.nextInt(2) == 0 ? Directions.EAST : Directions.SOUTH;
+        int to = neighbour(n, d);
+        if (to >= 0 && to != n && (getExits(n) & d.getMask()) == 0) {
+          connect(n, d);
+          added++;
+        }
+      }
+      return;
+    }
+    int[] leftover = new int[2 * noOfCells];
+    int noOfLeftover = 0;
+    for (int n = 0; n < noOfCells; n++) {
+      if (neighbour(n, Directions.EAST) >= 0 && (getExits(n) & Directions.EAST.getMask()) == 0) {
+        leftover[noOfLeftover++] = 2 * n;
+      }
+      if (neighbour(n, Directions.SOUTH) >= 0
+              && (getExits(n) & Directions.SOUTH.getMask()) == 0) {
+        leftover[noOfLeftover++] = 2 * n + 1;
+      }
+    }
+    for (int i = 0; i < interconnectivity && i < noOfLeftover; i++) {
+      int k = i + r.nextInt(noOfLeftover - i);
+      int edge = leftover[k];
+      leftover[k] = leftover[i];
+      connect(edge / 2, edge % 2 == 0 ? Directions.EAST : Directions.SOUTH);
+    }
+  }
+
+  @Override
+  public int[] getConnectedValues() {
+    int noOfCells = noOfRows * noOfColumns;
+    int noOfConnected = 0;
+    for (int n = 0; n < noOfCells; n++) {
+      noOfConnected += Integer.bitCount(getExits(n)
+              & (Directions.EAST.getMask() | Directions.SOUTH.getMask()));
+    }
+    int[] values = new int[2 * noOfConnected];
+    int k = 0;
+    for (int n = 0; n < noOfCells; n++) {
+      int mask = getExits(n);
+      if ((mask & Directions.EAST.getMask()) != 0) {
+        values[k++] = n;
+        values[k++] = neighbour(n, Directions.EAST);
+      }
+      if ((mask & Directions.SOUTH.getMask()) != 0) {
+        values[k++] = n;
+        values[k++] = neighbour(n, Directions.SOUTH);
+      }
+    }
+    return values;
+  }
+}
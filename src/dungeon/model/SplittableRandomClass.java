@@ -0,0 +1,72 @@
+package dungeon.model;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * This class implements the RandomGenerator with a splittable generator of
+ * the Java library, {@link SplittableRandom} or another splittable algorithm
+ * such as L64X128MixRandom. It takes no locks and is not safe to share between
+ * threads; instead every thread splits a generator of its own off it. The
+ * numbers of a split generator only depend on the generator it was split from,
+ * so work split between threads gives the same numbers whatever the threads.
+ */
+public class SplittableRandomClass implements RandomGenerator {
+  private final java.util.random.RandomGenerator.SplittableGenerator generator;
+
+  /**
+   * The generator is a {@link SplittableRandom} with the given seed.
+   *
+   * @param seed seed of the generator
+   */
+  public SplittableRandomClass(long seed) {
+    this(new SplittableRandom(seed));
+  }
+
+  /**
+   * The generator is made by a splittable algorithm of the Java library with
+   * the given seed.
+   *
+   * @param algorithm name of the algorithm, like "L64X128MixRandom"
+   * @param seed seed of the generator
+   * @throws IllegalArgumentException if algorithm is null, unknown or not
+   *                                  splittable
+   */
+  public SplittableRandomClass(String algorithm, long seed) {
+    if (algorithm == null) {
+      throw new IllegalArgumentException("Algorithm cannot be null");
+    }
+    RandomGeneratorFactory<java.util.random.RandomGenerator> factory;
+    try {
+      factory = RandomGeneratorFactory.of(algorithm);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown random algorithm " + algorithm);
+    }
+    if (!factory.isSplittable()) {
+      throw new IllegalArgumentException("Random algorithm " + algorithm + " cannot be split");
+    }
+    this.generator = (java.util.random.RandomGenerator.SplittableGenerator) factory.create(seed);
+  }
+
+  private SplittableRandomClass(java.util.random.RandomGenerator.SplittableGenerator generator) {
+    this.generator = generator;
+  }
+
+  /**
+   * Splits a new generator off this one, for another thread. Both generators
+   * go on independently of each other.
+   *
+   * @return the new generator
+   */
+  public SplittableRandomClass split() {
+    return new SplittableRandomClass(generator.split());
+  }
+
+  @Override
+  public int nextInt(int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("bound must be positive");
+    }
+    return generator.nextInt(n);
+  }
+}
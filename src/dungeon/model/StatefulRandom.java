@@ -0,0 +1,17 @@
+package dungeon.model;
+
+/**
+ * A random generator whose whole state is one number, so it can be saved with
+ * a dungeon and restored later to give the same numbers from where it stopped.
+ * The state is that of the linear congruential generator of
+ * {@link java.util.Random}, and it is restored as a {@link RandomSeedClass}.
+ */
+interface StatefulRandom extends RandomGenerator {
+
+  /**
+   * The current state of the generator.
+   *
+   * @return 48 bit state of the generator
+   */
+  long getState();
+}
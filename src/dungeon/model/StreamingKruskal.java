@@ -0,0 +1,189 @@
+package dungeon.model;
+
+import java.util.Arrays;
+
+/**
+ * Creation of a random dungeon one row at a time, for dungeons too large to
+ * hold all their edges in memory (Eller's algorithm, a variant of Kruskal's
+ * algorithm which visits the edges row by row). Only the sets of the locations
+ * of the current row are kept, so memory grows with the number of columns and
+ * not with the size of the dungeon. The exits are written straight into where
+ * they are kept, a cell store or the exits of a grid.
+ *
+ * <p>The spanning tree does not use the edges around a wrapping dungeon, they
+ * can only be among the extra edges added for the interconnectivity, which are
+ * chosen at random among the edges not connected yet.
+ */
+final class StreamingKruskal {
+  private final RandomGenerator r;
+  private final int noOfRows;
+  private final int noOfColumns;
+  private final boolean isWrapping;
+  private final int interconnectivity;
+  private int[] root;
+  private int[] next;
+  private final int[] members;
+  private final int[] pick;
+  private final int[] first;
+  private final boolean[] hasDown;
+  private final boolean[] down;
+
+  /**
+   * The creation is set up with the values passed for wrapping condition and
+   * interconnectivity in dungeon.
+   *
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
+   * @param isWrapping condition if grid should be wrapping or not
+   * @param interconnectivity degree of connectivity
+   * @param r random instance
+   * @throws IllegalArgumentException if random instance is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   * @throws IllegalArgumentException if interconnectivity is negative
+   */
+  public StreamingKruskal(int rows, int columns, boolean isWrapping, int interconnectivity,
+                          RandomGenerator r) {
+    if (r == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+    if (rows < 1 || columns < 1) {
+      throw new IllegalArgumentException("Rows and columns should be positive");
+    }
+    if (interconnectivity < 0) {
+      throw new IllegalArgumentException("Interconnectivity cannot be negative");
+    }
+    this.r = r;
+    this.noOfRows = rows;
+    this.noOfColumns = columns;
+    this.isWrapping = isWrapping;
+    this.interconnectivity = interconnectivity;
+    root = new int[columns];
+    next = new int[columns];
+    members = new int[columns];
+    pick = new int[columns];
+    first = new int[columns];
+    hasDown = new boolean[columns];
+    down = new boolean[columns];
+  }
+
+  /**
+   * Connects locations with no exits into a dungeon, writing the exits of
+   * every location.
+   *
+   * @param exits where the exits are written, with as many locations as the grid
+   * @throws IllegalArgumentException if exits is null
+   */
+  public void connect(ExitSink exits) {
+    if (exits == null) {
+      throw new IllegalArgumentException("Exits cannot be null");
+    }
+    for (int y = 0; y < noOfColumns; y++) {
+      root[y] = y;
+    }
+    for (int x = 0; x < noOfRows; x++) {
+      joinRow(exits, x, x == noOfRows - 1);
+      if (x < noOfRows - 1) {
+        carryDown(exits, x);
+      }
+    }
+    connectLeftover(exits);
+  }
+
+  // locates the root of the location in the row, halving the path on the way up
+  private int find(int y) {
+    while (root[y] != y) {
+      root[y] = root[root[y]];
+      y = root[y];
+    }
+    return y;
+  }
+
+  // joins neighbours of the row which are not connected yet, at random except
+  // in the last row where every set is joined so the tree spans the dungeon
+  private void joinRow(ExitSink exits, int x, boolean last) {
+    for (int y = 0; y + 1 < noOfColumns; y++) {
+      int rootA = find(y);
+      int rootB = find(y + 1);
+      if (rootA != rootB && (last || r.nextInt(2) == 0)) {
+        connect(exits, x * noOfColumns + y, Directions.EAST);
+        root[rootB] = rootA;
+      }
+    }
+  }
+
+  // connects every set of the row to the next row at least once, at random,
+  // and makes the sets of the next row from the locations connected to it
+  private void carryDown(ExitSink exits, int x) {
+    Arrays.fill(members, 0);
+    Arrays.fill(hasDown, false);
+    for (int y = 0; y < noOfColumns; y++) {
+      members[find(y)]++;
+      down[y] = r.nextInt(2) == 0;
+      if (down[y]) {
+        hasDown[find(y)] = true;
+      }
+    }
+    Arrays.fill(pick, -1);
+    for (int y = 0; y < noOfColumns; y++) {
+      int rootY = find(y);
+      if (!hasDown[rootY]) {
+        if (pick[rootY] < 0) {
+          pick[rootY] = r.nextInt(members[rootY]);
+        }
+        if (pick[rootY]-- == 0) {
+          down[y] = true;
+          hasDown[rootY] = true;
+        }
+      }
+    }
+    Arrays.fill(first, -1);
+    for (int y = 0; y < noOfColumns; y++) {
+      next[y] = y;
+      if (down[y]) {
+        connect(exits, x * noOfColumns + y, Directions.SOUTH);
+        int rootY = find(y);
+        if (first[rootY] < 0) {
+          first[rootY] = y;
+        }
+        next[y] = first[rootY];
+      }
+    }
+    int[] rowRoot = root;
+    root = next;
+    next = rowRoot;
+  }
+
+  // connects extra edges chosen at random among the edges not connected yet
+  private void connectLeftover(ExitSink exits) {
+    int noOfCells = noOfRows * noOfColumns;
+    for (int added = 0; added < interconnectivity; ) {
+      int n = r.nextInt(noOfCells);
+      Directions d = r.nextInt(2) == 0 ? Directions.EAST : Directions.SOUTH;
+      boolean outside = d == Directions.EAST ? n % noOfColumns == noOfColumns - 1
+              : n / noOfColumns == noOfRows - 1;
+      if ((isWrapping || !outside) && (exits.getExits(n) & d.getMask()) == 0) {
+        connect(exits, n, d);
+        added++;
+      }
+    }
+  }
+
+  // opens the exit of the location towards its east or south neighbour, and the
+  // opposite exit of the neighbour
+  private void connect(ExitSink exits, int n, Directions d) {
+    int x = n / noOfColumns;
+    int y = n % noOfColumns;
+    int to;
+    Directions back;
+    if (d == Directions.EAST) {
+      to = x * noOfColumns + (y + 1) % noOfColumns;
+      back = Directions.WEST;
+    }
+    else {
+      to = (x + 1) % noOfRows * noOfColumns + y;
+      back = Directions.NORTH;
+    }
+    exits.addExit(n, d.getMask());
+    exits.addExit(to, back.getMask());
+  }
+}
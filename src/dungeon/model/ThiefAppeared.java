@@ -0,0 +1,28 @@
+package dungeon.model;
+
+/**
+ * Published when a thief appears after too many bad moves and steals the
+ * player's treasure.
+ */
+public final class ThiefAppeared implements DungeonEvent {
+  private final int location;
+
+  /**
+   * The event is created with the location the thief appeared in.
+   *
+   * @param location cell identifier of the player's location
+   */
+  ThiefAppeared(int location) {
+    this.location = location;
+  }
+
+  @Override
+  public int getLocation() {
+    return location;
+  }
+
+  @Override
+  public String toString() {
+    return "ThiefAppeared at " + location;
+  }
+}
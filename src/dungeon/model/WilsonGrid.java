@@ -0,0 +1,58 @@
+package dungeon.model;
+
+/**
+ * Creation of a random dungeon by loop-erased random walks (Wilson's
+ * algorithm). The tree starts as one random location. From each location not
+ * in the tree, in turn, a random walk is made until it reaches the tree,
+ * remembering only the last way it left each location, which erases the loops
+ * of the walk; the path it leaves is then added to the tree. Every spanning
+ * tree is equally likely, as with the Aldous-Broder grid, but far fewer steps
+ * are wasted once the tree is large.
+ */
+final class WilsonGrid extends SpanningTreeGrid {
+  private static final Directions[] DIRECTIONS = Directions.values();
+
+  /**
+   * The grid creation is done using the values passed for wrapping condition
+   * and interconnectivity in dungeon.
+   *
+   * @param rows number of rows of the grid
+   * @param columns number of columns of the grid
+   * @param isWrapping condition if grid should be wrapping or not
+   * @param interconnectivity degree of connectivity
+   * @param r random instance
+   * @throws IllegalArgumentException if random instance is null value
+   * @throws IllegalArgumentException if rows or columns is less than 1
+   * @throws IllegalArgumentException if interconnectivity is negative
+   */
+  public WilsonGrid(int rows, int columns, boolean isWrapping, int interconnectivity,
+                    RandomGenerator r) {
+    super(rows, columns, isWrapping, interconnectivity, r);
+    walk();
+    connectLeftover(interconnectivity);
+  }
+
+  // adds the loop-erased walk from every location not in the tree yet
+  private void walk() {
+    int noOfCells = noOfRows * noOfColumns;
+    long[] inTree = new long[(noOfCells + 63) >>> 6];
+    byte[] way = new byte[noOfCells];
+    int root = r.nextInt(noOfCells);
+    inTree[root >>> 6] |= 1L << root;
+    for (int start = 0; start < noOfCells; start++) {
+      int n = start;
+      while ((inTree[n >>> 6] & (1L << n)) == 0) {
+        Directions d = randomDirection(n);
+        way[n] = (byte) d.ordinal();
+        n = neighbour(n, d);
+      }
+      n = start;
+      while ((inTree[n >>> 6] & (1L << n)) == 0) {
+        inTree[n >>> 6] |= 1L << n;
+        Directions d = DIRECTIONS[way[n]];
+        connect(n, d);
+        n = neighbour(n, d);
+      }
+    }
+  }
+}
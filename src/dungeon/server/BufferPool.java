@@ -0,0 +1,66 @@
+package dungeon.server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * Direct byte buffers of one size, kept for reuse so that sessions do not
+ * allocate a buffer for every response. Buffers given back beyond the size of
+ * the pool are left to the garbage collector. The pool is used by one thread.
+ */
+final class BufferPool {
+  private final int bufferSize;
+  private final int maxPooled;
+  private final ArrayDeque<ByteBuffer> free;
+  private volatile int inUse;
+
+  /**
+   * The pool is created empty and fills up as buffers are given back.
+   *
+   * @param bufferSize capacity of each buffer in bytes
+   * @param maxPooled most buffers kept for reuse
+   * @throws IllegalArgumentException if bufferSize is less than 1 or maxPooled
+   *                                  is negative
+   */
+  BufferPool(int bufferSize, int maxPooled) {
+    if (bufferSize < 1 || maxPooled < 0) {
+      throw new IllegalArgumentException("Buffer size should be positive");
+    }
+    this.bufferSize = bufferSize;
+    this.maxPooled = maxPooled;
+    this.free = new ArrayDeque<>();
+  }
+
+  /**
+   * Takes an empty buffer from the pool, or a new one if the pool is empty.
+   *
+   * @return cleared buffer
+   */
+  ByteBuffer take() {
+    inUse++;
+    ByteBuffer b = free.pollFirst();
+    return b != null ? b.clear() : ByteBuffer.allocateDirect(bufferSize);
+  }
+
+  /**
+   * Gives a buffer back to the pool. It must not be used by the caller after.
+   *
+   * @param b buffer taken from this pool
+   */
+  void give(ByteBuffer b) {
+    inUse--;
+    if (free.size() < maxPooled) {
+      free.addFirst(b);
+    }
+  }
+
+  /**
+   * The number of buffers taken from the pool and not given back. It can be
+   * read from any thread.
+   *
+   * @return buffers in use
+   */
+  int getInUse() {
+    return inUse;
+  }
+}
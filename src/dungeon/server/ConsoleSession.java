@@ -0,0 +1,146 @@
+package dungeon.server;
+
+import dungeon.controller.CommandController;
+import dungeon.controller.commands.Move;
+import dungeon.controller.commands.Pick;
+import dungeon.controller.commands.Shoot;
+import dungeon.model.Dungeon;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * The text game of one player, read from bytes as they arrive instead of from
+ * a blocking input. Commands are split into words by whitespace and run as
+ * soon as their last word is read, with the same commands and the same
+ * answers as the console game. A command can be split across reads, and one
+ * read can hold many commands.
+ */
+final class ConsoleSession {
+  private static final int MAX_WORD = 256;
+
+  private final Dungeon dungeon;
+  private final Appendable out;
+  private final byte[] word;
+  private final String[] args;
+  private int length;
+  private String command;
+  private int noOfArgs;
+  private boolean ended;
+
+  /**
+   * The session is created for a dungeon and greets the player.
+   *
+   * @param dungeon the dungeon of the player
+   * @param out where the answers to the player are appended
+   * @throws IllegalArgumentException if dungeon or out is null
+   */
+  ConsoleSession(Dungeon dungeon, Appendable out) {
+    if (dungeon == null || out == null) {
+      throw new IllegalArgumentException("Dungeon and output cannot be null");
+    }
+    this.dungeon = dungeon;
+    this.out = out;
+    this.word = new byte[MAX_WORD];
+    this.args = new String[2];
+    append("----------You have entered the dungeon----------\n");
+    append(dungeon.displayLocationDescription() + "\n");
+    if (!dungeon.isMonsterClose().equals("")) {
+      append(dungeon.isMonsterClose() + "\n");
+    }
+    prompt();
+  }
+
+  /**
+   * Reads the bytes sent by the player and runs every command they complete.
+   * The session ends when the player quits, the game is over or a word is
+   * longer than any command can be.
+   *
+   * @param in bytes sent by the player, read up to where the session ended
+   */
+  void read(ByteBuffer in) {
+    while (!ended && in.hasRemaining()) {
+      byte b = in.get();
+      if (b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B) {
+        if (length > 0) {
+          String w = new String(word, 0, length, StandardCharsets.UTF_8);
+          length = 0;
+          next(w);
+        }
+      }
+      else if (length == word.length) {
+        ended = true;
+      }
+      else {
+        word[length++] = b;
+      }
+    }
+  }
+
+  /**
+   * Whether the session has ended.
+   *
+   * @return true if no more commands are read
+   */
+  boolean isEnded() {
+    return ended;
+  }
+
+  // takes the next word of the player, starting a command or completing it
+  private void next(String w) {
+    if (command == null) {
+      if (w.equalsIgnoreCase("q") || w.equalsIgnoreCase("quit")) {
+        append("Come back soon!\n");
+        ended = true;
+        return;
+      }
+      String c = w.toLowerCase(Locale.ROOT);
+      if (!c.equals("move") && !c.equals("pick") && !c.equals("shoot")) {
+        append(w + " is not a valid command!\n");
+        prompt();
+        return;
+      }
+      command = c;
+      noOfArgs = 0;
+      append(c.equals("pick") ? "What? Treasure (t) or Arrow (a)\n" : "Where?\n");
+      return;
+    }
+    args[noOfArgs++] = w;
+    if (command.equals("shoot") && noOfArgs == 1) {
+      append("How many caves? (1-5)\n");
+      return;
+    }
+    CommandController control;
+    if (command.equals("move")) {
+      control = new Move(args[0]);
+    }
+    else if (command.equals("pick")) {
+      control = new Pick(args[0]);
+    }
+    else {
+      control = new Shoot(args[0], args[1]);
+    }
+    command = null;
+    control.commandGo(dungeon, out);
+    if (dungeon.gameOver()) {
+      ended = true;
+    }
+    else {
+      prompt();
+    }
+  }
+
+  private void prompt() {
+    append("\nWhat do you want to do next?: move, pick or shoot? (q to quit)\n");
+  }
+
+  private void append(String s) {
+    try {
+      out.append(s);
+    } catch (IOException e) {
+      throw new IllegalStateException("Cannot append!");
+    }
+  }
+}
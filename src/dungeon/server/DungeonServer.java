@@ -0,0 +1,228 @@
+package dungeon.server;
+
+import dungeon.controller.DungeonConsoleController;
+import dungeon.model.Dungeon;
+import dungeon.model.DungeonSettings;
+import dungeon.model.RandomClass;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts text games of the dungeon for many players over TCP. Every connection
+ * is a session with its own dungeon, played with the same line based commands
+ * as the console game. Each session runs on its own thread with a small stack,
+ * and the number of sessions is limited, so the memory a server needs is
+ * bounded by its session limit. A player who connects when the server is full
+ * is told so and disconnected, and a player who sends nothing for too long is
+ * disconnected to make room for others. Words longer than any command are
+ * not read, so a player cannot make a session take more memory.
+ */
+public final class DungeonServer implements AutoCloseable {
+  private static final long STACK_SIZE = 256 * 1024;
+  private static final int BUFFER_SIZE = 1024;
+  private static final int MAX_WORD = 256;
+  private static final int CREATE_ATTEMPTS = 10;
+
+  private final DungeonSettings settings;
+  private final int maxSessions;
+  private final int idleMillis;
+  private final Semaphore permits;
+  private final Set<Socket> sessions;
+  private final AtomicLong count;
+  private ServerSocket server;
+
+  /**
+   * The server is created for dungeons of some settings. It does not accept
+   * connections until it is started.
+   *
+   * @param settings settings of the dungeon of every session
+   * @param maxSessions most sessions played at the same time
+   * @param idleMillis time a session can wait for the player before it is
+   *                   closed, in milliseconds
+   * @throws IllegalArgumentException if settings is null or maxSessions or
+   *                                  idleMillis is less than 1
+   */
+  public DungeonServer(DungeonSettings settings, int maxSessions, int idleMillis) {
+    if (settings == null) {
+      throw new IllegalArgumentException("Settings cannot be null");
+    }
+    if (maxSessions < 1 || idleMillis < 1) {
+      throw new IllegalArgumentException("Sessions and idle time should be at least 1");
+    }
+    this.settings = settings;
+    this.maxSessions = maxSessions;
+    this.idleMillis = idleMillis;
+    this.permits = new Semaphore(maxSessions);
+    this.sessions = ConcurrentHashMap.newKeySet();
+    this.count = new AtomicLong();
+  }
+
+  /**
+   * Starts accepting connections on a port of all the addresses of the machine.
+   * Connections are accepted on a thread of the server, so this returns at once.
+   *
+   * @param port port to listen on, 0 for any free port
+   * @return the port the server listens on
+   * @throws IOException if the port cannot be listened on
+   * @throws IllegalStateException if the server was already started
+   */
+  public synchronized int start(int port) throws IOException {
+    if (server != null) {
+      throw new IllegalStateException("Server is already started");
+    }
+    server = new ServerSocket();
+    server.bind(new InetSocketAddress(port), maxSessions);
+    Thread acceptor = new Thread(this::accept, "dungeon-server");
+    acceptor.start();
+    return server.getLocalPort();
+  }
+
+  /**
+   * The number of sessions being played.
+   *
+   * @return number of open sessions
+   */
+  public int getActiveSessions() {
+    return maxSessions - permits.availablePermits();
+  }
+
+  // accepts connections until the server is closed
+  private void accept() {
+    while (!server.isClosed()) {
+      Socket socket;
+      try {
+        socket = server.accept();
+      } catch (IOException e) {
+        // the server was closed
+        return;
+      }
+      if (!permits.tryAcquire()) {
+        reject(socket);
+        continue;
+      }
+      sessions.add(socket);
+      Thread t = new Thread(null, () -> play(socket), "dungeon-session-"
+              + count.incrementAndGet(), STACK_SIZE);
+      t.setDaemon(true);
+      t.start();
+    }
+  }
+
+  // tells a player that the server is full and disconnects them
+  private static void reject(Socket socket) {
+    try (Socket s = socket) {
+      s.getOutputStream().write("Server is full, try again later\n"
+              .getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      // the player is gone already
+    }
+  }
+
+  // plays the game of one session and closes it at the end
+  private void play(Socket socket) {
+    try (Socket s = socket) {
+      s.setSoTimeout(idleMillis);
+      s.setTcpNoDelay(true);
+      Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(),
+              StandardCharsets.UTF_8), BUFFER_SIZE);
+      Readable in = new FlushingReader(new BufferedReader(new InputStreamReader(
+              s.getInputStream(), StandardCharsets.UTF_8), BUFFER_SIZE), out);
+      Dungeon dungeon;
+      try {
+        dungeon = createDungeon(settings);
+      } catch (IllegalArgumentException e) {
+        out.write("No dungeon can be created: " + e.getMessage() + "\n");
+        out.flush();
+        return;
+      }
+      new DungeonConsoleController(in, out).startDungeon(dungeon);
+      out.flush();
+    } catch (IOException | IllegalStateException e) {
+      // the player disconnected or was idle for too long
+    } finally {
+      sessions.remove(socket);
+      permits.release();
+    }
+  }
+
+  /**
+   * Creates a new random dungeon of some settings. Settings which only some
+   * dungeons cannot be created with are tried again a few times.
+   *
+   * @param settings settings of the dungeon
+   * @return the new dungeon
+   * @throws IllegalArgumentException if no dungeon of the settings was created
+   */
+  static Dungeon createDungeon(DungeonSettings settings) {
+    for (int i = 1; ; i++) {
+      try {
+        return settings.createDungeon(new RandomClass());
+      } catch (IllegalArgumentException e) {
+        if (i == CREATE_ATTEMPTS) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Stops accepting connections and disconnects every player.
+   *
+   * @throws IOException if the server cannot be closed
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (server != null) {
+      server.close();
+    }
+    for (Socket s : sessions) {
+      s.close();
+    }
+  }
+
+  /**
+   * Input of a session which sends the output written so far before it waits
+   * for the player, so the response to a command goes out in one piece. It
+   * ends the input when a word is longer than any command can be.
+   */
+  private static final class FlushingReader implements Readable {
+    private final BufferedReader in;
+    private final Writer out;
+    private int word;
+
+    private FlushingReader(BufferedReader in, Writer out) {
+      this.in = in;
+      this.out = out;
+    }
+
+    @Override
+    public int read(CharBuffer cb) throws IOException {
+      if (!in.ready()) {
+        out.flush();
+      }
+      int start = cb.position();
+      int n = in.read(cb);
+      for (int i = start; i < start + n; i++) {
+        word = Character.isWhitespace(cb.get(i)) ? 0 : word + 1;
+        if (word > MAX_WORD) {
+          throw new IOException("Word is too long");
+        }
+      }
+      return n;
+    }
+  }
+}
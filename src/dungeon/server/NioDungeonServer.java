@@ -0,0 +1,366 @@
+package dungeon.server;
+
+import dungeon.model.Dungeon;
+import dungeon.model.DungeonSettings;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hosts text games of the dungeon for many players over TCP on a single thread,
+ * which waits on all the connections at once with a selector instead of
+ * blocking a thread per player. The commands of a player are read from the
+ * bytes as they arrive, and all the answers to what was read are sent back in
+ * one write from pooled buffers. The dungeon of a new player is created on a
+ * separate thread, so a large dungeon does not hold up the other players; the
+ * player is greeted once it is ready. The games are the same as those of
+ * {@link DungeonServer}: the number of sessions is limited, and a player who
+ * sends nothing for too long is disconnected.
+ */
+public final class NioDungeonServer implements AutoCloseable {
+  private static final int BUFFER_SIZE = 4096;
+  private static final int POOLED_BUFFERS = 1024;
+  private static final long SWEEP_MILLIS = 1000;
+  private static final byte[] FULL = "Server is full, try again later\n"
+          .getBytes(StandardCharsets.UTF_8);
+
+  private final DungeonSettings settings;
+  private final int maxSessions;
+  private final long idleMillis;
+  private final BufferPool pool;
+  private final ByteBuffer input;
+  private final ExecutorService creators;
+  private final Queue<Created> created;
+  private final Set<SocketChannel> waiting;
+  private volatile int sessions;
+  private volatile boolean running;
+  private Selector selector;
+  private ServerSocketChannel server;
+  private Thread loop;
+
+  /**
+   * The server is created for dungeons of some settings. It does not accept
+   * connections until it is started.
+   *
+   * @param settings settings of the dungeon of every session
+   * @param maxSessions most sessions played at the same time
+   * @param idleMillis time a session can wait for the player before it is
+   *                   closed, in milliseconds
+   * @throws IllegalArgumentException if settings is null or maxSessions or
+   *                                  idleMillis is less than 1
+   */
+  public NioDungeonServer(DungeonSettings settings, int maxSessions, long idleMillis) {
+    if (settings == null) {
+      throw new IllegalArgumentException("Settings cannot be null");
+    }
+    if (maxSessions < 1 || idleMillis < 1) {
+      throw new IllegalArgumentException("Sessions and idle time should be at least 1");
+    }
+    this.settings = settings;
+    this.maxSessions = maxSessions;
+    this.idleMillis = idleMillis;
+    this.pool = new BufferPool(BUFFER_SIZE, POOLED_BUFFERS);
+    this.input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    AtomicInteger count = new AtomicInteger();
+    int threads = Runtime.getRuntime().availableProcessors();
+    this.creators = Executors.newFixedThreadPool(threads, r -> {
+      Thread t = new Thread(r, "dungeon-nio-creator-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    this.created = new ConcurrentLinkedQueue<>();
+    this.waiting = new HashSet<>();
+  }
+
+  /**
+   * Starts accepting connections on a port of all the addresses of the machine.
+   * The sessions are served on a thread of the server, so this returns at once.
+   *
+   * @param port port to listen on, 0 for any free port
+   * @return the port the server listens on
+   * @throws IOException if the port cannot be listened on
+   * @throws IllegalStateException if the server was already started
+   */
+  public synchronized int start(int port) throws IOException {
+    if (selector != null) {
+      throw new IllegalStateException("Server is already started");
+    }
+    selector = Selector.open();
+    server = ServerSocketChannel.open();
+    server.bind(new InetSocketAddress(port), maxSessions);
+    server.configureBlocking(false);
+    server.register(selector, SelectionKey.OP_ACCEPT);
+    running = true;
+    loop = new Thread(this::serve, "dungeon-nio-server");
+    loop.start();
+    return ((InetSocketAddress) server.getLocalAddress()).getPort();
+  }
+
+  /**
+   * The number of sessions being played.
+   *
+   * @return number of open sessions
+   */
+  public int getActiveSessions() {
+    return sessions;
+  }
+
+  /**
+   * The pool the output of the sessions is buffered in.
+   *
+   * @return pool of the output buffers
+   */
+  BufferPool getBufferPool() {
+    return pool;
+  }
+
+  // serves every connection until the server is closed
+  private void serve() {
+    long sweep = System.currentTimeMillis() + SWEEP_MILLIS;
+    try {
+      while (running) {
+        selector.select(SWEEP_MILLIS);
+        register();
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          try {
+            if (!key.isValid()) {
+              continue;
+            }
+            if (key.isAcceptable()) {
+              accept();
+            }
+            else if (key.isReadable()) {
+              read(key);
+            }
+            else if (key.isWritable()) {
+              flush(key);
+            }
+          } catch (IOException e) {
+            // the player disconnected
+            close(key);
+          }
+        }
+        long now = System.currentTimeMillis();
+        if (now >= sweep) {
+          closeIdle(now);
+          sweep = now + SWEEP_MILLIS;
+        }
+      }
+    } catch (IOException e) {
+      // the selector failed, the server stops
+    } finally {
+      creators.shutdownNow();
+      for (SocketChannel channel : waiting.toArray(new SocketChannel[0])) {
+        close(channel);
+      }
+      for (SelectionKey key : selector.keys()) {
+        close(key);
+      }
+      try {
+        selector.close();
+        server.close();
+      } catch (IOException e) {
+        // nothing more can be done
+      }
+    }
+  }
+
+  // accepts every waiting connection and starts creating the dungeons of the players,
+  // counting them as sessions already so the limit holds while they wait
+  private void accept() throws IOException {
+    SocketChannel channel;
+    while ((channel = server.accept()) != null) {
+      channel.configureBlocking(false);
+      if (sessions >= maxSessions) {
+        reject(channel, FULL);
+        continue;
+      }
+      SocketChannel c = channel;
+      waiting.add(c);
+      sessions++;
+      CompletableFuture.supplyAsync(() -> DungeonServer.createDungeon(settings), creators)
+              .whenComplete((dungeon, e) -> {
+                created.add(new Created(c, dungeon, e));
+                selector.wakeup();
+              });
+    }
+  }
+
+  // greets the players whose dungeons are ready and starts reading their commands
+  private void register() {
+    Created d;
+    while ((d = created.poll()) != null) {
+      if (d.dungeon == null) {
+        Throwable e = d.error instanceof CompletionException ? d.error.getCause() : d.error;
+        reject(d.channel, ("No dungeon can be created: " + e.getMessage() + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        waiting.remove(d.channel);
+        sessions--;
+        continue;
+      }
+      SelectionKey key;
+      ResponseBuffer out = new ResponseBuffer(pool);
+      try {
+        d.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        key = d.channel.register(selector, 0, new Connection(new ConsoleSession(d.dungeon,
+                out), out));
+      } catch (IOException e) {
+        // the player left while waiting
+        out.release();
+        close(d.channel);
+        continue;
+      }
+      waiting.remove(d.channel);
+      try {
+        flush(key);
+      } catch (IOException e) {
+        close(key);
+      }
+    }
+  }
+
+  // tells a player why they cannot play, as far as one write gets, and disconnects them
+  private static void reject(SocketChannel channel, byte[] message) {
+    try (SocketChannel c = channel) {
+      c.write(ByteBuffer.wrap(message));
+    } catch (IOException e) {
+      // the player is gone already
+    }
+  }
+
+  // runs the commands in what the player sent and answers them
+  private void read(SelectionKey key) throws IOException {
+    Connection c = (Connection) key.attachment();
+    input.clear();
+    if (((SocketChannel) key.channel()).read(input) < 0) {
+      close(key);
+      return;
+    }
+    input.flip();
+    c.lastRead = System.currentTimeMillis();
+    c.session.read(input);
+    flush(key);
+  }
+
+  // sends the answers waiting for the player, and waits to read more only once
+  // they are sent, so a player who does not read cannot make the server buffer more
+  private void flush(SelectionKey key) throws IOException {
+    Connection c = (Connection) key.attachment();
+    if (!c.out.writeTo((SocketChannel) key.channel())) {
+      key.interestOps(SelectionKey.OP_WRITE);
+    }
+    else if (c.session.isEnded()) {
+      close(key);
+    }
+    else {
+      key.interestOps(SelectionKey.OP_READ);
+    }
+  }
+
+  // disconnects the players who have not sent anything for too long
+  private void closeIdle(long now) {
+    for (SelectionKey key : selector.keys()) {
+      Object c = key.attachment();
+      if (c instanceof Connection && now - ((Connection) c).lastRead > idleMillis) {
+        close(key);
+      }
+    }
+  }
+
+  // disconnects a player whose dungeon is being created
+  private void close(SocketChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // the connection is gone either way
+    }
+    if (waiting.remove(channel)) {
+      sessions--;
+    }
+  }
+
+  private void close(SelectionKey key) {
+    key.cancel();
+    try {
+      key.channel().close();
+    } catch (IOException e) {
+      // the connection is gone either way
+    }
+    Object c = key.attachment();
+    if (c instanceof Connection) {
+      key.attach(null);
+      ((Connection) c).out.release();
+      sessions--;
+    }
+  }
+
+  /**
+   * Stops accepting connections and disconnects every player. It waits until
+   * the thread of the server has stopped, unless the waiting thread is
+   * interrupted.
+   */
+  @Override
+  public synchronized void close() {
+    if (loop == null) {
+      return;
+    }
+    running = false;
+    selector.wakeup();
+    try {
+      loop.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * The dungeon created for a player who connected, or why it could not be.
+   */
+  private static final class Created {
+    private final SocketChannel channel;
+    private final Dungeon dungeon;
+    private final Throwable error;
+
+    private Created(SocketChannel channel, Dungeon dungeon, Throwable error) {
+      this.channel = channel;
+      this.dungeon = dungeon;
+      this.error = error;
+    }
+  }
+
+  /**
+   * A connected player: the game, its waiting output and when the player last
+   * sent anything.
+   */
+  private static final class Connection {
+    private final ConsoleSession session;
+    private final ResponseBuffer out;
+    private long lastRead;
+
+    private Connection(ConsoleSession session, ResponseBuffer out) {
+      this.session = session;
+      this.out = out;
+      this.lastRead = System.currentTimeMillis();
+    }
+  }
+}
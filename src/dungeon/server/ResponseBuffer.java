@@ -0,0 +1,109 @@
+package dungeon.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+/**
+ * The output of a session, encoded as UTF-8 into pooled buffers as it is
+ * appended, and sent with a single gathering write however many pieces it was
+ * appended in. Nothing can be appended while a write is only partly done.
+ */
+final class ResponseBuffer implements Appendable {
+  private final BufferPool pool;
+  private final CharsetEncoder encoder;
+  private final ArrayDeque<ByteBuffer> buffers;
+  private ByteBuffer[] pending;
+  private boolean writing;
+
+  /**
+   * The buffer is created empty.
+   *
+   * @param pool pool the buffers are taken from and given back to
+   * @throws IllegalArgumentException if pool is null
+   */
+  ResponseBuffer(BufferPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool cannot be null");
+    }
+    this.pool = pool;
+    this.encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.buffers = new ArrayDeque<>();
+    this.pending = new ByteBuffer[1];
+  }
+
+  @Override
+  public Appendable append(CharSequence csq) {
+    if (writing) {
+      throw new IllegalStateException("Cannot append while a write is not finished");
+    }
+    CharBuffer in = CharBuffer.wrap(csq == null ? "null" : csq);
+    ByteBuffer last = buffers.peekLast();
+    if (last == null) {
+      last = pool.take();
+      buffers.addLast(last);
+    }
+    while (encoder.encode(in, last, false).isOverflow()) {
+      last = pool.take();
+      buffers.addLast(last);
+    }
+    return this;
+  }
+
+  @Override
+  public Appendable append(CharSequence csq, int start, int end) {
+    return append((csq == null ? "null" : csq).subSequence(start, end));
+  }
+
+  @Override
+  public Appendable append(char c) {
+    return append(String.valueOf(c));
+  }
+
+  /**
+   * Writes as much of the output as the channel takes. Buffers which are sent
+   * completely are given back to the pool.
+   *
+   * @param channel channel to write to
+   * @return true if all of the output was written
+   * @throws IOException if the channel cannot be written to
+   */
+  boolean writeTo(GatheringByteChannel channel) throws IOException {
+    if (buffers.isEmpty()) {
+      return true;
+    }
+    if (!writing) {
+      for (ByteBuffer b : buffers) {
+        b.flip();
+      }
+      writing = true;
+    }
+    pending = buffers.toArray(pending);
+    channel.write(pending, 0, buffers.size());
+    while (!buffers.isEmpty() && !buffers.peekFirst().hasRemaining()) {
+      pool.give(buffers.pollFirst());
+    }
+    if (buffers.isEmpty()) {
+      writing = false;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Drops the output not written yet and gives its buffers back to the pool.
+   */
+  void release() {
+    while (!buffers.isEmpty()) {
+      pool.give(buffers.pollFirst());
+    }
+    writing = false;
+  }
+}
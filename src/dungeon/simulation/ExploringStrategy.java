@@ -0,0 +1,67 @@
+package dungeon.simulation;
+
+import dungeon.model.Directions;
+import dungeon.model.Dungeon;
+import dungeon.model.RandomGenerator;
+
+import java.util.Arrays;
+
+/**
+ * A strategy which picks up every item it finds, moves to locations it has not
+ * visited before when it can, and shoots when it smells an Otyugh close by.
+ * When the smell gets worse it shoots twice through every exit of its location
+ * at a distance of 1, enough to kill an Otyugh next to it, before moving on.
+ */
+public final class ExploringStrategy implements PlayerStrategy {
+  private int shotFrom = -1;
+  private final int[] shots = new int[Directions.values().length];
+
+  @Override
+  public void takeTurn(Dungeon dungeon, RandomGenerator rand) {
+    if (dungeon == null || rand == null) {
+      throw new IllegalArgumentException("Dungeon and random generator cannot be null");
+    }
+    int n = dungeon.getCurrentLocation();
+    if (dungeon.locationArrows(n) > 0) {
+      dungeon.pickUpArrow();
+      return;
+    }
+    if (!dungeon.locationTreasure(n).isEmpty()) {
+      dungeon.pickUpTreasure();
+      return;
+    }
+    int exits = dungeon.locationExitMask(n);
+    if (n != shotFrom) {
+      shotFrom = n;
+      Arrays.fill(shots, 0);
+    }
+    if (dungeon.playerArrows() > 0 && dungeon.isMonsterClose().contains("worse")) {
+      for (Directions d : Directions.values()) {
+        if ((exits & d.getMask()) != 0 && shots[d.ordinal()] < 2) {
+          shots[d.ordinal()]++;
+          dungeon.shootArrow(d.name(), 1);
+          return;
+        }
+      }
+    }
+    dungeon.movePlayer(chooseExit(dungeon, n, exits, rand).name());
+  }
+
+  // a random exit to an unvisited location, or any random exit if all are visited
+  private Directions chooseExit(Dungeon dungeon, int n, int exits, RandomGenerator rand) {
+    int[][] state = dungeon.gameState();
+    int rows = state.length;
+    int columns = state[0].length;
+    int unvisited = 0;
+    for (Directions d : Directions.values()) {
+      if ((exits & d.getMask()) != 0) {
+        int x = Math.floorMod(n / columns + d.getX(), rows);
+        int y = Math.floorMod(n % columns + d.getY(), columns);
+        if (state[x][y] == 0) {
+          unvisited |= d.getMask();
+        }
+      }
+    }
+    return RandomWalkStrategy.randomExit(unvisited != 0 ? unvisited : exits, rand);
+  }
+}
@@ -0,0 +1,24 @@
+package dungeon.simulation;
+
+import dungeon.model.Dungeon;
+import dungeon.model.RandomGenerator;
+
+/**
+ * A strategy plays a dungeon game without a user, one turn at a time. A new
+ * strategy is created for every game, so a strategy can remember what it has
+ * seen during the game.
+ */
+public interface PlayerStrategy {
+
+  /**
+   * Takes the next turn of the game by giving one command to the dungeon:
+   * moving, picking up an item or shooting an arrow. A command the dungeon
+   * rejects still counts as a turn.
+   *
+   * @param dungeon the game being played, which is not over
+   * @param rand random generator for the choices of the strategy
+   * @throws IllegalArgumentException if the dungeon rejects the command
+   * @throws IllegalStateException if the dungeon rejects the command
+   */
+  void takeTurn(Dungeon dungeon, RandomGenerator rand);
+}
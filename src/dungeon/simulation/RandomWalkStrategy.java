@@ -0,0 +1,45 @@
+package dungeon.simulation;
+
+import dungeon.model.Directions;
+import dungeon.model.Dungeon;
+import dungeon.model.RandomGenerator;
+
+/**
+ * A strategy which picks up every item it finds and otherwise moves through a
+ * random exit of its location. It never shoots, so it is a baseline for how
+ * dangerous a dungeon is to a player who ignores the Otyughs.
+ */
+public final class RandomWalkStrategy implements PlayerStrategy {
+
+  @Override
+  public void takeTurn(Dungeon dungeon, RandomGenerator rand) {
+    if (dungeon == null || rand == null) {
+      throw new IllegalArgumentException("Dungeon and random generator cannot be null");
+    }
+    int n = dungeon.getCurrentLocation();
+    if (dungeon.locationArrows(n) > 0) {
+      dungeon.pickUpArrow();
+    } else if (!dungeon.locationTreasure(n).isEmpty()) {
+      dungeon.pickUpTreasure();
+    } else {
+      dungeon.movePlayer(randomExit(dungeon.locationExitMask(n), rand).name());
+    }
+  }
+
+  /**
+   * Chooses one of the directions of an exit mask with equal chance.
+   *
+   * @param exits exit mask with at least one direction set
+   * @param rand random generator to choose with
+   * @return the direction chosen
+   */
+  static Directions randomExit(int exits, RandomGenerator rand) {
+    int choice = rand.nextInt(Integer.bitCount(exits));
+    for (Directions d : Directions.values()) {
+      if ((exits & d.getMask()) != 0 && choice-- == 0) {
+        return d;
+      }
+    }
+    throw new IllegalArgumentException("Location has no exits");
+  }
+}
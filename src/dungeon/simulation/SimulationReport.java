@@ -0,0 +1,152 @@
+package dungeon.simulation;
+
+/**
+ * The outcome of a batch of simulated games. A game is won or lost when it ends,
+ * unfinished when the strategy ran out of turns, and failed when the dungeon of
+ * the game could not be created.
+ */
+public final class SimulationReport {
+  private final long games;
+  private final long wins;
+  private final long losses;
+  private final long unfinished;
+  private final long failed;
+  private final long finishedMoves;
+  private final int minMoves;
+  private final int maxMoves;
+  private final long elapsedNanos;
+
+  /**
+   * The report is created from the totals of the games played.
+   *
+   * @param games number of games played
+   * @param wins number of games won
+   * @param losses number of games lost
+   * @param unfinished number of games not over after the maximum number of turns
+   * @param failed number of games whose dungeon could not be created
+   * @param finishedMoves total number of turns of the games that were won or lost
+   * @param minMoves fewest turns of a game that was won or lost
+   * @param maxMoves most turns of a game that was won or lost
+   * @param elapsedNanos time taken to play the games in nanoseconds
+   */
+  SimulationReport(long games, long wins, long losses, long unfinished, long failed,
+                   long finishedMoves, int minMoves, int maxMoves, long elapsedNanos) {
+    this.games = games;
+    this.wins = wins;
+    this.losses = losses;
+    this.unfinished = unfinished;
+    this.failed = failed;
+    this.finishedMoves = finishedMoves;
+    this.minMoves = minMoves;
+    this.maxMoves = maxMoves;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Number of games played.
+   *
+   * @return number of games
+   */
+  public long getGames() {
+    return games;
+  }
+
+  /**
+   * Number of games the player won.
+   *
+   * @return number of wins
+   */
+  public long getWins() {
+    return wins;
+  }
+
+  /**
+   * Number of games the player was eaten in.
+   *
+   * @return number of losses
+   */
+  public long getLosses() {
+    return losses;
+  }
+
+  /**
+   * Number of games that were not over after the maximum number of turns.
+   *
+   * @return number of unfinished games
+   */
+  public long getUnfinished() {
+    return unfinished;
+  }
+
+  /**
+   * Number of games whose dungeon could not be created from the seed of the game.
+   *
+   * @return number of failed games
+   */
+  public long getFailed() {
+    return failed;
+  }
+
+  /**
+   * Share of the games played that were won.
+   *
+   * @return win rate between 0 and 1
+   */
+  public double getWinRate() {
+    return games == 0 ? 0 : (double) wins / games;
+  }
+
+  /**
+   * Average number of turns of the games that were won or lost.
+   *
+   * @return average turns to finish a game
+   */
+  public double getAverageMoves() {
+    return wins + losses == 0 ? 0 : (double) finishedMoves / (wins + losses);
+  }
+
+  /**
+   * Fewest turns of a game that was won or lost.
+   *
+   * @return minimum turns to finish, 0 if no game finished
+   */
+  public int getMinMoves() {
+    return minMoves;
+  }
+
+  /**
+   * Most turns of a game that was won or lost.
+   *
+   * @return maximum turns to finish, 0 if no game finished
+   */
+  public int getMaxMoves() {
+    return maxMoves;
+  }
+
+  /**
+   * Time taken to play the games.
+   *
+   * @return elapsed time in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Number of games played per second of elapsed time.
+   *
+   * @return throughput in games per second
+   */
+  public double getGamesPerSecond() {
+    return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("games %d, won %d, lost %d, unfinished %d, failed %d%n"
+                    + "win rate %.2f%%, moves to finish %.1f (min %d, max %d)%n"
+                    + "%.3f s, %.0f games/s",
+            games, wins, losses, unfinished, failed, getWinRate() * 100, getAverageMoves(),
+            minMoves, maxMoves, elapsedNanos / 1e9, getGamesPerSecond());
+  }
+}
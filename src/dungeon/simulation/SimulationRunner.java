@@ -0,0 +1,194 @@
+package dungeon.simulation;
+
+import dungeon.model.Dungeon;
+import dungeon.model.DungeonSettings;
+import dungeon.model.GameEnded;
+import dungeon.model.RandomGenerator;
+import dungeon.model.RandomSeedClass;
+import dungeon.model.SplittableRandomClass;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays batches of dungeon games without a view or a controller, to measure how a
+ * strategy does on dungeons of some settings. The games are split between the
+ * threads of a fork join pool. Every game gets its own seed for the dungeon, derived
+ * from the seed of the batch and the number of the game. The strategies take their
+ * numbers from a {@link SplittableRandomClass} seeded by the batch, which is split
+ * along with the range of games, and again for every game, so no generator is shared
+ * between threads. The ranges are always split in the same way, so a batch gives the
+ * same results however many threads play it.
+ */
+public final class SimulationRunner {
+  private static final int GAMES_PER_TASK = 256;
+
+  private final DungeonSettings settings;
+  private final Supplier<? extends PlayerStrategy> strategies;
+  private final int maxTurns;
+  private final ForkJoinPool pool;
+
+  /**
+   * The runner is created for dungeons of the given settings and plays its games
+   * on the common fork join pool.
+   *
+   * @param settings settings of the dungeon of every game
+   * @param strategies creates a new strategy for every game, from any thread
+   * @param maxTurns turns after which a game that is not over is left unfinished
+   * @throws IllegalArgumentException if settings or strategies is null
+   * @throws IllegalArgumentException if maxTurns is less than 1
+   */
+  public SimulationRunner(DungeonSettings settings, Supplier<? extends PlayerStrategy> strategies,
+                          int maxTurns) {
+    this(settings, strategies, maxTurns, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * The runner is created for dungeons of the given settings and plays its games
+   * on the given pool.
+   *
+   * @param settings settings of the dungeon of every game
+   * @param strategies creates a new strategy for every game, from any thread
+   * @param maxTurns turns after which a game that is not over is left unfinished
+   * @param pool pool whose threads play the games
+   * @throws IllegalArgumentException if settings, strategies or pool is null
+   * @throws IllegalArgumentException if maxTurns is less than 1
+   */
+  public SimulationRunner(DungeonSettings settings, Supplier<? extends PlayerStrategy> strategies,
+                          int maxTurns, ForkJoinPool pool) {
+    if (settings == null || strategies == null || pool == null) {
+      throw new IllegalArgumentException("Values cannot be null");
+    }
+    if (maxTurns < 1) {
+      throw new IllegalArgumentException("Maximum turns should be at least 1");
+    }
+    this.settings = settings;
+    this.strategies = strategies;
+    this.maxTurns = maxTurns;
+    this.pool = pool;
+  }
+
+  /**
+   * Plays a batch of games and waits for all of them to finish.
+   *
+   * @param games number of games to play
+   * @param seed seed of the batch
+   * @return report of the outcome of the games
+   * @throws IllegalArgumentException if games is negative
+   */
+  public SimulationReport run(long games, long seed) {
+    if (games < 0) {
+      throw new IllegalArgumentException("Number of games cannot be negative");
+    }
+    long start = System.nanoTime();
+    Tally tally = pool.invoke(new Batch(this, seed, new SplittableRandomClass(seed), 0, games));
+    long elapsed = System.nanoTime() - start;
+    return new SimulationReport(games, tally.wins, tally.losses, tally.unfinished, tally.failed,
+            tally.finishedMoves, tally.wins + tally.losses == 0 ? 0 : tally.minMoves,
+            tally.maxMoves, elapsed);
+  }
+
+  // plays one game, with the strategy taking its numbers from rand, and adds its outcome to
+  // the tally
+  private void play(long seed, long game, RandomGenerator rand, Tally tally) {
+    Dungeon dungeon;
+    try {
+      dungeon = settings.createDungeon(new RandomSeedClass(gameSeed(seed, game)));
+    } catch (IllegalArgumentException e) {
+      tally.failed++;
+      return;
+    }
+    boolean[] won = new boolean[1];
+    dungeon.subscribe(GameEnded.class, e -> won[0] = e.isWon());
+    PlayerStrategy strategy = strategies.get();
+    int turns = 0;
+    while (!dungeon.gameOver() && turns < maxTurns) {
+      turns++;
+      try {
+        strategy.takeTurn(dungeon, rand);
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        // the dungeon rejected the command, which still used up the turn
+      }
+    }
+    if (!dungeon.gameOver()) {
+      tally.unfinished++;
+      return;
+    }
+    if (won[0]) {
+      tally.wins++;
+    } else {
+      tally.losses++;
+    }
+    tally.finishedMoves += turns;
+    tally.minMoves = Math.min(tally.minMoves, turns);
+    tally.maxMoves = Math.max(tally.maxMoves, turns);
+  }
+
+  // a well mixed seed for the dungeon of a game, positive as RandomSeedClass requires
+  private static int gameSeed(long seed, long game) {
+    long z = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return (int) (z ^ (z >>> 31)) & Integer.MAX_VALUE;
+  }
+
+  // totals of the games played by one task
+  private static final class Tally {
+    private long wins;
+    private long losses;
+    private long unfinished;
+    private long failed;
+    private long finishedMoves;
+    private int minMoves = Integer.MAX_VALUE;
+    private int maxMoves;
+
+    private Tally add(Tally other) {
+      wins += other.wins;
+      losses += other.losses;
+      unfinished += other.unfinished;
+      failed += other.failed;
+      finishedMoves += other.finishedMoves;
+      minMoves = Math.min(minMoves, other.minMoves);
+      maxMoves = Math.max(maxMoves, other.maxMoves);
+      return this;
+    }
+  }
+
+  // plays the games numbered from first up to last for the runner, splitting large ranges
+  // in two. The task owns its generator, which only its thread uses
+  private static final class Batch extends RecursiveTask<Tally> {
+    private static final long serialVersionUID = 1L;
+
+    private final SimulationRunner runner;
+    private final long seed;
+    private final SplittableRandomClass random;
+    private final long first;
+    private final long last;
+
+    private Batch(SimulationRunner runner, long seed, SplittableRandomClass random, long first,
+                  long last) {
+      this.runner = runner;
+      this.seed = seed;
+      this.random = random;
+      this.first = first;
+      this.last = last;
+    }
+
+    @Override
+    protected Tally compute() {
+      if (last - first <= GAMES_PER_TASK) {
+        Tally tally = new Tally();
+        for (long game = first; game < last; game++) {
+          runner.play(seed, game, random.split(), tally);
+        }
+        return tally;
+      }
+      long middle = (first + last) >>> 1;
+      Batch right = new Batch(runner, seed, random.split(), middle, last);
+      right.fork();
+      Tally left = new Batch(runner, seed, random, first, middle).compute();
+      return left.add(right.join());
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package dungeon.view;
 
+import dungeon.model.DungeonEvent;
 import dungeon.model.ReadOnlyDungeon;
 
 import java.awt.Dimension;
@@ -10,6 +11,7 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.function.Consumer;
 import javax.imageio.ImageIO;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -19,10 +21,19 @@ import javax.swing.JPanel;
  * This panel is used to display the description of the game at
  * the current moment. This includes the outcome of every move the
  * player takes and what items the player has collected till now.
+ * The description is read from the model when an event of the game
+ * is published, not on every paint.
  */
 final class DescriptionPanel extends JPanel {
 
-  private final ReadOnlyDungeon dungeonModel;
+  private final Consumer<DungeonEvent> listener;
+  private ReadOnlyDungeon dungeonModel;
+  private String[] description;
+  private String smell;
+  private int arrows;
+  private int rubies;
+  private int sapphires;
+  private int diamonds;
   private BufferedImage arrow = null;
   private BufferedImage ruby = null;
   private BufferedImage sapphire = null;
@@ -45,10 +56,8 @@ final class DescriptionPanel extends JPanel {
     } catch (IOException e) {
       e.printStackTrace();
     }
-    if (dungeon == null) {
-      throw new IllegalArgumentException("Model cannot be null");
-    }
-    this.dungeonModel = dungeon;
+    this.listener = e -> update();
+    setDungeon(dungeon);
     setLayout(new GridBagLayout());
 
     // setting the labels for description of each move
@@ -70,6 +79,36 @@ final class DescriptionPanel extends JPanel {
     add(smellDesc, c);
   }
 
+  /**
+   * Shows the description of another dungeon. The panel stops listening
+   * to the events of the previous dungeon.
+   *
+   * @param dungeon read only version of the model
+   * @throws IllegalArgumentException if dungeon is null
+   */
+  void setDungeon(ReadOnlyDungeon dungeon) {
+    if (dungeon == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    if (dungeonModel != null) {
+      dungeonModel.unsubscribe(listener);
+    }
+    dungeonModel = dungeon;
+    dungeon.subscribe(DungeonEvent.class, listener);
+    update();
+  }
+
+  // reads the description from the model and schedules a repaint
+  private void update() {
+    description = dungeonModel.displayLocationDescription().split("\n");
+    smell = dungeonModel.gameOver() ? "" : dungeonModel.isMonsterClose();
+    arrows = dungeonModel.playerArrows();
+    rubies = dungeonModel.playerRuby();
+    sapphires = dungeonModel.playerSapphire();
+    diamonds = dungeonModel.playerDiamond();
+    repaint();
+  }
+
   @Override
   protected void paintComponent(Graphics g) {
     super.paintComponent(g);
@@ -78,24 +117,21 @@ final class DescriptionPanel extends JPanel {
     g2d.setFont(labelFont);
 
     // description of player's current location
-    String[] description = dungeonModel.displayLocationDescription().split("\n");
     g2d.drawString(description[0], 30, 150);
     if (description.length > 1) {
       g2d.drawString(description[1], 30, 175);
     }
-    if (!dungeonModel.gameOver()) {
-      g2d.drawString(dungeonModel.isMonsterClose(), 30, 200);
-    }
+    g2d.drawString(smell, 30, 200);
 
     // description of what the player has collected till now
     g2d.drawString("Player details:", 60, 50);
     g2d.drawImage(arrow, 60, 70, 50, 10, null);
-    g2d.drawString("x" + dungeonModel.playerArrows(), 117, 80);
+    g2d.drawString("x" + arrows, 117, 80);
     g2d.drawImage(ruby, 200, 65, 20, 20, null);
-    g2d.drawString("x" + dungeonModel.playerRuby(), 225, 80);
+    g2d.drawString("x" + rubies, 225, 80);
     g2d.drawImage(sapphire, 300, 65, 20, 20, null);
-    g2d.drawString("x" + dungeonModel.playerSapphire(), 325, 80);
+    g2d.drawString("x" + sapphires, 325, 80);
     g2d.drawImage(diamond, 400, 65, 20, 20, null);
-    g2d.drawString("x" + dungeonModel.playerDiamond(), 425, 80);
+    g2d.drawString("x" + diamonds, 425, 80);
   }
 }
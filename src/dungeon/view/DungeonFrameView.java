@@ -26,6 +26,7 @@ import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.WindowConstants;
 
@@ -40,8 +41,9 @@ import javax.swing.WindowConstants;
  */
 public final class DungeonFrameView extends JFrame implements DungeonView {
 
-  private final ReadOnlyDungeon dungeon;
+  private ReadOnlyDungeon dungeon;
   private final DungeonPanel dungeonPanel;
+  private final DescriptionPanel descriptionPanel;
   private JTextField xField;
   private JTextField yField;
   private JTextField interconnectivity;
@@ -81,18 +83,15 @@ public final class DungeonFrameView extends JFrame implements DungeonView {
     sameRestart = new JMenuItem("Same game");
     newRestart = new JMenuItem("New game");
 
-    // dungeon panel
+    // dungeon panel, sized by itself from the dungeon and its zoom level
     dungeonPanel = new DungeonPanel(dungeon);
 
-    dungeonPanel.setPreferredSize(new Dimension(dungeon.getSettings().get(1) * 100 + 75,
-            dungeon.getSettings().get(0) * 100 + 75));
-
     // container
     JPanel container = new JPanel();
     container.setPreferredSize(new Dimension(800, 800));
 
     // description panel
-    DescriptionPanel descriptionPanel = new DescriptionPanel(dungeon);
+    descriptionPanel = new DescriptionPanel(dungeon);
     descriptionPanel.setPreferredSize(new Dimension(800, 250));
 
     // status panel
@@ -111,6 +110,17 @@ public final class DungeonFrameView extends JFrame implements DungeonView {
     // scroll label
     JScrollPane scrollDungeon = new JScrollPane(dungeonPanel);
     JScrollPane scrollDungeon1 = new JScrollPane(container);
+    // zooming with ctrl and the mouse wheel, other wheel events scroll the dungeon
+    dungeonPanel.addMouseWheelListener(e -> {
+      if (!e.isControlDown()) {
+        scrollDungeon.dispatchEvent(SwingUtilities.convertMouseEvent(dungeonPanel, e,
+                scrollDungeon));
+      } else if (e.getWheelRotation() < 0) {
+        dungeonPanel.zoomIn();
+      } else {
+        dungeonPanel.zoomOut();
+      }
+    });
     add(scrollDungeon);
     add(scrollDungeon1);
 
@@ -127,8 +137,10 @@ public final class DungeonFrameView extends JFrame implements DungeonView {
     percentage = new JTextField(dungeon.getSettings().get(3).toString(), 5);
     String[] s = {"Yes", "No"};
     wrapping = new JComboBox<>(s);
+    wrapping.setSelectedIndex(dungeon.getSettings().get(4));
     String[] s2 = {"1", "2", "3"};
     difficulty = new JComboBox<>(s2);
+    difficulty.setSelectedItem(dungeon.getSettings().get(5).toString());
 
     // preferences of menu
     okay.setSize(new Dimension(30, 30));
@@ -266,10 +278,8 @@ public final class DungeonFrameView extends JFrame implements DungeonView {
       @Override
       public void mouseClicked(MouseEvent e) {
         super.mouseClicked(e);
-        // arithmetic to convert panel coords to grid coords
-        int xOnBoard = (e.getX() - 50) >= 0 ? ((e.getX() - 50) / 100) : -1;
-        int yOnBoard = (e.getY() - 50) >= 0 ? ((e.getY() - 50) / 100) : -1;
-        controller.clickListener(xOnBoard, yOnBoard);
+        // convert panel coords to grid coords at the current zoom level
+        controller.clickListener(dungeonPanel.columnAt(e.getX()), dungeonPanel.rowAt(e.getY()));
       }
     };
     dungeonPanel.addMouseListener(clickAdapter);
@@ -315,6 +325,16 @@ public final class DungeonFrameView extends JFrame implements DungeonView {
       public void keyPressed(KeyEvent keyEvent) {
         UIManager.put("OptionPane.minimumSize", new Dimension(250, 250));
         UIManager.put("OptionPane.messageFont", new Font("Arial", Font.BOLD, 18));
+        if (keyEvent.getKeyCode() == KeyEvent.VK_EQUALS
+                || keyEvent.getKeyCode() == KeyEvent.VK_ADD) {
+          dungeonPanel.zoomIn();
+          return;
+        }
+        if (keyEvent.getKeyCode() == KeyEvent.VK_MINUS
+                || keyEvent.getKeyCode() == KeyEvent.VK_SUBTRACT) {
+          dungeonPanel.zoomOut();
+          return;
+        }
         list.add(keyEvent.getKeyCode());
         if (!dungeon.gameOver()) {
           if (keyEvent.getKeyCode() == KeyEvent.VK_P) {
@@ -357,8 +377,20 @@ public final class DungeonFrameView extends JFrame implements DungeonView {
   }
 
   @Override
-  public void refresh() {
-    this.repaint();
+  public void reset(ReadOnlyDungeon dungeon) {
+    if (dungeon == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    this.dungeon = dungeon;
+    dungeonPanel.setDungeon(dungeon);
+    descriptionPanel.setDungeon(dungeon);
+    status.setText("");
+    xField.setText(dungeon.getSettings().get(0).toString());
+    yField.setText(dungeon.getSettings().get(1).toString());
+    interconnectivity.setText(dungeon.getSettings().get(2).toString());
+    percentage.setText(dungeon.getSettings().get(3).toString());
+    wrapping.setSelectedIndex(dungeon.getSettings().get(4));
+    difficulty.setSelectedItem(dungeon.getSettings().get(5).toString());
   }
 
   @Override
@@ -1,37 +1,58 @@
 package dungeon.view;
 
-import dungeon.model.Directions;
+import dungeon.model.CellSnapshot;
+import dungeon.model.DungeonEvent;
+import dungeon.model.DungeonSnapshot;
+import dungeon.model.ItemPicked;
+import dungeon.model.MonsterDamaged;
+import dungeon.model.PlayerMoved;
 import dungeon.model.ReadOnlyDungeon;
+import dungeon.model.ThiefAppeared;
 import dungeon.model.Treasure;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import javax.imageio.ImageIO;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 import javax.swing.JPanel;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
 
 /**
  * Package private class to make it accessible within the package.
  * This panel is used to display the grid of the dungeon with the current
  * state of the game. This includes the outcome of every move the
  * player takes and what is present in the locations the player has visited.
+ * The board is drawn in square tiles of a few locations which are rendered when
+ * they first come into view and kept in a small cache. A paint only draws the
+ * tiles under the clip, and after each event that changes the board only the
+ * locations that changed are redrawn, so the cost of a frame depends on the
+ * screen and not on the size of the dungeon. The board can be zoomed out,
+ * drawing less detail at smaller sizes.
  */
-final class DungeonPanel extends JPanel {
-  private final ReadOnlyDungeon dungeonModel;
-  private BufferedImage black;
-  private BufferedImage location;
-  private BufferedImage ruby;
-  private BufferedImage sapphire;
-  private BufferedImage diamond;
-  private BufferedImage arrow;
-  private BufferedImage monster;
-  private BufferedImage thief;
-  private BufferedImage lessSmell;
-  private BufferedImage moreSmell;
-  private BufferedImage player;
+final class DungeonPanel extends JPanel implements Scrollable {
+  private static final int[] ZOOM_LEVELS = {100, 50, 25, 10, 4};
+  private static final int MARGIN = 50;
+  private static final int TILE_PIXELS = 512;
+  private static final int MAX_CACHED_TILES = 96;
+  private static final Color VISITED = new Color(110, 110, 110);
+
+  private final Map<Long, BufferedImage> tiles;
+  private final Consumer<DungeonEvent> listener;
+  private ReadOnlyDungeon dungeonModel;
+  private int zoom;
+  private int cellSize;
+  private int tileCells;
+  private TileAtlas atlas;
+  private Font arrowFont;
+  private DungeonSnapshot rendered;
+  private String smell;
 
   /**
    * The panel consists of images representing locations
@@ -40,160 +61,291 @@ final class DungeonPanel extends JPanel {
    * @param d read only version of the model
    */
   public DungeonPanel(ReadOnlyDungeon d) {
+    this.tiles = new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+        return size() > MAX_CACHED_TILES;
+      }
+    };
+    this.listener = e -> update();
+    setZoom(0);
+    setDungeon(d);
+  }
+
+  /**
+   * Shows another dungeon on the panel, drawing it from scratch. The panel
+   * stops listening to the events of the previous dungeon.
+   *
+   * @param d read only version of the model
+   * @throws IllegalArgumentException if d is null
+   */
+  void setDungeon(ReadOnlyDungeon d) {
     if (d == null) {
       throw new IllegalArgumentException("Model cannot be null");
     }
-    this.dungeonModel = d;
-    try {
-      black = ImageIO.read(getClass().getResource("/black.png"));
-      ruby = ImageIO.read(getClass().getResource("/ruby.png"));
-      sapphire = ImageIO.read(getClass().getResource("/emerald.png"));
-      diamond = ImageIO.read(getClass().getResource("/diamond.png"));
-      arrow = ImageIO.read(getClass().getResource("/arrow-white.png"));
-      monster = ImageIO.read(getClass().getResource("/otyugh.png"));
-      thief = ImageIO.read( getClass().getResource("/thief.png"));
-      lessSmell = ImageIO.read(getClass().getResource("/stench01.png"));
-      moreSmell = ImageIO.read(getClass().getResource("/stench02.png"));
-      player = ImageIO.read(getClass().getResource("/player.png"));
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
-  }
-
-  // method to grab paths of the required images
-  private void setPathImage(int c) throws IOException {
-    if (dungeonModel.locationMoves(c).size() == 1) {
-      if (dungeonModel.locationMoves(c).contains(Directions.NORTH)) {
-        location = ImageIO.read(getClass().getResource("/N.png"));
-      }
-      if (dungeonModel.locationMoves(c).contains(Directions.SOUTH)) {
-        location = ImageIO.read(getClass().getResource("/S.png"));
-      }
-      if (dungeonModel.locationMoves(c).contains(Directions.EAST)) {
-        location = ImageIO.read(getClass().getResource("/E.png"));
-      }
-      if (dungeonModel.locationMoves(c).contains(Directions.WEST)) {
-        location = ImageIO.read(getClass().getResource("/W.png"));
-      }
-    } else if (dungeonModel.locationMoves(c).size() == 2) {
-      if (dungeonModel.locationMoves(c).contains(Directions.NORTH)
-              && dungeonModel.locationMoves(c).contains(Directions.EAST)) {
-        location = ImageIO.read(getClass().getResource("/NE.png"));
-      }
-      if (dungeonModel.locationMoves(c).contains(Directions.NORTH)
-              && dungeonModel.locationMoves(c).contains(Directions.WEST)) {
-        location = ImageIO.read(getClass().getResource("/WN.png"));
-      }
-      if (dungeonModel.locationMoves(c).contains(Directions.NORTH)
-              && dungeonModel.locationMoves(c).contains(Directions.SOUTH)) {
-        location = ImageIO.read(getClass().getResource("/NS.png"));
-      }
-      if (dungeonModel.locationMoves(c).contains(Directions.EAST)
-              && dungeonModel.locationMoves(c).contains(Directions.SOUTH)) {
-        location = ImageIO.read(getClass().getResource("/ES.png"));
-      }
-      if (dungeonModel.locationMoves(c).contains(Directions.EAST)
-              && dungeonModel.locationMoves(c).contains(Directions.WEST)) {
-        location = ImageIO.read(getClass().getResource("/EW.png"));
-      }
-      if (dungeonModel.locationMoves(c).contains(Directions.SOUTH)
-              && dungeonModel.locationMoves(c).contains(Directions.WEST)) {
-        location = ImageIO.read(getClass().getResource("/SW.png"));
-      }
-    } else if (dungeonModel.locationMoves(c).size() == 3) {
-      if (dungeonModel.locationMoves(c).contains(Directions.EAST)
-              && dungeonModel.locationMoves(c).contains(Directions.SOUTH)
-              && dungeonModel.locationMoves(c).contains(Directions.WEST)) {
-        location = ImageIO.read(getClass().getResource("/ESW.png"));
-      }
-      if (dungeonModel.locationMoves(c).contains(Directions.NORTH)
-              && dungeonModel.locationMoves(c).contains(Directions.EAST)
-              && dungeonModel.locationMoves(c).contains(Directions.SOUTH)) {
-        location = ImageIO.read(getClass().getResource("/NES.png"));
-      }
-      if (dungeonModel.locationMoves(c).contains(Directions.NORTH)
-              && dungeonModel.locationMoves(c).contains(Directions.EAST)
-              && dungeonModel.locationMoves(c).contains(Directions.WEST)) {
-        location = ImageIO.read(getClass().getResource("/NEW.png"));
+    if (dungeonModel != null) {
+      dungeonModel.unsubscribe(listener);
+    }
+    dungeonModel = d;
+    // only the events that change what is drawn on the board
+    d.subscribe(PlayerMoved.class, listener);
+    d.subscribe(ItemPicked.class, listener);
+    d.subscribe(MonsterDamaged.class, listener);
+    d.subscribe(ThiefAppeared.class, listener);
+    rendered = d.getSnapshot();
+    smell = d.isMonsterClose();
+    tiles.clear();
+    revalidate();
+    repaint();
+  }
+
+  /**
+   * Stops following the events of the dungeon. The panel is not updated
+   * any more after this.
+   */
+  void detach() {
+    dungeonModel.unsubscribe(listener);
+  }
+
+  // switches to a zoom level, dropping the tiles drawn for the previous one
+  private void setZoom(int level) {
+    zoom = level;
+    cellSize = ZOOM_LEVELS[level];
+    tileCells = Math.max(1, TILE_PIXELS / cellSize);
+    atlas = cellSize >= ZOOM_LEVELS[2] ? TileAtlas.forCellSize(cellSize) : null;
+    arrowFont = new Font("Helvetica", Font.BOLD, Math.max(1, 14 * cellSize / 100));
+    tiles.clear();
+  }
+
+  /**
+   * Shows the board at a bigger size with more detail, keeping the player in view.
+   */
+  void zoomIn() {
+    if (zoom > 0) {
+      changeZoom(zoom - 1);
+    }
+  }
+
+  /**
+   * Shows the board at a smaller size with less detail, keeping the player in view.
+   */
+  void zoomOut() {
+    if (zoom < ZOOM_LEVELS.length - 1) {
+      changeZoom(zoom + 1);
+    }
+  }
+
+  private void changeZoom(int level) {
+    setZoom(level);
+    revalidate();
+    repaint();
+    scrollRectToVisible(cellBounds(rendered.getCurrentLocation()));
+  }
+
+  /**
+   * Gets the column of the location under a point of the panel.
+   *
+   * @param x horizontal position on the panel
+   * @return column of the location, or -1 if the point is left of the board
+   */
+  int columnAt(int x) {
+    return x - MARGIN >= 0 ? (x - MARGIN) / cellSize : -1;
+  }
+
+  /**
+   * Gets the row of the location under a point of the panel.
+   *
+   * @param y vertical position on the panel
+   * @return row of the location, or -1 if the point is above the board
+   */
+  int rowAt(int y) {
+    return y - MARGIN >= 0 ? (y - MARGIN) / cellSize : -1;
+  }
+
+  /**
+   * Brings the cached tiles up to date with the model, redrawing only the
+   * locations that changed since the last update, and schedules a repaint
+   * of those locations and of the old and new player location.
+   */
+  void update() {
+    DungeonSnapshot snapshot = dungeonModel.getSnapshot();
+    if (snapshot == rendered) {
+      return;
+    }
+    snapshot.forEachChangedCell(rendered, n -> {
+      CellSnapshot c = snapshot.getCell(n);
+      BufferedImage tile = tiles.get(tileKey(c.getX() / tileCells, c.getY() / tileCells));
+      if (tile != null) {
+        Graphics2D g2d = tile.createGraphics();
+        drawCell(g2d, c, (c.getY() % tileCells) * cellSize, (c.getX() % tileCells) * cellSize);
+        g2d.dispose();
       }
-      if (dungeonModel.locationMoves(c).contains(Directions.SOUTH)
-              && dungeonModel.locationMoves(c).contains(Directions.WEST)
-              && dungeonModel.locationMoves(c).contains(Directions.NORTH)) {
-        location = ImageIO.read(getClass().getResource("/SWN.png"));
+      repaint(cellBounds(n));
+    });
+    repaint(cellBounds(rendered.getCurrentLocation()));
+    repaint(cellBounds(snapshot.getCurrentLocation()));
+    rendered = snapshot;
+    smell = dungeonModel.isMonsterClose();
+  }
+
+  /**
+   * Gets the area of the panel covered by a location at the current zoom level.
+   *
+   * @param n cell identifier
+   * @return bounds of the location on the panel
+   */
+  Rectangle cellBounds(int n) {
+    return new Rectangle(MARGIN + (n % rendered.getColumns()) * cellSize,
+            MARGIN + (n / rendered.getColumns()) * cellSize, cellSize, cellSize);
+  }
+
+  private static long tileKey(int tileRow, int tileColumn) {
+    return ((long) tileRow << 32) | tileColumn;
+  }
+
+  // gets a tile from the cache, drawing it if it is not there
+  private BufferedImage tile(int tileRow, int tileColumn) {
+    long key = tileKey(tileRow, tileColumn);
+    BufferedImage tile = tiles.get(key);
+    if (tile == null) {
+      int firstRow = tileRow * tileCells;
+      int firstColumn = tileColumn * tileCells;
+      int noOfRows = Math.min(tileCells, rendered.getRows() - firstRow);
+      int noOfColumns = Math.min(tileCells, rendered.getColumns() - firstColumn);
+      tile = TileAtlas.createImage(noOfColumns * cellSize, noOfRows * cellSize);
+      Graphics2D g2d = tile.createGraphics();
+      for (int i = 0; i < noOfRows; i++) {
+        for (int j = 0; j < noOfColumns; j++) {
+          CellSnapshot c = rendered.getCell((firstRow + i) * rendered.getColumns()
+                  + firstColumn + j);
+          drawCell(g2d, c, j * cellSize, i * cellSize);
+        }
       }
-    } else if (dungeonModel.locationMoves(c).size() == 4) {
-      location = ImageIO.read(getClass().getResource("/NESW.png"));
+      g2d.dispose();
+      tiles.put(key, tile);
     }
+    return tile;
   }
 
+  // draws a location at a position of a tile with the detail of the zoom level
+  private void drawCell(Graphics2D g2d, CellSnapshot c, int x, int y) {
+    // small zoom levels only show which locations are visited
+    if (atlas == null) {
+      g2d.setColor(c.isVisited() ? VISITED : Color.BLACK);
+      g2d.fillRect(x, y, cellSize, cellSize);
+      return;
+    }
+    // unvisited locations of dungeon
+    if (!c.isVisited()) {
+      g2d.drawImage(atlas.unvisited(), x, y, null);
+      return;
+    }
+    // visited locations of dungeon
+    g2d.drawImage(atlas.tile(c.getExitMask()), x, y, null);
+    if (cellSize < ZOOM_LEVELS[1]) {
+      return;
+    }
+    // if location contains ruby
+    if (c.getTreasure(Treasure.RUBY) > 0) {
+      g2d.drawImage(atlas.ruby(), x + scale(20), y + scale(10), null);
+    }
+    // if location contains sapphire
+    if (c.getTreasure(Treasure.SAPPHIRE) > 0) {
+      g2d.drawImage(atlas.sapphire(), x + scale(45), y + scale(10), null);
+    }
+    // if location contains diamond
+    if (c.getTreasure(Treasure.DIAMOND) > 0) {
+      g2d.drawImage(atlas.diamond(), x + scale(70), y + scale(10), null);
+    }
+    // if location contains arrow
+    if (c.getArrows() > 0) {
+      g2d.drawImage(atlas.arrow(), x + scale(30), y + scale(90), null);
+      g2d.setFont(arrowFont);
+      g2d.setColor(Color.WHITE);
+      g2d.drawString(Integer.toString(c.getArrows()), x + scale(30), y + scale(80));
+    }
+    // if location contains Otyugh
+    if (c.getMonsterHealth() > 0) {
+      g2d.drawImage(atlas.monster(), x + scale(10), y + scale(30), null);
+    }
+    // if location contains thief
+    if (c.hasThief()) {
+      g2d.drawImage(atlas.thief(), x + scale(60), y + scale(30), null);
+    }
+  }
+
+  // scales a position within a 100 pixel location to the current cell size
+  private int scale(int offset) {
+    return offset * cellSize / 100;
+  }
 
   @Override
   protected void paintComponent(Graphics g) {
     super.paintComponent(g);
     Graphics2D g2d = (Graphics2D) g;
-
-    for (int i = 0; i < dungeonModel.getSettings().get(1); i++) {
-      for (int j = 0; j < dungeonModel.getSettings().get(0); j++) {
-        try {
-          BufferedImage cellLocation;
-
-          // unvisited locations of dungeon
-          if (dungeonModel.gameState()[j][i] == 0) {
-            cellLocation = black;
-            g2d.drawImage(cellLocation, (i * 100) + 50, (j * 100) + 50, 100, 100, null);
-          }
-          // visited locations of dungeon
-          else {
-            int current = j * dungeonModel.getSettings().get(1) + i;
-            setPathImage(current);
-            cellLocation = location;
-            g2d.drawImage(cellLocation, (i * 100) + 50, (j * 100) + 50, 100, 100, null);
-            // if location contains ruby
-            if (dungeonModel.locationTreasure(current).contains(Treasure.RUBY)) {
-              g2d.drawImage(ruby, (i * 100) + 70, (j * 100) + 60, 20, 20, null);
-            }
-            // if location contains sapphire
-            if (dungeonModel.locationTreasure(current).contains(Treasure.SAPPHIRE)) {
-              g2d.drawImage(sapphire, (i * 100) + 95, (j * 100) + 60, 20, 20, null);
-            }
-            // if location contains diamond
-            if (dungeonModel.locationTreasure(current).contains(Treasure.DIAMOND)) {
-              g2d.drawImage(diamond, (i * 100) + 120, (j * 100) + 60, 20, 20, null);
-            }
-            // if location contains arrow
-            if (dungeonModel.locationArrows(current) > 0) {
-              g2d.drawImage(arrow, (i * 100) + 80, (j * 100) + 140, 50, 5, null);
-              g2d.setFont(new Font("Helvetica", Font.BOLD, 14));
-              g2d.setColor(Color.WHITE);
-              g2d.drawString(Integer.toString(dungeonModel.locationArrows(current)),
-                      (i * 100) + 80, (j * 100) + 130);
-            }
-            // if location contains Otyugh
-            if (dungeonModel.locationMonster(current) != null) {
-              g2d.drawImage(monster, (i * 100) + 60, (j * 100) + 80, 40, 40, null);
-            }
-            // if location contains thief
-            if (dungeonModel.locationThief(current)) {
-              g2d.drawImage(thief, (i * 100) + 110, (j * 100) + 80, 35, 35, null);
-            }
-          }
-
-          g2d.drawImage(player, (dungeonModel.getCurrentLocationY() * 100) + 80,
-                  (dungeonModel.getCurrentLocationX() * 100) + 80, 35, 35, null);
-          // if player location contains low smell
-          if (dungeonModel.isMonsterClose().contains("bad")) {
-            g2d.drawImage(lessSmell, (dungeonModel.getCurrentLocationY() * 100) + 85,
-                    (dungeonModel.getCurrentLocationX() * 100) + 85, 30, 30, null);
-          }
-          // if player location contains high smell
-          if (dungeonModel.isMonsterClose().contains("worse")) {
-            g2d.drawImage(moreSmell, (dungeonModel.getCurrentLocationY() * 100) + 85,
-                    (dungeonModel.getCurrentLocationX() * 100) + 85, 30, 30, null);
-          }
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
+    Rectangle clip = g2d.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, getWidth(), getHeight());
+    }
+    int tilePixels = tileCells * cellSize;
+    int tileRows = (rendered.getRows() + tileCells - 1) / tileCells;
+    int tileColumns = (rendered.getColumns() + tileCells - 1) / tileCells;
+    int firstRow = Math.max(0, (clip.y - MARGIN) / tilePixels);
+    int lastRow = Math.min(tileRows - 1, (clip.y + clip.height - MARGIN) / tilePixels);
+    int firstColumn = Math.max(0, (clip.x - MARGIN) / tilePixels);
+    int lastColumn = Math.min(tileColumns - 1, (clip.x + clip.width - MARGIN) / tilePixels);
+    for (int i = firstRow; i <= lastRow; i++) {
+      for (int j = firstColumn; j <= lastColumn; j++) {
+        g2d.drawImage(tile(i, j), MARGIN + j * tilePixels, MARGIN + i * tilePixels, null);
       }
     }
+
+    Rectangle player = cellBounds(rendered.getCurrentLocation());
+    if (atlas == null) {
+      g2d.setColor(Color.RED);
+      g2d.fillRect(player.x, player.y, cellSize, cellSize);
+      return;
+    }
+    g2d.drawImage(atlas.player(), player.x + scale(30), player.y + scale(30), null);
+    // if player location contains low smell
+    if (smell.contains("bad")) {
+      g2d.drawImage(atlas.lessSmell(), player.x + scale(35), player.y + scale(35), null);
+    }
+    // if player location contains high smell
+    if (smell.contains("worse")) {
+      g2d.drawImage(atlas.moreSmell(), player.x + scale(35), player.y + scale(35), null);
+    }
+  }
+
+  @Override
+  public Dimension getPreferredSize() {
+    return new Dimension(rendered.getColumns() * cellSize + 75,
+            rendered.getRows() * cellSize + 75);
+  }
+
+  @Override
+  public Dimension getPreferredScrollableViewportSize() {
+    return getPreferredSize();
+  }
+
+  @Override
+  public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+    return cellSize;
+  }
+
+  @Override
+  public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation,
+                                         int direction) {
+    return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+  }
+
+  @Override
+  public boolean getScrollableTracksViewportWidth() {
+    return false;
+  }
+
+  @Override
+  public boolean getScrollableTracksViewportHeight() {
+    return false;
   }
 }
@@ -1,12 +1,14 @@
 package dungeon.view;
 
 import dungeon.controller.MvcController;
+import dungeon.model.ReadOnlyDungeon;
 
 /**
  * The visual representation of the dungeon game is set here.
  * The game frame consists of a description panel, status panel,
  * dungeon panel and instructions. The model interacts with this view
- * through the controller based on mouse clicks and keyboard presses.
+ * through the controller based on mouse clicks and keyboard presses,
+ * and the view updates itself from the events published by the model.
  */
 public interface DungeonView {
 
@@ -51,9 +53,14 @@ public interface DungeonView {
   void makeVisible();
 
   /**
-   * Signal the view to draw itself.
+   * Shows a new game in the same view, for example when the game is restarted.
+   * The view stops listening to the events of the previous dungeon and updates
+   * itself from the events of the new one.
+   *
+   * @param dungeon read only version of the new model
+   * @throws IllegalArgumentException if dungeon is null
    */
-  void refresh();
+  void reset(ReadOnlyDungeon dungeon);
 
   /**
    * Displays the outcome of each action the player does.
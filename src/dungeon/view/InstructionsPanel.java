@@ -32,5 +32,7 @@ final class InstructionsPanel extends JPanel {
     g2d.drawString("6. Every 3 invalid moves makes a thief appear "
             + "to steal your treasure", 30, 240);
     g2d.drawString("7. Click on menu for settings and restarting the game", 30, 270);
+    g2d.drawString("8. Press + and - or hold ctrl and scroll to zoom the dungeon "
+            + "in and out", 30, 300);
   }
 }
@@ -0,0 +1,96 @@
+package dungeon.view;
+
+import dungeon.model.ReadOnlyDungeon;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Draws the dungeon board into images without showing a window, the same way
+ * the board of the game view is painted. It is used to render the board where
+ * there is no screen and to measure how long drawing the board takes. Like the
+ * game view, it follows the events of the dungeon and redraws only what changed,
+ * until it is closed.
+ */
+public final class OffscreenRenderer implements AutoCloseable {
+  private final DungeonPanel panel;
+
+  /**
+   * The renderer is created for a dungeon at a zoom level.
+   *
+   * @param dungeon read only version of the model
+   * @param zoom zoom level, 0 for the biggest locations and each level
+   *             after it drawing the board smaller with less detail
+   * @throws IllegalArgumentException if dungeon is null or zoom is negative
+   */
+  public OffscreenRenderer(ReadOnlyDungeon dungeon, int zoom) {
+    if (zoom < 0) {
+      throw new IllegalArgumentException("Zoom level cannot be negative");
+    }
+    panel = new DungeonPanel(dungeon);
+    for (int i = 0; i < zoom; i++) {
+      panel.zoomOut();
+    }
+    panel.setSize(panel.getPreferredSize());
+  }
+
+  /**
+   * Size of the whole board at the zoom level of the renderer.
+   *
+   * @return width and height of the board in pixels
+   */
+  public Dimension getBoardSize() {
+    return panel.getSize();
+  }
+
+  /**
+   * Gets the area of the board covered by a location.
+   *
+   * @param n cell identifier
+   * @return bounds of the location in pixels
+   */
+  public Rectangle getLocationBounds(int n) {
+    return panel.cellBounds(n);
+  }
+
+  /**
+   * Brings the renderer up to date with the dungeon. This is done when the
+   * dungeon publishes an event, and is only needed if the dungeon was changed
+   * without one.
+   */
+  public void update() {
+    panel.update();
+  }
+
+  /**
+   * Draws the part of the board under an image, with the top left corner of
+   * the image at a point of the board. Parts of the image outside the board
+   * are left as they are.
+   *
+   * @param image image to draw into
+   * @param x horizontal position of the image on the board
+   * @param y vertical position of the image on the board
+   * @throws IllegalArgumentException if image is null
+   */
+  public void render(BufferedImage image, int x, int y) {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    Graphics2D g2d = image.createGraphics();
+    g2d.translate(-x, -y);
+    g2d.setClip(new Rectangle(x, y, image.getWidth(), image.getHeight()));
+    panel.paint(g2d);
+    g2d.dispose();
+  }
+
+  /**
+   * Stops following the events of the dungeon, so the renderer can be
+   * garbage collected while the dungeon is still in use.
+   */
+  @Override
+  public void close() {
+    panel.detach();
+  }
+}
@@ -0,0 +1,174 @@
+package dungeon.view;
+
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * Package private class to make it accessible within the package.
+ * All the images used to draw the dungeon, decoded once and scaled to the
+ * size they are drawn at for a given cell size. Location tiles are indexed
+ * by the exit mask of the location, so painting never reads an image file.
+ */
+final class TileAtlas {
+  // location images for each exit mask, where north is bit 0, east 1, south 2 and west 3
+  private static final String[] TILES = {
+      "/black.png", "/N.png", "/E.png", "/NE.png", "/S.png", "/NS.png", "/ES.png", "/NES.png",
+      "/W.png", "/WN.png", "/EW.png", "/NEW.png", "/SW.png", "/SWN.png", "/ESW.png", "/NESW.png"
+  };
+  private static final Map<Integer, TileAtlas> ATLASES = new HashMap<>();
+
+  private final int cellSize;
+  private final BufferedImage[] tiles;
+  private final BufferedImage unvisited;
+  private final BufferedImage ruby;
+  private final BufferedImage sapphire;
+  private final BufferedImage diamond;
+  private final BufferedImage arrow;
+  private final BufferedImage monster;
+  private final BufferedImage thief;
+  private final BufferedImage lessSmell;
+  private final BufferedImage moreSmell;
+  private final BufferedImage player;
+
+  private TileAtlas(int cellSize) {
+    this.cellSize = cellSize;
+    tiles = new BufferedImage[TILES.length];
+    for (int i = 1; i < TILES.length; i++) {
+      tiles[i] = load(TILES[i], 100, 100);
+    }
+    unvisited = load(TILES[0], 100, 100);
+    ruby = load("/ruby.png", 20, 20);
+    sapphire = load("/emerald.png", 20, 20);
+    diamond = load("/diamond.png", 20, 20);
+    arrow = load("/arrow-white.png", 50, 5);
+    monster = load("/otyugh.png", 40, 40);
+    thief = load("/thief.png", 35, 35);
+    lessSmell = load("/stench01.png", 30, 30);
+    moreSmell = load("/stench02.png", 30, 30);
+    player = load("/player.png", 35, 35);
+  }
+
+  /**
+   * Gets the atlas for a cell size, loading it the first time it is asked for.
+   *
+   * @param cellSize width and height of a location in pixels
+   * @return atlas with images scaled for that cell size
+   * @throws IllegalArgumentException if cell size is not positive
+   */
+  static synchronized TileAtlas forCellSize(int cellSize) {
+    if (cellSize <= 0) {
+      throw new IllegalArgumentException("Cell size should be positive");
+    }
+    return ATLASES.computeIfAbsent(cellSize, TileAtlas::new);
+  }
+
+  // reads an image and scales it to its size for a 100 pixel cell, scaled to the cell size
+  private BufferedImage load(String name, int width, int height) {
+    URL resource = getClass().getResource(name);
+    if (resource == null) {
+      return null;
+    }
+    BufferedImage source;
+    try {
+      source = ImageIO.read(resource);
+    } catch (IOException e) {
+      e.printStackTrace();
+      return null;
+    }
+    int w = Math.max(1, width * cellSize / 100);
+    int h = Math.max(1, height * cellSize / 100);
+    BufferedImage scaled = createImage(w, h);
+    Graphics2D g = scaled.createGraphics();
+    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    g.drawImage(source, 0, 0, w, h, null);
+    g.dispose();
+    return scaled;
+  }
+
+  /**
+   * Creates an image in the format of the screen when there is one, so drawing
+   * it does not need a conversion.
+   *
+   * @param width width of the image
+   * @param height height of the image
+   * @return a translucent image
+   */
+  static BufferedImage createImage(int width, int height) {
+    if (!GraphicsEnvironment.isHeadless()) {
+      GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+              .getDefaultScreenDevice().getDefaultConfiguration();
+      return config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+    return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+  }
+
+  /**
+   * The width and height of a location the images are scaled for.
+   *
+   * @return cell size in pixels
+   */
+  int getCellSize() {
+    return cellSize;
+  }
+
+  /**
+   * Gets the image of a visited location with the given exits.
+   *
+   * @param exitMask exit mask of the location
+   * @return location image, or the unvisited image if there are no exits
+   */
+  BufferedImage tile(int exitMask) {
+    return exitMask == 0 ? unvisited : tiles[exitMask];
+  }
+
+  // images drawn for unvisited locations, items, Otyughs and the player
+  BufferedImage unvisited() {
+    return unvisited;
+  }
+
+  BufferedImage ruby() {
+    return ruby;
+  }
+
+  BufferedImage sapphire() {
+    return sapphire;
+  }
+
+  BufferedImage diamond() {
+    return diamond;
+  }
+
+  BufferedImage arrow() {
+    return arrow;
+  }
+
+  BufferedImage monster() {
+    return monster;
+  }
+
+  BufferedImage thief() {
+    return thief;
+  }
+
+  BufferedImage lessSmell() {
+    return lessSmell;
+  }
+
+  BufferedImage moreSmell() {
+    return moreSmell;
+  }
+
+  BufferedImage player() {
+    return player;
+  }
+}
@@ -0,0 +1,81 @@
+package dungeon.model;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests that a game plays the same with every storage. A seed creates the same
+ * dungeon with OBJECTS and ARRAYS, so those are played from the same seed. A
+ * mapped dungeon of a seed is laid out differently, so the game is copied into
+ * one. A chunked dungeon cannot be created from a layout and is not checked.
+ */
+public class CellStorageTest {
+  private static final int GAMES = 250;
+  private static final int TURNS = 300;
+
+  // the game in the storage, with the same layout, contents, player and random numbers
+  private static DungeonClass copy(DungeonClass d, CellStorage storage) {
+    int rows = d.getSettings().get(0);
+    int columns = d.getSettings().get(1);
+    DungeonClass copy = new DungeonClass(rows, columns, d.getSettings().get(2),
+            d.getSettings().get(3), d.getSettings().get(4) == 0, d.getSettings().get(5),
+            RandomSeedClass.fromState(((StatefulRandom) d.getRandom()).getState()), storage,
+            GridAlgorithm.KRUSKAL, false);
+    for (int n = 0; n < rows * columns; n++) {
+      int exits = d.locationExitMask(n);
+      if ((exits & Directions.EAST.getMask()) != 0) {
+        copy.restoreEdge(n, Directions.EAST);
+      }
+      if ((exits & Directions.SOUTH.getMask()) != 0) {
+        copy.restoreEdge(n, Directions.SOUTH);
+      }
+    }
+    copy.restoreLayout(d.getStartLocation(), d.getEndLocation());
+    copy.restorePlayer(d.getCurrentLocation(), d.getPlayerTreasure(), d.playerArrows(),
+            d.getWrongMoves(), d.isPlayerEaten(), d.hasPlayerWon());
+    for (int n = 0; n < rows * columns; n++) {
+      Monster monster = d.locationMonster(n);
+      copy.restoreCell(n, d.locationTreasure(n), d.locationArrows(n),
+              monster == null ? 0 : monster.getHealth(), d.locationThief(n), d.isVisited(n));
+    }
+    return copy;
+  }
+
+  // plays the seeded games of the settings with objects and with the other storages
+  private static void checkStorages(int rows, int columns, int interconnectivity,
+                                    boolean isWrapping) {
+    for (int seed = 0; seed < GAMES; seed++) {
+      DungeonSettings objects = new DungeonSettings(rows, columns, interconnectivity, 80,
+              isWrapping, 2, CellStorage.OBJECTS, GridAlgorithm.KRUSKAL);
+      DungeonSettings arrays = new DungeonSettings(rows, columns, interconnectivity, 80,
+              isWrapping, 2, CellStorage.ARRAYS, GridAlgorithm.KRUSKAL);
+      Games.assertSameGame(Games.create(objects, seed), Games.create(arrays, seed), seed);
+      DungeonClass mapped = copy(Games.create(objects, seed), CellStorage.MAPPED);
+      Games.assertSameGame(Games.create(objects, seed), mapped, seed);
+    }
+  }
+
+  @Test
+  public void testSmallDungeons() {
+    checkStorages(6, 6, 2, false);
+  }
+
+  @Test
+  public void testWrappingDungeons() {
+    checkStorages(8, 10, 6, true);
+  }
+
+  @Test
+  public void testLongGames() {
+    for (int seed = 0; seed < GAMES; seed++) {
+      DungeonClass expected = Games.create(new DungeonSettings(10, 10, 3, 100, false, 1,
+              CellStorage.OBJECTS, GridAlgorithm.KRUSKAL), seed);
+      DungeonClass actual = Games.create(new DungeonSettings(10, 10, 3, 100, false, 1,
+              CellStorage.ARRAYS, GridAlgorithm.KRUSKAL), seed);
+      Games.play(expected, new Random(seed), TURNS);
+      Games.play(actual, new Random(seed), TURNS);
+      Games.assertSameGame(expected, actual, seed);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package dungeon.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the counter based generator: its blocks against the known answers of
+ * Philox4x32-10, jumping and streams, and the bounds of its numbers.
+ */
+public class CounterRandomClassTest {
+  private static final int[] BOUNDS = {1, 2, 3, 7, 10, 64, 1000, 1 << 30, (1 << 30) + 1,
+      Integer.MAX_VALUE};
+
+  // the 4 words of the block of the counter, in the stream of the key
+  private static int[] block(long key, long stream, long counter) {
+    return new CounterRandomClass(key, stream).block(counter);
+  }
+
+  // the next numbers of the generator, one call at a time
+  private static int[] draw(RandomGenerator r, int count, int n) {
+    int[] values = new int[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = r.nextInt(n);
+    }
+    return values;
+  }
+
+  @Test
+  public void testKnownAnswers() {
+    // the known answer vectors of Philox4x32-10 published with Random123. The counter is
+    // the low 64 bits of the input, the stream the high 64 bits
+    assertArrayEquals(new int[] {0x6627e8d5, 0xe169c58d, 0xbc57ac4c, 0x9b00dbd8},
+            block(0L, 0L, 0L));
+    assertArrayEquals(new int[] {0x408f276d, 0x41c83b0e, 0xa20bc7c6, 0x6d5451fd},
+            block(-1L, -1L, -1L));
+    assertArrayEquals(new int[] {0xd16cfe09, 0x94fdcceb, 0x5001e420, 0x24126ea1},
+            block(0x299f31d0a4093822L, 0x0370734413198a2eL, 0x85a308d3243f6a88L));
+  }
+
+  @Test
+  public void testJump() {
+    // a bound which is a power of 2 takes one value of the stream for each number
+    CounterRandomClass r = new CounterRandomClass(42, 3);
+    int[] first = draw(r, 100, 1 << 30);
+    assertEquals(100, r.getPosition());
+    for (int p : new int[] {0, 1, 3, 4, 5, 37, 99, 2}) {
+      r.jump(p);
+      assertEquals(p, r.getPosition());
+      assertEquals("value at " + p, first[p], r.nextInt(1 << 30));
+    }
+    r.jump(1L << 40);
+    int far = r.nextInt(1 << 30);
+    CounterRandomClass other = new CounterRandomClass(42, 3);
+    other.jump(1L << 40);
+    assertEquals(far, other.nextInt(1 << 30));
+    assertArrayEquals(block(42, 3, 1L << 38), other.block(1L << 38));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testJumpNegative() {
+    new CounterRandomClass(1).jump(-1);
+  }
+
+  @Test
+  public void testStreams() {
+    CounterRandomClass r = new CounterRandomClass(7);
+    assertArrayEquals(draw(r.stream(5), 50, Integer.MAX_VALUE),
+            draw(new CounterRandomClass(7, 5), 50, Integer.MAX_VALUE));
+    int[] stream0 = draw(r.stream(0), 1000, Integer.MAX_VALUE);
+    int[] stream1 = draw(r.stream(1), 1000, Integer.MAX_VALUE);
+    int[] otherKey = draw(new CounterRandomClass(8), 1000, Integer.MAX_VALUE);
+    int same = 0;
+    for (int i = 0; i < stream0.length; i++) {
+      same += (stream0[i] == stream1[i] ? 1 : 0) + (stream0[i] == otherKey[i] ? 1 : 0);
+    }
+    assertEquals(0, same);
+    assertArrayEquals(stream0, draw(new CounterRandomClass(7), 1000, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testBounds() {
+    CounterRandomClass r = new CounterRandomClass(99);
+    for (int n : BOUNDS) {
+      for (int i = 0; i < 10000; i++) {
+        int v = r.nextInt(n);
+        assertTrue(v + " out of " + n, v >= 0 && v < n);
+      }
+    }
+  }
+
+  @Test
+  public void testSpread() {
+    CounterRandomClass r = new CounterRandomClass(5);
+    int[] counts = new int[10];
+    for (int i = 0; i < 100000; i++) {
+      counts[r.nextInt(10)]++;
+    }
+    for (int count : counts) {
+      assertTrue("count " + count, count > 9500 && count < 10500);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroBound() {
+    new CounterRandomClass(1).nextInt(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeBound() {
+    new CounterRandomClass(1).nextInt(-5);
+  }
+
+  @Test
+  public void testNextIntsAsNextInt() {
+    for (int n : BOUNDS) {
+      for (int start = 0; start < 5; start++) {
+        CounterRandomClass single = new CounterRandomClass(n, start);
+        CounterRandomClass bulk = new CounterRandomClass(n, start);
+        single.jump(start);
+        bulk.jump(start);
+        int[] values = new int[1001];
+        bulk.nextInts(values, n);
+        assertArrayEquals("bound " + n, draw(single, values.length, n), values);
+        assertEquals(single.getPosition(), bulk.getPosition());
+        assertEquals(single.nextInt(n), bulk.nextInt(n));
+      }
+    }
+  }
+
+  @Test
+  public void testNextIntsEmpty() {
+    CounterRandomClass r = new CounterRandomClass(1);
+    r.nextInts(new int[0], 3);
+    assertEquals(0, r.getPosition());
+    assertNotEquals(r.nextInt(Integer.MAX_VALUE), r.nextInt(Integer.MAX_VALUE));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNextIntsNull() {
+    new CounterRandomClass(1).nextInts(null, 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNextIntsZeroBound() {
+    new CounterRandomClass(1).nextInts(new int[3], 0);
+  }
+}
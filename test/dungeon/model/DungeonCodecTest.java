@@ -0,0 +1,92 @@
+package dungeon.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests that a saved game is restored in the state it was saved in and plays
+ * on the same as the game it was saved from.
+ */
+public class DungeonCodecTest {
+
+  // saves the game and reads it back
+  private static DungeonClass roundTrip(Dungeon d) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DungeonCodec.write(d, out);
+    ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+    DungeonClass restored = (DungeonClass) DungeonCodec.read(in);
+    assertEquals("whole game read", -1, in.read());
+    return restored;
+  }
+
+  // plays games of the settings for a while, then checks that each restores and plays on
+  private static void checkRoundTrips(DungeonSettings settings) throws IOException {
+    for (int seed = 0; seed < 20; seed++) {
+      DungeonClass d = Games.create(settings, seed * 100);
+      Games.play(d, new Random(seed), seed * 10);
+      DungeonClass restored = roundTrip(d);
+      assertEquals(settings.getStorage(), restored.getStorage());
+      Games.assertSameGame(d, restored, seed);
+    }
+  }
+
+  @Test
+  public void testRoundTripObjects() throws IOException {
+    checkRoundTrips(new DungeonSettings(8, 10, 3, 60, false, 2, CellStorage.OBJECTS,
+            GridAlgorithm.KRUSKAL));
+  }
+
+  @Test
+  public void testRoundTripArraysWrapping() throws IOException {
+    checkRoundTrips(new DungeonSettings(12, 7, 5, 40, true, 3, CellStorage.ARRAYS,
+            GridAlgorithm.WILSON));
+  }
+
+  @Test
+  public void testRoundTripMapped() throws IOException {
+    checkRoundTrips(new DungeonSettings(9, 9, 2, 100, false, 1, CellStorage.MAPPED,
+            GridAlgorithm.KRUSKAL));
+  }
+
+  @Test
+  public void testRoundTripOfRoundTrip() throws IOException {
+    DungeonClass d = Games.create(new DungeonSettings(10, 10, 4, 50, true, 2,
+            CellStorage.OBJECTS, GridAlgorithm.ELLER), 7);
+    Games.play(d, new Random(7), 40);
+    DungeonClass restored = roundTrip(d);
+    assertEquals(Games.describe(restored), Games.describe(roundTrip(restored)));
+    assertEquals(d.getConnectedEdges(), restored.getConnectedEdges());
+  }
+
+  @Test
+  public void testFinishedGame() throws IOException {
+    DungeonClass d = Games.create(new DungeonSettings(6, 6, 0, 20, false, 3,
+            CellStorage.OBJECTS, GridAlgorithm.KRUSKAL), 3);
+    Games.play(d, new Random(3), 100000);
+    assertEquals(Games.describe(d), Games.describe(roundTrip(d)));
+  }
+
+  @Test
+  public void testTruncated() throws IOException {
+    DungeonClass d = Games.create(new DungeonSettings(6, 6, 0, 20, false, 1,
+            CellStorage.ARRAYS, GridAlgorithm.KRUSKAL), 0);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DungeonCodec.write(d, out);
+    byte[] bytes = out.toByteArray();
+    for (int length = 0; length < bytes.length; length++) {
+      try {
+        DungeonCodec.read(new ByteArrayInputStream(bytes, 0, length));
+        fail("read " + length + " of " + bytes.length + " bytes");
+      } catch (IOException e) {
+        // expected
+      }
+    }
+  }
+}
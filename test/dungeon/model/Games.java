@@ -0,0 +1,147 @@
+package dungeon.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Plays games with random commands and describes the whole state of a game, so
+ * tests can check that two games are the same.
+ */
+final class Games {
+  private static final String[] DIRECTIONS = {"NORTH", "EAST", "SOUTH", "WEST"};
+
+  private Games() {
+  }
+
+  /**
+   * The first dungeon of the settings that can be created, from a seed onwards.
+   *
+   * @param settings settings of the dungeon
+   * @param seed first seed tried
+   * @return the dungeon
+   */
+  static DungeonClass create(DungeonSettings settings, int seed) {
+    for (int i = seed; i < seed + 100; i++) {
+      try {
+        return (DungeonClass) settings.createDungeon(new RandomSeedClass(i));
+      } catch (IllegalArgumentException e) {
+        // no end location for this seed, try the next one
+      }
+    }
+    throw new IllegalArgumentException("No dungeon can be created with " + settings);
+  }
+
+  /**
+   * A random command, written as the journal writes commands: a direction to
+   * move in, "T" or "A" to pick up treasure or an arrow, or a direction and a
+   * distance to shoot. One move in four is to a wall, so thieves appear.
+   *
+   * @param d dungeon the command is for
+   * @param random where the choices are taken from
+   * @return the command
+   */
+  static String command(Dungeon d, Random random) {
+    int choice = random.nextInt(10);
+    if (choice < 6) {
+      List<String> moves = d.locationPossibleMoves();
+      return random.nextInt(4) == 0 || moves.isEmpty()
+              ? DIRECTIONS[random.nextInt(DIRECTIONS.length)]
+              : moves.get(random.nextInt(moves.size())).toUpperCase();
+    }
+    if (choice == 6) {
+      return "T";
+    }
+    if (choice == 7) {
+      return "A";
+    }
+    return DIRECTIONS[random.nextInt(DIRECTIONS.length)] + " " + (1 + random.nextInt(5));
+  }
+
+  /**
+   * Carries out a command made by {@link #command}.
+   *
+   * @param d dungeon the command is carried out in
+   * @param command the command
+   * @return what happened, or the message of the exception thrown
+   */
+  static String apply(Dungeon d, String command) {
+    try {
+      if (command.equals("T")) {
+        d.pickUpTreasure();
+        return "treasure";
+      }
+      if (command.equals("A")) {
+        d.pickUpArrow();
+        return "arrow";
+      }
+      String[] words = command.split(" ");
+      if (words.length == 2) {
+        return d.shootArrow(words[0], Integer.parseInt(words[1]));
+      }
+      d.movePlayer(command);
+      return d.isMonsterClose();
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return e.getMessage();
+    }
+  }
+
+  /**
+   * Plays random commands until the game is over or the turns run out.
+   *
+   * @param d dungeon played in
+   * @param random where the commands are taken from
+   * @param turns most commands played
+   * @return what happened at each command, a line each
+   */
+  static String play(Dungeon d, Random random, int turns) {
+    StringBuilder out = new StringBuilder();
+    for (int i = 0; i < turns && !d.gameOver(); i++) {
+      String command = command(d, random);
+      out.append(command).append(": ").append(apply(d, command)).append('\n');
+    }
+    return out.toString();
+  }
+
+  /**
+   * Describes everything about a game that can change or be saved: the
+   * settings, the layout, the player and every location.
+   *
+   * @param d the game
+   * @return description of the game
+   */
+  static String describe(DungeonClass d) {
+    StringBuilder out = new StringBuilder();
+    out.append(d.getSettings()).append('\n');
+    out.append("start ").append(d.getStartLocation()).append(" end ")
+            .append(d.getEndLocation()).append('\n');
+    out.append("player ").append(d.getCurrentLocation()).append(' ')
+            .append(d.getPlayerTreasure()).append(' ').append(d.playerArrows()).append(' ')
+            .append(d.getWrongMoves()).append(' ').append(d.isPlayerEaten()).append(' ')
+            .append(d.hasPlayerWon()).append('\n');
+    int noOfCells = d.getSettings().get(0) * d.getSettings().get(1);
+    for (int n = 0; n < noOfCells; n++) {
+      Monster monster = d.locationMonster(n);
+      out.append(n).append(' ').append(d.locationExitMask(n)).append(' ')
+              .append(d.locationTreasure(n)).append(' ').append(d.locationArrows(n)).append(' ')
+              .append(monster == null ? 0 : monster.getHealth()).append(' ')
+              .append(d.locationThief(n)).append(' ').append(d.isVisited(n)).append('\n');
+    }
+    return out.toString();
+  }
+
+  /**
+   * Checks that two games are in the same state and play the same from now on.
+   * Both games are played further.
+   *
+   * @param expected the game as it should be
+   * @param actual the game checked
+   * @param seed seed of the commands played after the check
+   */
+  static void assertSameGame(DungeonClass expected, DungeonClass actual, long seed) {
+    assertEquals(describe(expected), describe(actual));
+    assertEquals(play(expected, new Random(seed), 200), play(actual, new Random(seed), 200));
+    assertEquals(describe(expected), describe(actual));
+  }
+}
@@ -0,0 +1,135 @@
+package dungeon.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests that a journaled game is rebuilt as it was after any of its commands,
+ * whether or not a saved game was written at that command, and that the
+ * rebuilt game plays on as the game did.
+ */
+public class JournalReplayTest {
+  private static final int SNAPSHOT_INTERVAL = 7;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private DungeonClass dungeon;
+  private final List<String> states = new ArrayList<>();
+  private final List<String> commands = new ArrayList<>();
+  private final List<Integer> journaled = new ArrayList<>();
+
+  // plays random commands through a journal, keeping the state after every journaled
+  // command and every command with the number of journaled commands before it
+  private File journal(DungeonSettings settings, int seed, int turns) throws IOException {
+    dungeon = Games.create(settings, seed);
+    File file = folder.newFile();
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+      CommandJournal journal = new CommandJournal(dungeon, out, SNAPSHOT_INTERVAL);
+      states.add(Games.describe(dungeon));
+      Random random = new Random(seed);
+      for (int i = 0; i < turns; i++) {
+        String command = Games.command(journal, random);
+        commands.add(command);
+        journaled.add(journal.getCommands());
+        Games.apply(journal, command);
+        if (journal.getCommands() == states.size()) {
+          states.add(Games.describe(dungeon));
+        }
+        else {
+          states.set(journal.getCommands(), Games.describe(dungeon));
+        }
+      }
+    }
+    return file;
+  }
+
+  // plays the commands which came after the n-th journaled command
+  private void playFrom(Dungeon d, int n) {
+    for (int i = 0; i < commands.size(); i++) {
+      if (journaled.get(i) >= n) {
+        Games.apply(d, commands.get(i));
+      }
+    }
+  }
+
+  private void checkReplay(DungeonSettings settings, int seed, int turns) throws IOException {
+    File file = journal(settings, seed, turns);
+    try (JournalReplay replay = new JournalReplay(file.toPath())) {
+      assertEquals(states.size() - 1, replay.getCommands());
+      assertTrue("journal holds several saved games",
+              replay.getCommands() > 3 * SNAPSHOT_INTERVAL);
+      Random random = new Random(seed);
+      for (int k = 0; k < 40; k++) {
+        int n = k < 3 ? k * replay.getCommands() / 2 : random.nextInt(replay.getCommands() + 1);
+        DungeonClass d = (DungeonClass) replay.seek(n);
+        assertEquals("after command " + n, states.get(n), Games.describe(d));
+        playFrom(d, n);
+        assertEquals("played on from command " + n, Games.describe(dungeon),
+                Games.describe(d));
+      }
+    }
+  }
+
+  @Test
+  public void testSeekObjects() throws IOException {
+    checkReplay(new DungeonSettings(8, 8, 3, 80, false, 1, CellStorage.OBJECTS,
+            GridAlgorithm.KRUSKAL), 1, 400);
+  }
+
+  @Test
+  public void testSeekArraysWrapping() throws IOException {
+    checkReplay(new DungeonSettings(10, 9, 6, 60, true, 2, CellStorage.ARRAYS,
+            GridAlgorithm.BACKTRACKER), 2, 400);
+  }
+
+  @Test
+  public void testSeekMapped() throws IOException {
+    checkReplay(new DungeonSettings(7, 12, 2, 100, false, 1, CellStorage.MAPPED,
+            GridAlgorithm.KRUSKAL), 3, 300);
+  }
+
+  @Test
+  public void testEveryCommand() throws IOException {
+    File file = journal(new DungeonSettings(6, 6, 1, 50, false, 1, CellStorage.OBJECTS,
+            GridAlgorithm.KRUSKAL), 4, 150);
+    try (JournalReplay replay = new JournalReplay(file.toPath())) {
+      for (int n = 0; n <= replay.getCommands(); n++) {
+        assertEquals("after command " + n, states.get(n), Games.describe(
+                (DungeonClass) replay.seek(n)));
+      }
+    }
+  }
+
+  @Test
+  public void testCutShort() throws IOException {
+    File file = journal(new DungeonSettings(6, 6, 1, 50, false, 1, CellStorage.OBJECTS,
+            GridAlgorithm.KRUSKAL), 5, 100);
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    for (int length = bytes.length - 1; length > bytes.length - 40; length--) {
+      File cut = folder.newFile();
+      Files.write(cut.toPath(), Arrays.copyOf(bytes, length));
+      try (JournalReplay replay = new JournalReplay(cut.toPath())) {
+        int n = replay.getCommands();
+        assertTrue(n < states.size());
+        assertEquals("after command " + n, states.get(n), Games.describe(
+                (DungeonClass) replay.seek(n)));
+      }
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package dungeon.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests that a memory-mapped dungeon of more than 2^30 locations, whose edge
+ * codes do not fit in an int, gets as many items as its settings ask for and
+ * is saved and restored. The test takes minutes and a few gigabytes of disk,
+ * so it only runs when the system property dungeon.largeTests is true
+ * ({@code gradle test -PlargeTests}).
+ */
+public class LargeDungeonCodecTest {
+  private static final int BUFFER = 1 << 16;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  // the digest of the saved game, which is the same only for games in the same state
+  private static byte[] digest(Dungeon d) throws IOException, NoSuchAlgorithmException {
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    try (OutputStream out = new BufferedOutputStream(
+            new DigestOutputStream(OutputStream.nullOutputStream(), digest), BUFFER)) {
+      DungeonCodec.write(d, out);
+    }
+    return digest.digest();
+  }
+
+  // checks the new dungeon has the share of its caves with treasure and Otyughs that the
+  // settings ask for, and as many arrows as treasure, counts which do not fit in an int
+  // once multiplied by the percent
+  private static void checkItems(DungeonClass d, int percentTreasure, int difficulty) {
+    long caves = 0;
+    long treasureCaves = 0;
+    long arrows = 0;
+    long monsters = 0;
+    int noOfCells = d.getSettings().get(0) * d.getSettings().get(1);
+    for (int n = 0; n < noOfCells; n++) {
+      if (Integer.bitCount(d.locationExitMask(n)) != 2) {
+        caves++;
+      }
+      if (!d.locationTreasure(n).isEmpty()) {
+        treasureCaves++;
+      }
+      arrows += d.locationArrows(n);
+      if (d.locationMonster(n) != null) {
+        monsters++;
+      }
+    }
+    assertTrue("more caves than an int percent can count", caves * 100 > Integer.MAX_VALUE);
+    assertEquals(percentTreasure * caves / 100, treasureCaves);
+    assertEquals(treasureCaves, arrows);
+    assertEquals(difficulty * 20 * caves / 100, monsters);
+  }
+
+  @Test
+  public void testRoundTripAbove2To30Locations() throws Exception {
+    assumeTrue(Boolean.getBoolean("dungeon.largeTests"));
+    DungeonClass d = Games.create(new DungeonSettings(32769, 32768, 5, 100, false, 2,
+            CellStorage.MAPPED, GridAlgorithm.KRUSKAL), 1);
+    checkItems(d, 100, 2);
+    Games.play(d, new Random(1), 50);
+    File saved = folder.newFile("large.dgn");
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(saved), BUFFER)) {
+      DungeonCodec.write(d, out);
+    }
+    DungeonClass restored;
+    try (InputStream in = new BufferedInputStream(new FileInputStream(saved), BUFFER)) {
+      restored = (DungeonClass) DungeonCodec.read(in);
+      assertEquals("whole game read", -1, in.read());
+    }
+    assertEquals(d.getSettings(), restored.getSettings());
+    assertEquals(d.getStartLocation(), restored.getStartLocation());
+    assertEquals(d.getEndLocation(), restored.getEndLocation());
+    assertEquals(d.getCurrentLocation(), restored.getCurrentLocation());
+    int last = 32769 * 32768 - 1;
+    assertEquals(d.locationExitMask(last), restored.locationExitMask(last));
+    assertArrayEquals(digest(d), digest(restored));
+    assertEquals(Games.play(d, new Random(2), 50), Games.play(restored, new Random(2), 50));
+  }
+}
@@ -0,0 +1,127 @@
+package dungeon.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests that the parallel Kruskal grid is a spanning tree plus the extra edges
+ * asked for, that a seed gives the same grid whatever the number of threads,
+ * and that bands of rows are joined by many passages, as in a grid made by
+ * Kruskal's algorithm on one thread.
+ */
+public class ParallelKruskalGridTest {
+  private static final int[] THREADS = {1, 2, 4, 8};
+
+  // the connected values of the grid of the seed, made on a pool of the threads
+  private static int[] connect(int rows, int columns, boolean isWrapping, int interconnectivity,
+                               int seed, int threads) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      return new ParallelKruskalGrid(rows, columns, isWrapping, interconnectivity,
+              new RandomSeedClass(seed), pool).getConnectedValues();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  // checks that the edges join every location, with as many edges as a spanning tree and
+  // the extra edges
+  private static void assertSpanningTree(int rows, int columns, int interconnectivity,
+                                         int[] values) {
+    int noOfCells = rows * columns;
+    assertEquals(2 * (noOfCells - 1 + interconnectivity), values.length);
+    int[][] neighbours = new int[noOfCells][4];
+    int[] degree = new int[noOfCells];
+    for (int i = 0; i < values.length; i += 2) {
+      neighbours[values[i]][degree[values[i]]++] = values[i + 1];
+      neighbours[values[i + 1]][degree[values[i + 1]]++] = values[i];
+    }
+    boolean[] seen = new boolean[noOfCells];
+    Deque<Integer> queue = new ArrayDeque<>();
+    seen[0] = true;
+    queue.add(0);
+    int noOfSeen = 1;
+    while (!queue.isEmpty()) {
+      int n = queue.remove();
+      for (int k = 0; k < degree[n]; k++) {
+        int m = neighbours[n][k];
+        if (!seen[m]) {
+          seen[m] = true;
+          noOfSeen++;
+          queue.add(m);
+        }
+      }
+    }
+    assertEquals(noOfCells, noOfSeen);
+  }
+
+  // checks every pool gives the grid of one thread for a few seeds, and that it is valid
+  private static void checkPools(int rows, int columns, boolean isWrapping,
+                                 int interconnectivity) {
+    for (int seed = 0; seed < 5; seed++) {
+      int[] expected = connect(rows, columns, isWrapping, interconnectivity, seed, 1);
+      assertSpanningTree(rows, columns, interconnectivity, expected);
+      for (int threads : THREADS) {
+        assertArrayEquals("seed " + seed + " on " + threads + " threads", expected,
+                connect(rows, columns, isWrapping, interconnectivity, seed, threads));
+      }
+      assertArrayEquals(expected, new ParallelKruskalGrid(rows, columns, isWrapping,
+              interconnectivity, new RandomSeedClass(seed)).getConnectedValues());
+    }
+  }
+
+  @Test
+  public void testOneBand() {
+    checkPools(20, 30, false, 5);
+  }
+
+  @Test
+  public void testManyBands() {
+    checkPools(300, 40, false, 12);
+  }
+
+  @Test
+  public void testManyBandsWrapping() {
+    checkPools(257, 17, true, 0);
+  }
+
+  @Test
+  public void testWideBands() {
+    checkPools(130, 200, true, 40);
+  }
+
+  @Test
+  public void testPassagesBetweenBands() {
+    int columns = 60;
+    for (int seed = 0; seed < 5; seed++) {
+      ParallelKruskalGrid grid = new ParallelKruskalGrid(200, columns, false, 0,
+              new RandomSeedClass(seed));
+      // the tree edges between the first two bands of 64 rows, and between rows of a band
+      int[] passages = new int[2];
+      for (int y = 0; y < columns; y++) {
+        for (int k = 0; k < 2; k++) {
+          int row = k == 0 ? 63 : 31;
+          if ((grid.getExits(row * columns + y) & Directions.SOUTH.getMask()) != 0) {
+            passages[k]++;
+          }
+        }
+      }
+      assertTrue("seed " + seed + " joins bands by " + passages[0] + " passages",
+              passages[0] > 1);
+      assertTrue("seed " + seed + ": " + passages[0] + " passages between bands and "
+              + passages[1] + " in a band", 2 * passages[0] > passages[1]);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullPool() {
+    new ParallelKruskalGrid(10, 10, false, 0, new RandomSeedClass(1), null);
+  }
+}
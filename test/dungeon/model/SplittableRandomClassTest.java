@@ -0,0 +1,98 @@
+package dungeon.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests that the splittable generator gives the same numbers for a seed, that
+ * split generators are reproducible and independent, and the bounds of its
+ * numbers.
+ */
+public class SplittableRandomClassTest {
+
+  // the next numbers of the generator
+  private static int[] draw(RandomGenerator r, int count) {
+    int[] values = new int[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = r.nextInt(Integer.MAX_VALUE);
+    }
+    return values;
+  }
+
+  @Test
+  public void testSeed() {
+    assertArrayEquals(draw(new SplittableRandomClass(3), 100),
+            draw(new SplittableRandomClass(3), 100));
+    assertArrayEquals(draw(new SplittableRandomClass("L64X128MixRandom", 3), 100),
+            draw(new SplittableRandomClass("L64X128MixRandom", 3), 100));
+    assertFalse(Arrays.equals(draw(new SplittableRandomClass(3), 100),
+            draw(new SplittableRandomClass(4), 100)));
+  }
+
+  @Test
+  public void testSplit() {
+    for (String algorithm : new String[] {"SplittableRandom", "L64X128MixRandom"}) {
+      SplittableRandomClass a = new SplittableRandomClass(algorithm, 11);
+      SplittableRandomClass b = new SplittableRandomClass(algorithm, 11);
+      SplittableRandomClass childA = a.split();
+      SplittableRandomClass childB = b.split();
+      int[] child = draw(childA, 1000);
+      assertArrayEquals(algorithm, child, draw(childB, 1000));
+      int[] parent = draw(a, 1000);
+      assertArrayEquals(algorithm, parent, draw(b, 1000));
+      int[] sibling = draw(a.split(), 1000);
+      int same = 0;
+      for (int i = 0; i < child.length; i++) {
+        same += (child[i] == parent[i] ? 1 : 0) + (child[i] == sibling[i] ? 1 : 0);
+      }
+      assertEquals(algorithm, 0, same);
+    }
+  }
+
+  @Test
+  public void testBounds() {
+    SplittableRandomClass r = new SplittableRandomClass(1);
+    for (int n : new int[] {1, 2, 3, 10, 1 << 30, Integer.MAX_VALUE}) {
+      for (int i = 0; i < 10000; i++) {
+        int v = r.nextInt(n);
+        assertTrue(v + " out of " + n, v >= 0 && v < n);
+      }
+    }
+  }
+
+  @Test
+  public void testNextInts() {
+    int[] values = new int[500];
+    new SplittableRandomClass(8).nextInts(values, 17);
+    SplittableRandomClass r = new SplittableRandomClass(8);
+    for (int value : values) {
+      assertEquals(r.nextInt(17), value);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroBound() {
+    new SplittableRandomClass(1).nextInt(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownAlgorithm() {
+    new SplittableRandomClass("NoSuchRandom", 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAlgorithmNotSplittable() {
+    new SplittableRandomClass("Random", 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullAlgorithm() {
+    new SplittableRandomClass(null, 1);
+  }
+}
@@ -0,0 +1,113 @@
+package dungeon.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import dungeon.controller.DungeonConsoleController;
+import dungeon.model.CellStorage;
+import dungeon.model.Dungeon;
+import dungeon.model.DungeonSettings;
+import dungeon.model.RandomSeedClass;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests that a session read from bytes in pieces of any size answers as the
+ * console game does to the same commands.
+ */
+public class ConsoleSessionTest {
+  private static final DungeonSettings SETTINGS = new DungeonSettings(6, 7, 3, 60, false, 1,
+          CellStorage.OBJECTS);
+  private static final String[] WORDS = {"move N", "move E", "move S", "move W", "MOVE south",
+      "move up", "pick t", "pick a", "PICK x", "shoot E 2", "shoot N 1", "shoot W 9", "jump"};
+
+  // the first dungeon of the settings from a seed onwards
+  private static Dungeon create(int seed) {
+    for (int i = seed; ; i++) {
+      try {
+        return SETTINGS.createDungeon(new RandomSeedClass(i));
+      } catch (IllegalArgumentException e) {
+        // no end location for this seed, try the next one
+      }
+    }
+  }
+
+  // random commands, with whitespace of every kind between the words, ending with quit
+  private static String script(Random random, int commands) {
+    String[] spaces = {" ", "\n", "\r\n", "\t", "  \n "};
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < commands; i++) {
+      for (String w : WORDS[random.nextInt(WORDS.length)].split(" ")) {
+        sb.append(w).append(spaces[random.nextInt(spaces.length)]);
+      }
+    }
+    return sb.append("q\n").toString();
+  }
+
+  // the answers of the session to the script, sent in random pieces
+  private static String session(Dungeon d, String script, Random random) {
+    StringBuilder out = new StringBuilder();
+    ConsoleSession session = new ConsoleSession(d, out);
+    ByteBuffer in = ByteBuffer.wrap(script.getBytes(StandardCharsets.UTF_8));
+    while (in.hasRemaining() && !session.isEnded()) {
+      ByteBuffer piece = in.slice();
+      piece.limit(Math.min(piece.remaining(), 1 + random.nextInt(8)));
+      int length = piece.remaining();
+      session.read(piece);
+      in.position(in.position() + length);
+    }
+    assertTrue("session ended", session.isEnded());
+    return out.toString();
+  }
+
+  @Test
+  public void testSameAsConsole() {
+    for (int seed = 0; seed < 20; seed++) {
+      Random random = new Random(seed);
+      String script = script(random, 60);
+      StringBuilder expected = new StringBuilder();
+      new DungeonConsoleController(new StringReader(script), expected)
+              .startDungeon(create(seed));
+      assertEquals("seed " + seed, expected.toString(), session(create(seed), script, random));
+    }
+  }
+
+  @Test
+  public void testCommandsInOneRead() {
+    StringBuilder out = new StringBuilder();
+    ConsoleSession session = new ConsoleSession(create(1), out);
+    int greeting = out.length();
+    session.read(ByteBuffer.wrap("jump hop quit".getBytes(StandardCharsets.UTF_8)));
+    String prompt = "\nWhat do you want to do next?: move, pick or shoot? (q to quit)\n";
+    assertEquals("jump is not a valid command!\n" + prompt + "hop is not a valid command!\n"
+            + prompt, out.substring(greeting));
+    assertFalse("quit is not read without whitespace after it", session.isEnded());
+    session.read(ByteBuffer.wrap(new byte[] {'\n'}));
+    assertTrue(session.isEnded());
+    assertTrue(out.toString().endsWith("Come back soon!\n"));
+  }
+
+  @Test
+  public void testLongWordEnds() {
+    StringBuilder out = new StringBuilder();
+    ConsoleSession session = new ConsoleSession(create(2), out);
+    ByteBuffer in = ByteBuffer.wrap(new byte[300]);
+    while (in.hasRemaining()) {
+      in.put((byte) 'x');
+    }
+    in.flip();
+    session.read(in);
+    assertTrue(session.isEnded());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullDungeon() {
+    new ConsoleSession(null, new StringBuilder());
+  }
+}
@@ -0,0 +1,150 @@
+package dungeon.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import dungeon.model.CellStorage;
+import dungeon.model.DungeonSettings;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests that the server plays a whole game with a player over a socket, turns
+ * players away when it is full, and stops cleanly: it disconnects the players,
+ * refuses new ones and its threads end.
+ */
+public class DungeonServerTest {
+  private static final DungeonSettings SETTINGS = new DungeonSettings(6, 6, 2, 50, false, 1,
+          CellStorage.OBJECTS);
+  private static final String GREETING = "----------You have entered the dungeon----------\n";
+  private static final String PROMPT =
+          "\nWhat do you want to do next?: move, pick or shoot? (q to quit)\n";
+  private static final int TIMEOUT = 10000;
+
+  private DungeonServer server;
+
+  @After
+  public void tearDown() throws IOException {
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  // connects a player to the server
+  private static Socket connect(int port) throws IOException {
+    Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    socket.setSoTimeout(TIMEOUT);
+    return socket;
+  }
+
+  // reads what the server sends until it disconnects
+  private static String readAll(Socket socket) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    socket.getInputStream().transferTo(bytes);
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  // reads the first line of a game and checks it is the greeting
+  private static void assertGreeted(Socket socket) throws IOException {
+    InputStream in = socket.getInputStream();
+    byte[] greeting = new byte[GREETING.length()];
+    int read = 0;
+    while (read < greeting.length) {
+      int n = in.read(greeting, read, greeting.length - read);
+      assertTrue("greeted before disconnected", n > 0);
+      read += n;
+    }
+    assertEquals(GREETING, new String(greeting, StandardCharsets.UTF_8));
+  }
+
+  // waits until the server has no sessions left
+  private void awaitNoSessions() throws InterruptedException {
+    long end = System.currentTimeMillis() + TIMEOUT;
+    while (server.getActiveSessions() > 0 && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, server.getActiveSessions());
+  }
+
+  // waits for the threads of the server to end
+  private static void awaitServerThreads() throws InterruptedException {
+    for (Thread t : Thread.getAllStackTraces().keySet()) {
+      if (t.getName().startsWith("dungeon-server") || t.getName().startsWith("dungeon-session")) {
+        t.join(TIMEOUT);
+        assertFalse(t.getName() + " ended", t.isAlive());
+      }
+    }
+  }
+
+  @Test
+  public void testSession() throws Exception {
+    server = new DungeonServer(SETTINGS, 2, TIMEOUT);
+    int port = server.start(0);
+    String transcript;
+    try (Socket player = connect(port)) {
+      player.getOutputStream().write("hello\npick\nx\nq\n".getBytes(StandardCharsets.UTF_8));
+      transcript = readAll(player);
+    }
+    assertTrue(transcript, transcript.startsWith(GREETING));
+    String end = "hello is not a valid command!\n" + PROMPT
+            + "What? Treasure (t) or Arrow (a)\n";
+    int start = transcript.indexOf(PROMPT) + PROMPT.length();
+    assertTrue(transcript, transcript.startsWith(end, start));
+    assertTrue(transcript, transcript.endsWith(PROMPT + "Come back soon!\n"));
+    awaitNoSessions();
+    server.close();
+    awaitServerThreads();
+    try (Socket late = connect(port)) {
+      fail("connected to a closed server on " + late.getPort());
+    } catch (ConnectException e) {
+      // the server no longer listens
+    }
+  }
+
+  @Test
+  public void testCloseDisconnects() throws Exception {
+    server = new DungeonServer(SETTINGS, 2, TIMEOUT);
+    int port = server.start(0);
+    try (Socket player = connect(port)) {
+      assertGreeted(player);
+      assertEquals(1, server.getActiveSessions());
+      server.close();
+      readAll(player);
+    }
+    awaitNoSessions();
+    awaitServerThreads();
+  }
+
+  @Test
+  public void testFull() throws Exception {
+    server = new DungeonServer(SETTINGS, 1, TIMEOUT);
+    int port = server.start(0);
+    try (Socket first = connect(port)) {
+      assertGreeted(first);
+      try (Socket second = connect(port)) {
+        assertEquals("Server is full, try again later\n", readAll(second));
+      }
+      first.getOutputStream().write("quit\n".getBytes(StandardCharsets.UTF_8));
+      assertTrue(readAll(first).endsWith("Come back soon!\n"));
+    }
+    awaitNoSessions();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStartTwice() throws IOException {
+    server = new DungeonServer(SETTINGS, 1, TIMEOUT);
+    server.start(0);
+    server.start(0);
+  }
+}
@@ -0,0 +1,152 @@
+package dungeon.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import dungeon.model.CellStorage;
+import dungeon.model.DungeonSettings;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests that the players of the selector server each get their own game, with
+ * answers which are not mixed up with those of other players even when they
+ * play at the same time, and that the buffers of their output go back to the
+ * pool when they leave.
+ */
+public class NioDungeonServerTest {
+  private static final DungeonSettings SETTINGS = new DungeonSettings(6, 6, 2, 50, false, 1,
+          CellStorage.OBJECTS);
+  private static final String GREETING = "----------You have entered the dungeon----------\n";
+  private static final String PROMPT =
+          "\nWhat do you want to do next?: move, pick or shoot? (q to quit)\n";
+  private static final int WORDS = 300;
+  private static final int TIMEOUT = 10000;
+
+  private NioDungeonServer server;
+
+  @After
+  public void tearDown() {
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  // reads what the server sends until it disconnects
+  private static String readAll(Socket socket) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    socket.getInputStream().transferTo(bytes);
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  // reads the first line of a game and checks it is the greeting
+  private static void assertGreeted(Socket socket) throws IOException {
+    InputStream in = socket.getInputStream();
+    byte[] greeting = new byte[GREETING.length()];
+    int read = 0;
+    while (read < greeting.length) {
+      int n = in.read(greeting, read, greeting.length - read);
+      assertTrue("greeted before disconnected", n > 0);
+      read += n;
+    }
+    assertEquals(GREETING, new String(greeting, StandardCharsets.UTF_8));
+  }
+
+  // checks a transcript is one whole game of a player who only sent invalid words with
+  // the name and quit
+  private static void assertTranscript(String name, String transcript) {
+    assertTrue(name, transcript.startsWith(GREETING));
+    int start = transcript.indexOf(PROMPT) + PROMPT.length();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < WORDS; i++) {
+      expected.append(name).append(i).append(" is not a valid command!\n").append(PROMPT);
+    }
+    expected.append("Come back soon!\n");
+    assertEquals(name, expected.toString(), transcript.substring(start));
+  }
+
+  // waits until the server has no sessions left
+  private void awaitNoSessions() throws InterruptedException {
+    long end = System.currentTimeMillis() + TIMEOUT;
+    while (server.getActiveSessions() > 0 && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, server.getActiveSessions());
+  }
+
+  @Test
+  public void testTwoPlayersAtOnce() throws Exception {
+    server = new NioDungeonServer(SETTINGS, 4, TIMEOUT);
+    int port = server.start(0);
+    try (Socket alpha = new Socket(InetAddress.getLoopbackAddress(), port);
+         Socket beta = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      alpha.setSoTimeout(TIMEOUT);
+      beta.setSoTimeout(TIMEOUT);
+      OutputStream toAlpha = alpha.getOutputStream();
+      OutputStream toBeta = beta.getOutputStream();
+      // the words of the two players go out one after the other, some of them split
+      // across writes
+      for (int i = 0; i < WORDS; i++) {
+        byte[] a = ("alpha" + i + " ").getBytes(StandardCharsets.UTF_8);
+        byte[] b = ("beta" + i + "\n").getBytes(StandardCharsets.UTF_8);
+        toAlpha.write(a, 0, 3);
+        toBeta.write(b);
+        toAlpha.write(a, 3, a.length - 3);
+        toAlpha.flush();
+        toBeta.flush();
+      }
+      toAlpha.write("q\n".getBytes(StandardCharsets.UTF_8));
+      toBeta.write("quit\n".getBytes(StandardCharsets.UTF_8));
+      String fromAlpha = readAll(alpha);
+      String fromBeta = readAll(beta);
+      assertTranscript("alpha", fromAlpha);
+      assertTranscript("beta", fromBeta);
+      assertFalse(fromAlpha.contains("beta"));
+      assertFalse(fromBeta.contains("alpha"));
+    }
+    awaitNoSessions();
+    assertEquals("buffers given back", 0, server.getBufferPool().getInUse());
+  }
+
+  @Test
+  public void testFull() throws Exception {
+    server = new NioDungeonServer(SETTINGS, 1, TIMEOUT);
+    int port = server.start(0);
+    try (Socket first = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      first.setSoTimeout(TIMEOUT);
+      assertGreeted(first);
+      try (Socket second = new Socket(InetAddress.getLoopbackAddress(), port)) {
+        second.setSoTimeout(TIMEOUT);
+        assertEquals("Server is full, try again later\n", readAll(second));
+      }
+      first.getOutputStream().write("q\n".getBytes(StandardCharsets.UTF_8));
+      assertTrue(readAll(first).endsWith("Come back soon!\n"));
+    }
+    awaitNoSessions();
+    assertEquals(0, server.getBufferPool().getInUse());
+  }
+
+  @Test
+  public void testCloseDisconnects() throws Exception {
+    server = new NioDungeonServer(SETTINGS, 2, TIMEOUT);
+    int port = server.start(0);
+    try (Socket player = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      player.setSoTimeout(TIMEOUT);
+      assertGreeted(player);
+      server.close();
+      assertTrue(readAll(player).endsWith(PROMPT));
+      assertEquals(0, server.getActiveSessions());
+      assertEquals(0, server.getBufferPool().getInUse());
+    }
+  }
+}
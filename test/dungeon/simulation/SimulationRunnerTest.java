@@ -0,0 +1,47 @@
+package dungeon.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import dungeon.model.CellStorage;
+import dungeon.model.DungeonSettings;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests that a batch of games gives the same outcome for a seed however many
+ * threads play it, with strategies which draw random numbers.
+ */
+public class SimulationRunnerTest {
+  private static final DungeonSettings SETTINGS = new DungeonSettings(6, 6, 2, 50, false, 1,
+          CellStorage.ARRAYS);
+  private static final int GAMES = 1500;
+
+  // the outcome of the batch of the seed on a pool of the threads, without its time
+  private static String run(long seed, int threads) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      SimulationReport r = new SimulationRunner(SETTINGS, RandomWalkStrategy::new, 200, pool)
+              .run(GAMES, seed);
+      assertEquals(GAMES, r.getGames());
+      return r.getWins() + " " + r.getLosses() + " " + r.getUnfinished() + " " + r.getFailed()
+              + " " + r.getAverageMoves() + " " + r.getMinMoves() + " " + r.getMaxMoves();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testSameOnAnyPool() {
+    for (long seed = 1; seed <= 3; seed++) {
+      String expected = run(seed, 1);
+      for (int threads : new int[] {2, 3, 8}) {
+        assertEquals("seed " + seed + " on " + threads + " threads", expected,
+                run(seed, threads));
+      }
+    }
+    assertNotEquals(run(1, 4), run(2, 4));
+  }
+}